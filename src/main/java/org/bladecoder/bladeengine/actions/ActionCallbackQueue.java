@@ -15,8 +15,7 @@
  ******************************************************************************/
 package org.bladecoder.bladeengine.actions;
 
-import java.util.ArrayList;
-import java.util.List;
+import com.badlogic.gdx.utils.TimeUtils;
 
 /**
  * This is a queue to group all cb that must be triggered in the next iteration.
@@ -24,24 +23,131 @@ import java.util.List;
  * 
  * All ActionCb must be called at once outside update methods of Actors.
  * 
+ * The callbacks are added to one buffer and run from the other, the buffers
+ * are swapped when the running buffer is empty. Without a time budget, the
+ * callbacks added while running are called in the next iteration. With a
+ * time budget, they are called in the same iteration while there is time
+ * left, and the callbacks that don't fit are called first in the next
+ * iteration. The World runs the queue once per frame.
+ * 
  * @author rgarcia
  *
  */
 public class ActionCallbackQueue {
-	private static final List<ActionCallback> queue = new ArrayList<ActionCallback>();
-	
+	private static final int INITIAL_CAPACITY = 64;
+
+	private static final Object lock = new Object();
+
+	/** The buffer where the callbacks are added */
+	private static ActionCallback[] incoming = new ActionCallback[INITIAL_CAPACITY];
+	private static int incomingSize = 0;
+
+	/** The buffer being run, from 'pos' to 'runningSize' */
+	private static ActionCallback[] running = new ActionCallback[INITIAL_CAPACITY];
+	private static int runningSize = 0;
+	private static int pos = 0;
+
+	/** Max. nanoseconds to run callbacks in each iteration. 0 for no limit */
+	private static long budget = 0;
+
+	private static int lastCount = 0;
+	private static long lastTime = 0;
+
+	/**
+	 * Adds a callback. Can be called from any thread.
+	 */
 	public static void add(ActionCallback cb) {
-		queue.add(cb);
+		synchronized (lock) {
+			if (incomingSize == incoming.length) {
+				ActionCallback[] a = new ActionCallback[incoming.length * 2];
+				System.arraycopy(incoming, 0, a, 0, incomingSize);
+				incoming = a;
+			}
+
+			incoming[incomingSize++] = cb;
+		}
 	}
-	
+
 	public static void run() {
-		if(!queue.isEmpty()) {
-			ActionCallback[] array = queue.toArray(new ActionCallback[queue.size()]);
-			
-			queue.clear();
-			
-			for(ActionCallback cb: array)
-				cb.onEvent();
+		lastCount = 0;
+		lastTime = 0;
+
+		if (pos == runningSize && !swap())
+			return;
+
+		long start = TimeUtils.nanoTime();
+
+		while (pos < runningSize) {
+			ActionCallback cb = running[pos];
+			running[pos++] = null;
+			lastCount++;
+
+			cb.onEvent();
+
+			lastTime = TimeUtils.nanoTime() - start;
+
+			// At least one callback is called in every iteration
+			if (budget > 0 && lastTime >= budget)
+				break;
+
+			// Without a budget, a callback that adds itself would never end
+			if (pos == runningSize && budget > 0)
+				swap();
+		}
+	}
+
+	/**
+	 * Exchanges the buffers. Returns false if there are no callbacks.
+	 */
+	private static boolean swap() {
+		synchronized (lock) {
+			if (incomingSize == 0)
+				return false;
+
+			ActionCallback[] a = running;
+			running = incoming;
+			runningSize = incomingSize;
+			pos = 0;
+
+			incoming = a;
+			incomingSize = 0;
+		}
+
+		return true;
+	}
+
+	/**
+	 * Sets the max. time in seconds to run callbacks in each iteration. The
+	 * remaining callbacks are deferred to the next iteration. 0 for no limit.
+	 */
+	public static void setTimeBudget(float seconds) {
+		budget = (long) (seconds * 1000000000L);
+	}
+
+	public static float getTimeBudget() {
+		return budget / 1000000000f;
+	}
+
+	/**
+	 * Number of callbacks called in the last iteration.
+	 */
+	public static int getLastCount() {
+		return lastCount;
+	}
+
+	/**
+	 * Nanoseconds spent calling callbacks in the last iteration.
+	 */
+	public static long getLastTime() {
+		return lastTime;
+	}
+
+	/**
+	 * Number of callbacks waiting, deferred or added.
+	 */
+	public static int getPending() {
+		synchronized (lock) {
+			return runningSize - pos + incomingSize;
 		}
 	}
 }
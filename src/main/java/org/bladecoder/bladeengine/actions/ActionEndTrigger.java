@@ -16,5 +16,8 @@
 package org.bladecoder.bladeengine.actions;
 
 public interface ActionEndTrigger {
+	/**
+	 * Adds a callback called when the action ends.
+	 */
 	public void setCallback(ActionCallback cb);
 }
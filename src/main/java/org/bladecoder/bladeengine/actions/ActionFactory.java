@@ -22,97 +22,255 @@ import org.bladecoder.bladeengine.util.EngineLogger;
 import com.badlogic.gdx.utils.reflect.ClassReflection;
 import com.badlogic.gdx.utils.reflect.ReflectionException;
 
+/**
+ * Creates the actions by name or by class name.
+ * 
+ * Every action type is resolved once to an ActionCreator. The engine actions
+ * are registered with a creator that calls the constructor. Custom actions
+ * can be registered with register() or are created by reflection, resolving
+ * the class only the first time.
+ */
 public class ActionFactory {
 
-	private static final HashMap<String, String> actions;
+	/**
+	 * Creates new instances of an action type.
+	 */
+	public interface ActionCreator {
+		public Action create();
+	}
+
+	private static final HashMap<String, ActionCreator> actions = new HashMap<String, ActionCreator>();
+	private static final HashMap<String, ActionCreator> actionsByClass = new HashMap<String, ActionCreator>();
 
 	static {
-		actions = new HashMap<String, String>();
-		
-		actions.put("lookat",
-				"org.bladecoder.bladeengine.actions.LookAtAction");
-		actions.put("pickup",
-				"org.bladecoder.bladeengine.actions.PickUpAction");
-		actions.put("goto",
-				"org.bladecoder.bladeengine.actions.GotoAction");
-		actions.put("leave",
-				"org.bladecoder.bladeengine.actions.LeaveAction");
-
-		actions.put("set_state",
-				"org.bladecoder.bladeengine.actions.SetStateAction");
-		actions.put("set_active",
-				"org.bladecoder.bladeengine.actions.SetActiveAction");
-		actions.put("set_cutmode",
-				"org.bladecoder.bladeengine.actions.SetCutmodeAction");
-		actions.put("set_frame_animation",
-				"org.bladecoder.bladeengine.actions.FrameAnimationAction");
-		actions.put("pos_animation",
-				"org.bladecoder.bladeengine.actions.PosAnimationAction");
-		actions.put("remove_inventory_item",
-				"org.bladecoder.bladeengine.actions.RemoveInventoryItemAction");
-		actions.put("say",
-				"org.bladecoder.bladeengine.actions.SayAction");
-		actions.put("drop_item",
-				"org.bladecoder.bladeengine.actions.DropItemAction");
-		actions.put("wait",
-				"org.bladecoder.bladeengine.actions.WaitAction");
-		actions.put("talkto",
-				"org.bladecoder.bladeengine.actions.TalktoAction");
-		actions.put("dialog_option",
-				"org.bladecoder.bladeengine.actions.DialogOptionAction");
-		actions.put("say_dialog",
-				"org.bladecoder.bladeengine.actions.SayDialogAction");
-		actions.put("run_verb",
-				"org.bladecoder.bladeengine.actions.RunVerbAction");
-		actions.put("cancel_verb",
-				"org.bladecoder.bladeengine.actions.CancelVerbAction");
-		actions.put("sound",
-				"org.bladecoder.bladeengine.actions.SoundAction");
-		actions.put("music",
-				"org.bladecoder.bladeengine.actions.MusicAction");
-		actions.put("overlay",
-				"org.bladecoder.bladeengine.actions.OverlayAction");
-		actions.put("camera",
-				"org.bladecoder.bladeengine.actions.CameraAction");
-		actions.put("transition",
-				"org.bladecoder.bladeengine.actions.TransitionAction");
+		register("lookat", LookAtAction.class, new ActionCreator() {
+			@Override
+			public Action create() {
+				return new LookAtAction();
+			}
+		});
+		register("pickup", PickUpAction.class, new ActionCreator() {
+			@Override
+			public Action create() {
+				return new PickUpAction();
+			}
+		});
+		register("goto", GotoAction.class, new ActionCreator() {
+			@Override
+			public Action create() {
+				return new GotoAction();
+			}
+		});
+		register("leave", LeaveAction.class, new ActionCreator() {
+			@Override
+			public Action create() {
+				return new LeaveAction();
+			}
+		});
+		register("set_state", SetStateAction.class, new ActionCreator() {
+			@Override
+			public Action create() {
+				return new SetStateAction();
+			}
+		});
+		register("set_active", SetActiveAction.class, new ActionCreator() {
+			@Override
+			public Action create() {
+				return new SetActiveAction();
+			}
+		});
+		register("set_cutmode", SetCutmodeAction.class, new ActionCreator() {
+			@Override
+			public Action create() {
+				return new SetCutmodeAction();
+			}
+		});
+		register("set_frame_animation", FrameAnimationAction.class, new ActionCreator() {
+			@Override
+			public Action create() {
+				return new FrameAnimationAction();
+			}
+		});
+		register("pos_animation", PosAnimationAction.class, new ActionCreator() {
+			@Override
+			public Action create() {
+				return new PosAnimationAction();
+			}
+		});
+		register("remove_inventory_item", RemoveInventoryItemAction.class, new ActionCreator() {
+			@Override
+			public Action create() {
+				return new RemoveInventoryItemAction();
+			}
+		});
+		register("say", SayAction.class, new ActionCreator() {
+			@Override
+			public Action create() {
+				return new SayAction();
+			}
+		});
+		register("drop_item", DropItemAction.class, new ActionCreator() {
+			@Override
+			public Action create() {
+				return new DropItemAction();
+			}
+		});
+		register("wait", WaitAction.class, new ActionCreator() {
+			@Override
+			public Action create() {
+				return new WaitAction();
+			}
+		});
+		register("talkto", TalktoAction.class, new ActionCreator() {
+			@Override
+			public Action create() {
+				return new TalktoAction();
+			}
+		});
+		register("dialog_option", DialogOptionAction.class, new ActionCreator() {
+			@Override
+			public Action create() {
+				return new DialogOptionAction();
+			}
+		});
+		register("say_dialog", SayDialogAction.class, new ActionCreator() {
+			@Override
+			public Action create() {
+				return new SayDialogAction();
+			}
+		});
+		register("run_verb", RunVerbAction.class, new ActionCreator() {
+			@Override
+			public Action create() {
+				return new RunVerbAction();
+			}
+		});
+		register("cancel_verb", CancelVerbAction.class, new ActionCreator() {
+			@Override
+			public Action create() {
+				return new CancelVerbAction();
+			}
+		});
+		register("sound", SoundAction.class, new ActionCreator() {
+			@Override
+			public Action create() {
+				return new SoundAction();
+			}
+		});
+		register("music", MusicAction.class, new ActionCreator() {
+			@Override
+			public Action create() {
+				return new MusicAction();
+			}
+		});
+		register("overlay", OverlayAction.class, new ActionCreator() {
+			@Override
+			public Action create() {
+				return new OverlayAction();
+			}
+		});
+		register("camera", CameraAction.class, new ActionCreator() {
+			@Override
+			public Action create() {
+				return new CameraAction();
+			}
+		});
+		register("transition", TransitionAction.class, new ActionCreator() {
+			@Override
+			public Action create() {
+				return new TransitionAction();
+			}
+		});
+	}
+
+	/**
+	 * Registers an action type.
+	 * 
+	 * @param name
+	 *            The name used in the 'action_name' attribute. Can be null.
+	 */
+	public static void register(String name, Class<? extends Action> type,
+			ActionCreator creator) {
+		if (name != null)
+			actions.put(name, creator);
+
+		actionsByClass.put(type.getName(), creator);
 	}
 	
+	/**
+	 * Returns the creator registered for the action name or null.
+	 */
+	public static ActionCreator getCreator(String name) {
+		return actions.get(name);
+	}
+
 	public static String []getActionList() {
 		return  actions.keySet().toArray(new String[actions.size()]);
 	}
 
 	public static Action create(String name,
 			HashMap<String, String> params) {
-		String className = actions.get(name);
+		ActionCreator creator = actions.get(name);
 
-		if (className == null) {
+		if (creator == null) {
 			EngineLogger.error( "Action with name '" + name
 					+ "' not found.");
 
 			return null;
 		}
 
-		return ActionFactory.createByClass(className, params);
+		return create(creator, params);
 	}	
 	
-	
-	
 	public static Action createByClass(String className,
 			HashMap<String, String> params) {
+		ActionCreator creator = actionsByClass.get(className);
+
+		if (creator == null) {
+			creator = getReflectionCreator(className);
+
+			if (creator == null)
+				return null;
+
+			actionsByClass.put(className, creator);
+		}
+
+		return create(creator, params);
+	}
+
+	private static Action create(ActionCreator creator,
+			HashMap<String, String> params) {
+		Action a = creator.create();
 
-		Action a = null;
+		if (a != null && params != null)
+			a.setParams(params);
+
+		return a;
+	}
+
+	/**
+	 * Creator for classes not registered. The class is searched only once.
+	 */
+	private static ActionCreator getReflectionCreator(String className) {
+		final Class<?> c;
 
 		try {
-			Class<?> c = ClassReflection.forName(className);
-			a = (Action) ClassReflection.newInstance(c);
-			
-			if(params != null)
-				a.setParams(params);
+			c = ClassReflection.forName(className);
 		} catch (ReflectionException e) {
 			EngineLogger.error(e.getMessage());
+			return null;
 		}
 
-		return a;
+		return new ActionCreator() {
+			@Override
+			public Action create() {
+				try {
+					return (Action) ClassReflection.newInstance(c);
+				} catch (ReflectionException e) {
+					EngineLogger.error(e.getMessage());
+					return null;
+				}
+			}
+		};
 	}
 }
@@ -15,45 +15,91 @@
  ******************************************************************************/
 package org.bladecoder.bladeengine.actions;
 
+import java.util.ArrayList;
+
 import org.bladecoder.bladeengine.util.ActionCallbackSerialization;
 
 import com.badlogic.gdx.utils.Json;
 import com.badlogic.gdx.utils.Json.Serializable;
 import com.badlogic.gdx.utils.JsonValue;
 
+/**
+ * Action that calls its callbacks when it ends. If the action is started
+ * again before it ends, all the callers wait for the same end: actions like a
+ * walk replace their pending work and end only once.
+ */
 public class BaseCallbackAction implements ActionCallback, ActionEndTrigger, Serializable {	
-	private ActionCallback cb;
-	private String cbSer;
+	private final ArrayList<ActionCallback> cbs = new ArrayList<ActionCallback>();
+	private ArrayList<String> cbSer;
 
 	@Override
 	public void onEvent() {
-		if(cb != null || cbSer != null) {
-			if(cb==null) {
-				cb =  ActionCallbackSerialization.find(cbSer);
-				cbSer = null;
-			}
-			
-			ActionCallback cb2 = cb;
-			cb = null;
-			cb2.onEvent();
-		}
+		resolveCallbacks();
+
+		if(cbs.isEmpty())
+			return;
+
+		// The callbacks can start the action again
+		ActionCallback[] waiting = cbs.toArray(new ActionCallback[cbs.size()]);
+		cbs.clear();
+
+		for(ActionCallback cb: waiting)
+			cb.onEvent();
 	}
 
 	@Override
 	public void setCallback(ActionCallback cb) {
-		this.cb = cb;
-	}	
+		resolveCallbacks();
+
+		if(!cbs.contains(cb))
+			cbs.add(cb);
+	}
+
+	private void resolveCallbacks() {
+		if(cbSer != null) {
+			for(String id: cbSer) {
+				ActionCallback cb = ActionCallbackSerialization.find(id);
+				
+				if(cb != null)
+					cbs.add(cb);
+			}
+			
+			cbSer = null;
+		}
+	}
 
 	@Override
 	public void write(Json json) {
-		if(cbSer != null)
-			json.writeValue("cb", cbSer);
-		else
-			json.writeValue("cb", ActionCallbackSerialization.find(cb), cb == null ? null : String.class);	
+		ArrayList<String> ids = cbSer;
+		
+		if(ids == null) {
+			ids = new ArrayList<String>();
+			
+			for(ActionCallback cb: cbs) {
+				String id = ActionCallbackSerialization.find(cb);
+				
+				if(id != null)
+					ids.add(id);
+			}
+		}
+		
+		json.writeValue("cb", ids, ArrayList.class, String.class);	
 	}
 
+	@SuppressWarnings("unchecked")
 	@Override
-	public void read (Json json, JsonValue jsonData) {	
-		cbSer = json.readValue("cb", String.class, jsonData);
+	public void read (Json json, JsonValue jsonData) {
+		cbs.clear();
+		
+		JsonValue v = jsonData.get("cb");
+		
+		if(v == null || v.isNull()) {
+			cbSer = null;
+		} else if(v.isString()) {
+			cbSer = new ArrayList<String>();
+			cbSer.add(v.asString());
+		} else {
+			cbSer = json.readValue("cb", ArrayList.class, String.class, jsonData);
+		}
 	}
 }
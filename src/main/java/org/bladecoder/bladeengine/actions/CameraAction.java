@@ -19,6 +19,7 @@ import java.util.HashMap;
 
 import org.bladecoder.bladeengine.actions.Param.Type;
 import org.bladecoder.bladeengine.assets.EngineAssetManager;
+import org.bladecoder.bladeengine.model.ActorRegistry;
 import org.bladecoder.bladeengine.model.SpriteActor;
 import org.bladecoder.bladeengine.model.World;
 import org.bladecoder.bladeengine.model.SceneCamera;
@@ -44,6 +45,7 @@ public class CameraAction extends BaseCallbackAction implements Action {
 					Type.BOOLEAN, true) };
 
 	private String actorId, followActorId;
+	private int followActorHandle = ActorRegistry.NO_HANDLE;
 	private float zoom=-1, duration;
 	private boolean wait = true;
 	private Vector2 pos;
@@ -52,6 +54,7 @@ public class CameraAction extends BaseCallbackAction implements Action {
 	public void setParams(HashMap<String, String> params) {
 		actorId = params.get("actor");
 		followActorId = params.get("followActorId");
+		followActorHandle = getFollowActorHandle();
 
 		pos = Param.parseVector2(params.get("pos"));
 
@@ -90,7 +93,7 @@ public class CameraAction extends BaseCallbackAction implements Action {
 				camera.updatePos(null);
 			else
 				camera.updatePos((SpriteActor) World.getInstance().getCurrentScene()
-						.getActor(followActorId));
+						.getActorByHandle(followActorHandle));
 		}
 
 		if (duration == 0) {
@@ -108,6 +111,16 @@ public class CameraAction extends BaseCallbackAction implements Action {
 	}
 
 
+	/**
+	 * 'none' is not an actor, no handle is created for it.
+	 */
+	private int getFollowActorHandle() {
+		if (followActorId == null || followActorId.equals("none"))
+			return ActorRegistry.NO_HANDLE;
+
+		return ActorRegistry.getInstance().getHandle(followActorId);
+	}
+
 	@Override
 	public void write(Json json) {
 		json.writeValue("actorId", actorId);
@@ -123,6 +136,7 @@ public class CameraAction extends BaseCallbackAction implements Action {
 	public void read(Json json, JsonValue jsonData) {
 		actorId = json.readValue("actorId", String.class, jsonData);
 		followActorId = json.readValue("followActorId", String.class, jsonData);
+		followActorHandle = getFollowActorHandle();
 		pos = json.readValue("pos", Vector2.class, jsonData);
 		zoom = json.readValue("zoom", Float.class, jsonData);
 		duration = json.readValue("duration", Float.class, jsonData);
@@ -19,6 +19,7 @@ import java.util.HashMap;
 
 import org.bladecoder.bladeengine.actions.Param.Type;
 import org.bladecoder.bladeengine.model.Actor;
+import org.bladecoder.bladeengine.model.ActorRegistry;
 import org.bladecoder.bladeengine.model.Scene;
 import org.bladecoder.bladeengine.model.World;
 
@@ -35,12 +36,14 @@ public class CancelVerbAction implements Action {
 		};
 	
 	String actorId;
+	int actorHandle = ActorRegistry.NO_HANDLE;
 	String verb;
 	String target;
 	
 	@Override
 	public void setParams(HashMap<String, String> params) {
 		actorId = params.get("actor");
+		actorHandle = ActorRegistry.getInstance().getHandle(actorId);
 		verb = params.get("verb");
 		target = params.get("target");
 	}
@@ -48,7 +51,7 @@ public class CancelVerbAction implements Action {
 	@Override
 	public void run() {
 		if(actorId != null) {
-			Actor actor = World.getInstance().getCurrentScene().getActor(actorId);
+			Actor actor = World.getInstance().getCurrentScene().getActorByHandle(actorHandle);
 		
 			actor.getVerbManager().cancelVerb(verb, actor.getState(), target);
 		} else {
@@ -18,6 +18,7 @@ package org.bladecoder.bladeengine.actions;
 import java.util.HashMap;
 
 import org.bladecoder.bladeengine.actions.Param.Type;
+import org.bladecoder.bladeengine.model.ActorRegistry;
 import org.bladecoder.bladeengine.model.SpriteActor;
 import org.bladecoder.bladeengine.model.Dialog;
 import org.bladecoder.bladeengine.model.DialogOption;
@@ -35,6 +36,7 @@ public class DialogOptionAction implements Action {
 	
 	
 	String actorId;
+	int actorHandle = ActorRegistry.NO_HANDLE;
 	String dialog;
 	String option;
 	boolean setVisibility;
@@ -44,6 +46,7 @@ public class DialogOptionAction implements Action {
 	@Override
 	public void setParams(HashMap<String, String> params) {
 		actorId = params.get("actor");
+		actorHandle = ActorRegistry.getInstance().getHandle(actorId);
 		dialog = params.get("dialog");
 		option = params.get("option");
 
@@ -61,7 +64,7 @@ public class DialogOptionAction implements Action {
 	public void run() {
 
 		SpriteActor actor = (SpriteActor) World.getInstance().getCurrentScene()
-				.getActor(actorId);
+				.getActorByHandle(actorHandle);
 		Dialog d = actor.getDialog(dialog);
 
 		if (d == null) {
@@ -21,6 +21,7 @@ import java.util.HashMap;
 import org.bladecoder.bladeengine.actions.Param.Type;
 import org.bladecoder.bladeengine.assets.EngineAssetManager;
 import org.bladecoder.bladeengine.model.Actor;
+import org.bladecoder.bladeengine.model.ActorRegistry;
 import org.bladecoder.bladeengine.model.SpriteActor;
 import org.bladecoder.bladeengine.model.World;
 import org.bladecoder.bladeengine.util.EngineLogger;
@@ -34,11 +35,13 @@ public class DropItemAction implements Action {
 		};	
 	
 	String itemId;
+	int itemHandle = ActorRegistry.NO_HANDLE;
 	Vector2 pos;
 	
 	@Override
 	public void setParams(HashMap<String, String> params) {
 		itemId = params.get("actor");
+		itemHandle = ActorRegistry.getInstance().getHandle(itemId);
 		pos = Param.parseVector2(params.get("pos"));
 	}
 
@@ -46,14 +49,14 @@ public class DropItemAction implements Action {
 	public void run() {
 		float scale =  EngineAssetManager.getInstance().getScale();
 		
-		Actor actor = World.getInstance().getCurrentScene().getActor(itemId);
+		Actor actor = World.getInstance().getCurrentScene().getActorByHandle(itemHandle);
 		
 		if(actor==null) {
 			EngineLogger.error(MessageFormat.format("DropItemAction -  Item not found: {0}", itemId));
 			return;
 		}
 		
-		World.getInstance().getInventory().removeItem(itemId);
+		World.getInstance().getInventory().removeItem((SpriteActor)actor);
 		
 		World.getInstance().getCurrentScene().addActor(actor);
 		
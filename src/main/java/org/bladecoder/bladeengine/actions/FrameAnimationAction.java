@@ -21,6 +21,7 @@ import java.util.HashMap;
 import org.bladecoder.bladeengine.actions.Param.Type;
 import org.bladecoder.bladeengine.anim.Tween;
 import org.bladecoder.bladeengine.assets.EngineAssetManager;
+import org.bladecoder.bladeengine.model.ActorRegistry;
 import org.bladecoder.bladeengine.model.SpriteActor;
 import org.bladecoder.bladeengine.model.World;
 import org.bladecoder.bladeengine.util.EngineLogger;
@@ -47,6 +48,7 @@ public class FrameAnimationAction extends BaseCallbackAction implements Action {
 	
 	private String fa;
 	private String actorId;
+	private int actorHandle = ActorRegistry.NO_HANDLE;
 	private float posx, posy;
 	private int setPos = NO_POS;
 	private boolean reverse = false;
@@ -57,6 +59,7 @@ public class FrameAnimationAction extends BaseCallbackAction implements Action {
 	@Override
 	public void setParams(HashMap<String, String> params) {
 		actorId = params.get("actor");
+		actorHandle = ActorRegistry.getInstance().getHandle(actorId);
 		fa = params.get("frame_animation");
 
 		if (params.get("x") != null) {
@@ -102,7 +105,7 @@ public class FrameAnimationAction extends BaseCallbackAction implements Action {
 		
 		float scale =  EngineAssetManager.getInstance().getScale();
 
-		SpriteActor actor = (SpriteActor) World.getInstance().getCurrentScene().getActor(actorId);
+		SpriteActor actor = (SpriteActor) World.getInstance().getCurrentScene().getActorByHandle(actorHandle);
 		
 		if (setPos == SET_POS_ABSOLUTE)
 			actor.setPosition(posx * scale, posy * scale);
@@ -136,6 +139,7 @@ public class FrameAnimationAction extends BaseCallbackAction implements Action {
 	public void read (Json json, JsonValue jsonData) {	
 		fa = json.readValue("fa", String.class, jsonData);
 		actorId = json.readValue("actorId", String.class, jsonData);
+		actorHandle = ActorRegistry.getInstance().getHandle(actorId);
 		posx = json.readValue("posx", Float.class, jsonData);
 		posy = json.readValue("posy", Float.class, jsonData);
 		setPos = json.readValue("setPos", Integer.class, jsonData);
@@ -20,6 +20,7 @@ import java.util.HashMap;
 import org.bladecoder.bladeengine.actions.Param.Type;
 import org.bladecoder.bladeengine.assets.EngineAssetManager;
 import org.bladecoder.bladeengine.model.Actor;
+import org.bladecoder.bladeengine.model.ActorRegistry;
 import org.bladecoder.bladeengine.model.SpriteActor;
 import org.bladecoder.bladeengine.model.World;
 
@@ -37,8 +38,10 @@ public class GotoAction extends BaseCallbackAction implements Action {
 		};	
 	
 	private String actorId;
+	private int actorHandle = ActorRegistry.NO_HANDLE;
 	private Vector2 pos;
 	private String targetId;
+	private int targetHandle = ActorRegistry.NO_HANDLE;
 	
 	private boolean wait = true;
 
@@ -46,10 +49,10 @@ public class GotoAction extends BaseCallbackAction implements Action {
 	public void run() {
 		float scale = EngineAssetManager.getInstance().getScale();
 		
-		SpriteActor actor = (SpriteActor) World.getInstance().getCurrentScene().getActor(actorId);
+		SpriteActor actor = (SpriteActor) World.getInstance().getCurrentScene().getActorByHandle(actorHandle);
 		
 		if(targetId!=null) {
-			Actor target =  World.getInstance().getCurrentScene().getActor(targetId);
+			Actor target =  World.getInstance().getCurrentScene().getActorByHandle(targetHandle);
 			Rectangle bbox = target.getBBox().getBoundingRectangle();
 			actor.goTo(new Vector2(bbox.x, bbox.y), wait?this:null);			
 		} else 
@@ -62,11 +65,13 @@ public class GotoAction extends BaseCallbackAction implements Action {
 	@Override
 	public void setParams(HashMap<String, String> params) {
 		actorId = params.get("actor");
+		actorHandle = ActorRegistry.getInstance().getHandle(actorId);
 
 		if(params.get("pos") != null) {
 			pos = Param.parseVector2(params.get("pos"));
 		} else if(params.get("target") != null) {
 			targetId = params.get("target") ;	
+			targetHandle = ActorRegistry.getInstance().getHandle(targetId);
 		}
 		
 		if(params.get("wait") != null) {
@@ -123,7 +128,9 @@ public class GotoAction extends BaseCallbackAction implements Action {
 	public void read (Json json, JsonValue jsonData) {
 		pos = json.readValue("pos", Vector2.class, jsonData);
 		targetId = json.readValue("targetId", String.class, jsonData);
+		targetHandle = ActorRegistry.getInstance().getHandle(targetId);
 		actorId = json.readValue("actorId", String.class, jsonData);
+		actorHandle = ActorRegistry.getInstance().getHandle(actorId);
 		super.read(json, jsonData);
 	}	
 	
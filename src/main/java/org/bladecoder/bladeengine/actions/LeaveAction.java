@@ -37,6 +37,10 @@ public class LeaveAction implements Action {
 		World.getInstance().setCurrentScene(target);
 	}
 
+	public String getTarget() {
+		return target;
+	}
+
 	@Override
 	public void setParams(HashMap<String, String> params) {
 		target = params.get("target");		
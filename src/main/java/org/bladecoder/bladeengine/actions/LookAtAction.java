@@ -19,6 +19,7 @@ import java.util.HashMap;
 
 import org.bladecoder.bladeengine.actions.Param.Type;
 import org.bladecoder.bladeengine.model.Actor;
+import org.bladecoder.bladeengine.model.ActorRegistry;
 import org.bladecoder.bladeengine.model.SpriteActor;
 import org.bladecoder.bladeengine.anim.FrameAnimation;
 import org.bladecoder.bladeengine.model.Text;
@@ -47,12 +48,14 @@ public class LookAtAction implements Action {
 	private String text;
 
 	private String actorId;
+	private int actorHandle = ActorRegistry.NO_HANDLE;
 	
 	private String direction;
 
 	@Override
 	public void setParams(HashMap<String, String> params) {
 		actorId = params.get("actor");
+		actorHandle = ActorRegistry.getInstance().getHandle(actorId);
 
 		soundId = params.get("speech");
 		text = params.get("text");
@@ -62,7 +65,7 @@ public class LookAtAction implements Action {
 	@Override
 	public void run() {
 		EngineLogger.debug("LOOKAT ACTION");
-		Actor actor = (Actor) World.getInstance().getCurrentScene().getActor(actorId);
+		Actor actor = (Actor) World.getInstance().getCurrentScene().getActorByHandle(actorHandle);
 
 		SpriteActor player = World.getInstance().getCurrentScene().getPlayer();
 		
@@ -20,6 +20,7 @@ import java.util.HashMap;
 import org.bladecoder.bladeengine.actions.Param.Type;
 import org.bladecoder.bladeengine.assets.EngineAssetManager;
 import org.bladecoder.bladeengine.model.Actor;
+import org.bladecoder.bladeengine.model.ActorRegistry;
 import org.bladecoder.bladeengine.model.Scene;
 import org.bladecoder.bladeengine.model.SpriteActor;
 import org.bladecoder.bladeengine.model.World;
@@ -32,12 +33,14 @@ public class PickUpAction implements Action {
 		};
 	
 	String actorId;
+	int actorHandle = ActorRegistry.NO_HANDLE;
 	String fa;
 	String scene;
 
 	@Override
 	public void setParams(HashMap<String, String> params) {
 		actorId = params.get("actor");
+		actorHandle = ActorRegistry.getInstance().getHandle(actorId);
 		fa = params.get("frame_animation");
 		scene = params.get("scene");
 	}
@@ -50,13 +53,13 @@ public class PickUpAction implements Action {
 		
 		if(scene != null) {
 			scn = World.getInstance().getScene(scene);
-			actor = scn.getActor(actorId);
+			actor = scn.getActorByHandle(actorHandle);
 			actor.loadAssets();
 			EngineAssetManager.getInstance().finishLoading();
 			actor.retrieveAssets();
 		} else {
 			scn = World.getInstance().getCurrentScene();
-			actor = scn.getActor(actorId);
+			actor = scn.getActorByHandle(actorHandle);
 		}
 		
 		scn.removeActor(actor);
@@ -20,6 +20,7 @@ import java.util.HashMap;
 import org.bladecoder.bladeengine.actions.Param.Type;
 import org.bladecoder.bladeengine.anim.Tween;
 import org.bladecoder.bladeengine.assets.EngineAssetManager;
+import org.bladecoder.bladeengine.model.ActorRegistry;
 import org.bladecoder.bladeengine.model.SpriteActor;
 import org.bladecoder.bladeengine.model.World;
 import org.bladecoder.bladeengine.util.EngineLogger;
@@ -39,6 +40,7 @@ public class PosAnimationAction extends BaseCallbackAction implements Action {
 		};		
 	
 	private String actorId;
+	private int actorHandle = ActorRegistry.NO_HANDLE;
 	private float speed;
 	private Vector2 pos;
 	private int repeat = Tween.NO_REPEAT;
@@ -48,6 +50,7 @@ public class PosAnimationAction extends BaseCallbackAction implements Action {
 	@Override
 	public void setParams(HashMap<String, String> params) {
 		actorId = params.get("actor");
+		actorHandle = ActorRegistry.getInstance().getHandle(actorId);
 
 		// get final position. We need to scale the coordinates to the current resolution
 		pos = Param.parseVector2(params.get("pos"));
@@ -82,7 +85,7 @@ public class PosAnimationAction extends BaseCallbackAction implements Action {
 		
 		float scale = EngineAssetManager.getInstance().getScale();
 
-		SpriteActor actor = (SpriteActor) World.getInstance().getCurrentScene().getActor(actorId);
+		SpriteActor actor = (SpriteActor) World.getInstance().getCurrentScene().getActorByHandle(actorHandle);
 		
 		if(wait) {
 			actor.startPosAnimation(repeat, count, speed, pos.x * scale, pos.y * scale, this);
@@ -106,6 +109,7 @@ public class PosAnimationAction extends BaseCallbackAction implements Action {
 	@Override
 	public void read (Json json, JsonValue jsonData) {	
 		actorId = json.readValue("actorId", String.class, jsonData);
+		actorHandle = ActorRegistry.getInstance().getHandle(actorId);
 		pos = json.readValue("pos", Vector2.class, jsonData);
 		speed = json.readValue("speed", Float.class, jsonData);
 		repeat = json.readValue("repeat", Integer.class, jsonData);
@@ -19,6 +19,7 @@ import java.util.HashMap;
 
 import org.bladecoder.bladeengine.actions.Param.Type;
 import org.bladecoder.bladeengine.model.Actor;
+import org.bladecoder.bladeengine.model.ActorRegistry;
 import org.bladecoder.bladeengine.model.Scene;
 import org.bladecoder.bladeengine.model.World;
 
@@ -31,6 +32,7 @@ public class PropertyAction implements Action {
 		};		
 	
 	String actorId;
+	int actorHandle = ActorRegistry.NO_HANDLE;
 	String op;
 	String prop;
 	String value;
@@ -39,6 +41,7 @@ public class PropertyAction implements Action {
 	@Override
 	public void setParams(HashMap<String, String> params) {
 		actorId = params.get("actor");
+		actorHandle = ActorRegistry.getInstance().getHandle(actorId);
 		
 		prop = params.get("prop");
 		value = params.get("value");
@@ -54,7 +57,7 @@ public class PropertyAction implements Action {
 			Scene s = World.getInstance().getCurrentScene();
 			s.setCustomProperty(prop, value);
 		} else {
-			Actor actor = World.getInstance().getCurrentScene().getActor(actorId);
+			Actor actor = World.getInstance().getCurrentScene().getActorByHandle(actorHandle);
 			actor.setCustomProperty(prop, value);
 		}
 	}
@@ -20,6 +20,7 @@ import java.util.HashMap;
 
 import org.bladecoder.bladeengine.actions.Param.Type;
 import org.bladecoder.bladeengine.model.Actor;
+import org.bladecoder.bladeengine.model.ActorRegistry;
 import org.bladecoder.bladeengine.model.Verb;
 import org.bladecoder.bladeengine.model.VerbManager;
 import org.bladecoder.bladeengine.model.World;
@@ -34,12 +35,14 @@ public class RunVerbAction implements Action {
 		};		
 	
 	String actorId;
+	int actorHandle = ActorRegistry.NO_HANDLE;
 	String verb;
 	String target;
 	
 	@Override
 	public void setParams(HashMap<String, String> params) {
 		actorId = params.get("actor");
+		actorHandle = ActorRegistry.getInstance().getHandle(actorId);
 		verb = params.get("verb");
 		target = params.get("target");
 	}
@@ -72,7 +75,7 @@ public class RunVerbAction implements Action {
 		Verb v = null;
 		
 		if(actorId != null) {
-			Actor a = World.getInstance().getCurrentScene().getActor(actorId);
+			Actor a = World.getInstance().getCurrentScene().getActorByHandle(actorHandle);
 			v = a.getVerb(verb, target);
 		} else {
 			v = World.getInstance().getCurrentScene().getVerb(verb);
@@ -20,6 +20,7 @@ import java.util.HashMap;
 import org.bladecoder.bladeengine.actions.Param.Type;
 import org.bladecoder.bladeengine.anim.Tween;
 import org.bladecoder.bladeengine.model.Actor;
+import org.bladecoder.bladeengine.model.ActorRegistry;
 import org.bladecoder.bladeengine.model.SpriteActor;
 import org.bladecoder.bladeengine.model.Text;
 import org.bladecoder.bladeengine.model.TextManager;
@@ -47,6 +48,7 @@ public class SayAction extends BaseCallbackAction implements Action {
 	private boolean wait = true;
 
 	private String actorId;
+	private int actorHandle = ActorRegistry.NO_HANDLE;
 
 	private Text.Type type = Text.Type.RECTANGLE;
 
@@ -55,6 +57,7 @@ public class SayAction extends BaseCallbackAction implements Action {
 	@Override
 	public void setParams(HashMap<String, String> params) {
 		actorId = params.get("actor");
+		actorHandle = ActorRegistry.getInstance().getHandle(actorId);
 
 		soundId = params.get("speech");
 		text = params.get("text");
@@ -79,7 +82,7 @@ public class SayAction extends BaseCallbackAction implements Action {
 	@Override
 	public void run() {
 		EngineLogger.debug("SAY ACTION");
-		Actor actor = World.getInstance().getCurrentScene().getActor(actorId);
+		Actor actor = World.getInstance().getCurrentScene().getActorByHandle(actorHandle);
 
 		if (type == Text.Type.TALK)
 			restoreStandPose((SpriteActor) actor);
@@ -124,7 +127,7 @@ public class SayAction extends BaseCallbackAction implements Action {
 	public void onEvent() {
 		if (this.type == Text.Type.TALK) {
 			SpriteActor actor = (SpriteActor) World.getInstance().getCurrentScene()
-					.getActor(actorId);
+					.getActorByHandle(actorHandle);
 			actor.startFrameAnimation(previousFA, Tween.FROM_FA, 0, null);
 		}
 
@@ -172,6 +175,7 @@ public class SayAction extends BaseCallbackAction implements Action {
 		text = json.readValue("text", String.class, jsonData);
 		wait = json.readValue("wait", Boolean.class, jsonData);
 		actorId = json.readValue("actorId", String.class, jsonData);
+		actorHandle = ActorRegistry.getInstance().getHandle(actorId);
 		previousFA = json.readValue("previousFA", String.class, jsonData);
 		type = json.readValue("type", Text.Type.class, jsonData);
 		super.read(json, jsonData);
@@ -17,6 +17,7 @@ package org.bladecoder.bladeengine.actions;
 
 import java.util.HashMap;
 
+import org.bladecoder.bladeengine.model.ActorRegistry;
 import org.bladecoder.bladeengine.model.DialogOption;
 import org.bladecoder.bladeengine.model.SpriteActor;
 import org.bladecoder.bladeengine.model.Text;
@@ -38,6 +39,7 @@ public class SayDialogAction extends BaseCallbackAction implements Action {
 
 	private boolean characterTurn = false;
 	private String characterName;
+	private int characterHandle = ActorRegistry.NO_HANDLE;
 	private String responseText;
 	
 	private String previousFA;
@@ -53,13 +55,14 @@ public class SayDialogAction extends BaseCallbackAction implements Action {
 		String playerText = o.getText();
 		responseText = o.getResponseText();
 		characterName = w.getCurrentDialog().getActor();
+		characterHandle = ActorRegistry.getInstance().getHandle(characterName);
 		
 		characterTurn = true;
 		previousFA = null;
 		
 		// If the player or the character is talking restore to 'stand' pose
 		restoreStandPose(w.getCurrentScene().getPlayer());
-		restoreStandPose((SpriteActor)w.getCurrentScene().getActor(characterName));
+		restoreStandPose((SpriteActor)w.getCurrentScene().getActorByHandle(characterHandle));
 
 		if (playerText != null) {
 			SpriteActor player = World.getInstance().getCurrentScene().getPlayer();
@@ -82,7 +85,7 @@ public class SayDialogAction extends BaseCallbackAction implements Action {
 	public void onEvent() {
 
 		World w = World.getInstance();
-		SpriteActor actor = (SpriteActor)w.getCurrentScene().getActor(characterName);
+		SpriteActor actor = (SpriteActor)w.getCurrentScene().getActorByHandle(characterHandle);
 		
 		if (characterTurn) {
 			characterTurn = false;
@@ -147,6 +150,7 @@ public class SayDialogAction extends BaseCallbackAction implements Action {
 		responseText = json.readValue("responseText", String.class, jsonData);
 		characterTurn = json.readValue("characterTurn", Boolean.class, jsonData);
 		characterName = json.readValue("characterName", String.class, jsonData);
+		characterHandle = ActorRegistry.getInstance().getHandle(characterName);
 		super.read(json, jsonData);
 	}
 	
@@ -19,6 +19,7 @@ import java.util.HashMap;
 
 import org.bladecoder.bladeengine.actions.Param.Type;
 import org.bladecoder.bladeengine.model.Actor;
+import org.bladecoder.bladeengine.model.ActorRegistry;
 import org.bladecoder.bladeengine.model.World;
 
 public class SetActiveAction implements Action {
@@ -30,6 +31,7 @@ public class SetActiveAction implements Action {
 		};		
 	
 	String actorId;
+	int actorHandle = ActorRegistry.NO_HANDLE;
 	String visible;
 	String interaction;
 	String value;
@@ -37,6 +39,7 @@ public class SetActiveAction implements Action {
 	@Override
 	public void setParams(HashMap<String, String> params) {
 		actorId = params.get("actor");
+		actorHandle = ActorRegistry.getInstance().getHandle(actorId);
 		
 		visible = params.get("visible");
 		interaction = params.get("interaction");
@@ -45,7 +48,7 @@ public class SetActiveAction implements Action {
 
 	@Override
 	public void run() {
-		Actor actor = World.getInstance().getCurrentScene().getActor(actorId);
+		Actor actor = World.getInstance().getCurrentScene().getActorByHandle(actorHandle);
 		
 		if(value != null) {
 			boolean v = Boolean.parseBoolean(value);
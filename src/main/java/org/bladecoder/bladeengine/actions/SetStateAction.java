@@ -19,6 +19,7 @@ import java.util.HashMap;
 
 import org.bladecoder.bladeengine.actions.Param.Type;
 import org.bladecoder.bladeengine.model.Actor;
+import org.bladecoder.bladeengine.model.ActorRegistry;
 import org.bladecoder.bladeengine.model.World;
 
 public class SetStateAction implements Action {
@@ -28,18 +29,20 @@ public class SetStateAction implements Action {
 		};		
 	
 	String actorId;
+	int actorHandle = ActorRegistry.NO_HANDLE;
 	String state;
 	
 	@Override
 	public void setParams(HashMap<String, String> params) {
 		actorId = params.get("actor");
+		actorHandle = ActorRegistry.getInstance().getHandle(actorId);
 		state = params.get("state");
 	}
 
 	@Override
 	public void run() {
 		if(actorId != null) {
-			Actor actor = World.getInstance().getCurrentScene().getActor(actorId);
+			Actor actor = World.getInstance().getCurrentScene().getActorByHandle(actorHandle);
 		
 			actor.setState(state);
 		} else {
@@ -19,6 +19,7 @@ import java.util.HashMap;
 
 import org.bladecoder.bladeengine.actions.Param.Type;
 import org.bladecoder.bladeengine.model.Actor;
+import org.bladecoder.bladeengine.model.ActorRegistry;
 import org.bladecoder.bladeengine.model.World;
 
 public class SoundAction implements Action {
@@ -29,12 +30,14 @@ public class SoundAction implements Action {
 		};		
 	
 	String actorId;
+	int actorHandle = ActorRegistry.NO_HANDLE;
 	String play;
 	String stop;
 	
 	@Override
 	public void setParams(HashMap<String, String> params) {
 		actorId = params.get("actor");
+		actorHandle = ActorRegistry.getInstance().getHandle(actorId);
 		play = params.get("play");
 		stop = params.get("stop");
 	}
@@ -42,7 +45,7 @@ public class SoundAction implements Action {
 	@Override
 	public void run() {
 		
-		Actor actor = World.getInstance().getCurrentScene().getActor(actorId);
+		Actor actor = World.getInstance().getCurrentScene().getActorByHandle(actorHandle);
 		
 		if(play!= null)	actor.playSound(play);
 		
@@ -18,6 +18,7 @@ package org.bladecoder.bladeengine.actions;
 import java.util.HashMap;
 
 import org.bladecoder.bladeengine.actions.Param.Type;
+import org.bladecoder.bladeengine.model.ActorRegistry;
 import org.bladecoder.bladeengine.model.SpriteActor;
 import org.bladecoder.bladeengine.model.World;
 
@@ -28,18 +29,20 @@ public class TalktoAction implements Action {
 		};		
 	
 	String actorId;
+	int actorHandle = ActorRegistry.NO_HANDLE;
 	String dialog;
 	
 	@Override
 	public void setParams(HashMap<String, String> params) {
 		actorId = params.get("actor");
+		actorHandle = ActorRegistry.getInstance().getHandle(actorId);
 		dialog = params.get("dialog");
 	}
 
 	@Override
 	public void run() {
 		
-		SpriteActor actor = (SpriteActor)World.getInstance().getCurrentScene().getActor(actorId);
+		SpriteActor actor = (SpriteActor)World.getInstance().getCurrentScene().getActorByHandle(actorHandle);
 		
 		World.getInstance().setCurrentDialog(actor.getDialog(dialog));
 	}
@@ -55,6 +55,7 @@ import com.badlogic.gdx.graphics.g2d.freetype.FreetypeFontLoader;
 import com.badlogic.gdx.graphics.g2d.freetype.FreetypeFontLoader.FreeTypeFontLoaderParameter;
 import com.badlogic.gdx.graphics.g3d.Model;
 import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxRuntimeException;
 
 public class EngineAssetManager extends AssetManager {
 	public static final String DESKTOP_PREFS_DIR = "BladeEngine";
@@ -209,8 +210,7 @@ public class EngineAssetManager extends AssetManager {
 	}
 
 	public void disposeAtlas(String name) {
-		if (isAtlasLoaded(name))
-			unload(ATLASES_DIR + name + ".atlas");
+		unloadQueued(ATLASES_DIR + name + ".atlas");
 	}
 
 	public FileHandle getModelFile(String filename) {
@@ -299,8 +299,7 @@ public class EngineAssetManager extends AssetManager {
 	}
 
 	public void disposeMusic(String filename) {
-		if (isLoaded(MUSIC_DIR + filename))
-			unload(MUSIC_DIR + filename);
+		unloadQueued(MUSIC_DIR + filename);
 	}
 
 	public Music getMusic(String filename) {
@@ -316,8 +315,7 @@ public class EngineAssetManager extends AssetManager {
 	}
 
 	public void disposeSound(String filename) {
-		if (isLoaded(SOUND_DIR + filename))
-			unload(SOUND_DIR + filename);
+		unloadQueued(SOUND_DIR + filename);
 	}
 	
 
@@ -335,8 +333,20 @@ public class EngineAssetManager extends AssetManager {
 		
 
 	public void disposeModel3D(String name) {
-		if (isLoaded(MODEL3D_DIR + name + MODEL3D_EXT))
-			unload(MODEL3D_DIR + name + MODEL3D_EXT);
+		unloadQueued(MODEL3D_DIR + name + MODEL3D_EXT);
+	}
+
+	/**
+	 * Unloads the asset if it is loaded or still in the loading queue. A scene
+	 * can be disposed before its assets are loaded. isLoaded() is false for
+	 * the queued assets.
+	 */
+	private void unloadQueued(String filename) {
+		try {
+			unload(filename);
+		} catch (GdxRuntimeException e) {
+			// Not loaded nor queued
+		}
 	}	
 	
 	public Texture getOverlay(String filename) {
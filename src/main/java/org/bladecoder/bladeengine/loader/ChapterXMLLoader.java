@@ -37,6 +37,8 @@ import org.bladecoder.bladeengine.model.SpriteActor;
 import org.bladecoder.bladeengine.model.SpriteActor.DepthType;
 import org.bladecoder.bladeengine.model.Verb;
 import org.bladecoder.bladeengine.model.VerbManager;
+import org.bladecoder.bladeengine.navmeshpathfinder.NavMeshNavGraph;
+import org.bladecoder.bladeengine.polygonalpathfinder.DistanceHeuristic;
 import org.bladecoder.bladeengine.polygonalpathfinder.PolygonalNavGraph;
 import org.bladecoder.bladeengine.util.EngineLogger;
 import org.xml.sax.Attributes;
@@ -67,7 +69,11 @@ public class ChapterXMLLoader extends DefaultHandler {
 	private String initScene;
 
 	public ChapterXMLLoader() {
-		scale = EngineAssetManager.getInstance().getScale();
+		this(EngineAssetManager.getInstance().getScale());
+	}
+
+	public ChapterXMLLoader(float scale) {
+		this.scale = scale;
 	}
 
 	public String getInitScene() {
@@ -407,7 +413,45 @@ public class ChapterXMLLoader extends DefaultHandler {
 		} else if (localName.equals("chapter")) {
 			initScene = atts.getValue("init_scene");
 		} else if (localName.equals("walk_zone")) {
-			PolygonalNavGraph polygonalPathFinder = new PolygonalNavGraph();
+			String type = atts.getValue("type");
+			PolygonalNavGraph polygonalPathFinder;
+
+			if (type != null && type.equals("navmesh"))
+				polygonalPathFinder = new NavMeshNavGraph();
+			else
+				polygonalPathFinder = new PolygonalNavGraph();
+
+			String heuristic = atts.getValue("heuristic");
+
+			if (heuristic != null) {
+				try {
+					polygonalPathFinder.setHeuristic(DistanceHeuristic
+							.valueOf(heuristic.toUpperCase()));
+				} catch (IllegalArgumentException e) {
+					SAXParseException e2 = new SAXParseException(
+							"Wrong walk zone heuristic: " + heuristic, locator, e);
+					error(e2);
+					throw e2;
+				}
+			}
+
+			if (atts.getValue("all_pairs") != null) {
+				polygonalPathFinder.setAllPairsEnabled(Boolean
+						.parseBoolean(atts.getValue("all_pairs")));
+			}
+
+			if (atts.getValue("all_pairs_budget") != null) {
+				try {
+					polygonalPathFinder.setAllPairsBudget(Integer
+							.parseInt(atts.getValue("all_pairs_budget")));
+				} catch (NumberFormatException e) {
+					SAXParseException e2 = new SAXParseException(
+							"Wrong all_pairs_budget", locator, e);
+					error(e2);
+					throw e2;
+				}
+			}
+
 			Polygon poly = Param.parsePolygon(atts.getValue("polygon"),
 					atts.getValue("pos"));
 			poly.setScale(scale, scale);
@@ -453,6 +497,25 @@ public class ChapterXMLLoader extends DefaultHandler {
 
 			scene.setBackground(bgFilename, lightmap);
 
+			if (atts.getValue("stream_background") != null) {
+				int budget = Scene.DEFAULT_BACKGROUND_BUDGET;
+
+				if (atts.getValue("background_budget") != null) {
+					try {
+						budget = Integer.parseInt(atts
+								.getValue("background_budget"));
+					} catch (NumberFormatException e) {
+						SAXParseException e2 = new SAXParseException(
+								"Wrong background_budget", locator, e);
+						error(e2);
+						throw e2;
+					}
+				}
+
+				scene.setStreamBackground(Boolean.parseBoolean(atts
+						.getValue("stream_background")), budget);
+			}
+
 			if (musicFilename != null) {
 				boolean loopMusic = false;
 				float initialDelay = 0;
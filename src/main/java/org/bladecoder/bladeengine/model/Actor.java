@@ -34,6 +34,9 @@ import com.badlogic.gdx.utils.JsonValue;
 public class Actor implements Comparable<Actor>, Serializable, AssetConsumer {
 
 	protected String id;
+
+	/** ActorRegistry handle of the id */
+	private int handle = ActorRegistry.NO_HANDLE;
 	protected String desc;
 	protected Scene scene = null;
 	
@@ -56,12 +59,20 @@ public class Actor implements Comparable<Actor>, Serializable, AssetConsumer {
 	
 	private boolean isWalkObstacle = false;
 
+	/** 'y' used the last time the scene was sorted by depth */
+	transient float depthY = Float.NaN;
+
 	public String getId() {
 		return id;
 	}
 
 	public void setId(String id) {
 		this.id = id;
+		handle = ActorRegistry.getInstance().getHandle(id);
+	}
+
+	public int getHandle() {
+		return handle;
 	}
 
 	public Polygon getBBox() {
@@ -78,6 +89,7 @@ public class Actor implements Comparable<Actor>, Serializable, AssetConsumer {
 
 	public void setInteraction(boolean interaction) {
 		this.interaction = interaction;
+		bboxChanged();
 	}
 
 	public boolean isVisible() {			
@@ -90,6 +102,16 @@ public class Actor implements Comparable<Actor>, Serializable, AssetConsumer {
 
 	public void setBbox(Polygon bbox) {
 		this.bbox = bbox;
+		bboxChanged();
+	}
+
+	/**
+	 * Must be called after any change in the bbox position, size or shape to
+	 * update the scene hit test index.
+	 */
+	protected void bboxChanged() {
+		if (scene != null && bbox != null)
+			scene.actorChanged(this);
 	}
 
 	public String getDesc() {
@@ -192,9 +214,12 @@ public class Actor implements Comparable<Actor>, Serializable, AssetConsumer {
 		return sb.toString();
 	}
 
+	/**
+	 * Depth order: greater 'y' first. Actors with the same 'y' are equal.
+	 */
 	@Override
 	public int compareTo(Actor o) {
-		return (int) (o.getBBox().getY() - this.getBBox().getY());
+		return Float.compare(o.getBBox().getY(), this.getBBox().getY());
 	}
 
 	public String getState() {
@@ -234,6 +259,7 @@ public class Actor implements Comparable<Actor>, Serializable, AssetConsumer {
 
 	public void setPosition(float x, float y) {
 		bbox.setPosition(x, y);
+		bboxChanged();
 	}
 	
 	@Override
@@ -302,6 +328,7 @@ public class Actor implements Comparable<Actor>, Serializable, AssetConsumer {
 	@Override
 	public void read (Json json, JsonValue jsonData) {
 		id = json.readValue("id", String.class, jsonData);
+		handle = ActorRegistry.getInstance().getHandle(id);
 		interaction = json.readValue("interaction", Boolean.class, jsonData);
 		visible = json.readValue("visible", Boolean.class, jsonData);
 		desc = json.readValue("desc", String.class, jsonData);
@@ -0,0 +1,161 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.bladecoder.bladeengine.model;
+
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntMap;
+import com.badlogic.gdx.utils.ObjectMap;
+
+/**
+ * Spatial hash with the bounding rectangles of the scene actors. Used to test
+ * only the actors near a point.
+ * 
+ * The grid is not updated automatically, update() must be called every time
+ * the actor bbox changes.
+ * 
+ * @author rgarcia
+ */
+public class ActorGrid {
+	private static final float CELL_SIZE = 256f;
+
+	/** Actors of every cell. Key: (cellX << 16) | (cellY & 0xffff) */
+	private final IntMap<Array<Actor>> cells = new IntMap<Array<Actor>>();
+
+	/** Bounding rectangle and cells of every actor when it was added */
+	private final ObjectMap<Actor, Entry> entries = new ObjectMap<Actor, Entry>();
+
+	private static class Entry {
+		final Rectangle bounds = new Rectangle();
+		int x0, y0, x1, y1;
+	}
+
+	public void add(Actor a) {
+		if (entries.containsKey(a)) {
+			update(a);
+			return;
+		}
+
+		Entry e = new Entry();
+		setBounds(a, e);
+		addToCells(a, e.x0, e.y0, e.x1, e.y1);
+		entries.put(a, e);
+	}
+
+	public void remove(Actor a) {
+		Entry e = entries.remove(a);
+
+		if (e != null)
+			removeFromCells(a, e.x0, e.y0, e.x1, e.y1);
+	}
+
+	/**
+	 * Moves the actor to the cells of its current bbox. Actors not in the grid
+	 * are ignored.
+	 */
+	public void update(Actor a) {
+		Entry e = entries.get(a);
+
+		if (e == null)
+			return;
+
+		int x0 = e.x0, y0 = e.y0, x1 = e.x1, y1 = e.y1;
+
+		setBounds(a, e);
+
+		if (x0 != e.x0 || y0 != e.y0 || x1 != e.x1 || y1 != e.y1) {
+			removeFromCells(a, x0, y0, x1, y1);
+			addToCells(a, e.x0, e.y0, e.x1, e.y1);
+		}
+	}
+
+	public void clear() {
+		cells.clear();
+		entries.clear();
+	}
+
+	/**
+	 * Returns the actors whose cells contain the point. Can be null.
+	 */
+	public Array<Actor> getCandidates(float x, float y) {
+		return cells.get(key(cell(x), cell(y)));
+	}
+
+	/**
+	 * Returns the bounding rectangle of the actor bbox when it was last
+	 * updated.
+	 */
+	public Rectangle getBounds(Actor a) {
+		Entry e = entries.get(a);
+
+		return e == null ? null : e.bounds;
+	}
+
+	private void setBounds(Actor a, Entry e) {
+		// The bbox is empty until the renderer assets are retrieved
+		if (a.getBBox().getVertices().length == 0) {
+			e.bounds.set(0, 0, 0, 0);
+			e.x0 = e.y0 = 0;
+			e.x1 = e.y1 = -1;
+			return;
+		}
+
+		e.bounds.set(a.getBBox().getBoundingRectangle());
+		e.x0 = cell(e.bounds.x);
+		e.y0 = cell(e.bounds.y);
+		e.x1 = cell(e.bounds.x + e.bounds.width);
+		e.y1 = cell(e.bounds.y + e.bounds.height);
+	}
+
+	private void addToCells(Actor a, int x0, int y0, int x1, int y1) {
+		for (int cx = x0; cx <= x1; cx++) {
+			for (int cy = y0; cy <= y1; cy++) {
+				int key = key(cx, cy);
+				Array<Actor> cell = cells.get(key);
+
+				if (cell == null) {
+					cell = new Array<Actor>(false, 4);
+					cells.put(key, cell);
+				}
+
+				cell.add(a);
+			}
+		}
+	}
+
+	/**
+	 * Empty cells are not removed, they will be probably used again by a
+	 * moving actor.
+	 */
+	private void removeFromCells(Actor a, int x0, int y0, int x1, int y1) {
+		for (int cx = x0; cx <= x1; cx++) {
+			for (int cy = y0; cy <= y1; cy++) {
+				Array<Actor> cell = cells.get(key(cx, cy));
+
+				if (cell != null)
+					cell.removeValue(a, true);
+			}
+		}
+	}
+
+	private static int cell(float v) {
+		return (int) Math.floor(v / CELL_SIZE);
+	}
+
+	private static int key(int cx, int cy) {
+		return (cx << 16) | (cy & 0xffff);
+	}
+}
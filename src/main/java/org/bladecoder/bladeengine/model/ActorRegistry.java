@@ -0,0 +1,81 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.bladecoder.bladeengine.model;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.ObjectIntMap;
+
+/**
+ * Gives an int handle to every actor id. Scenes and the inventory index their
+ * actors by handle, so actions can resolve their actor ids once and find the
+ * actors without string lookups.
+ * 
+ * The same id always gets the same handle while the game is running. Handles
+ * are not saved, the saved games store the ids.
+ * 
+ * @author rgarcia
+ */
+public class ActorRegistry {
+	public static final int NO_HANDLE = -1;
+
+	private static final ActorRegistry instance = new ActorRegistry();
+
+	private final ObjectIntMap<String> handles = new ObjectIntMap<String>();
+	private final Array<String> ids = new Array<String>();
+
+	public static ActorRegistry getInstance() {
+		return instance;
+	}
+
+	/**
+	 * Returns the handle of the id. A new handle is created for unknown ids.
+	 * 
+	 * @return NO_HANDLE if id is null
+	 */
+	public int getHandle(String id) {
+		if (id == null)
+			return NO_HANDLE;
+
+		int handle = handles.get(id, NO_HANDLE);
+
+		if (handle == NO_HANDLE) {
+			handle = ids.size;
+			ids.add(id);
+			handles.put(id, handle);
+		}
+
+		return handle;
+	}
+
+	/**
+	 * Returns the handle of the id without creating a new one.
+	 * 
+	 * @return NO_HANDLE if the id has no handle
+	 */
+	public int findHandle(String id) {
+		if (id == null)
+			return NO_HANDLE;
+
+		return handles.get(id, NO_HANDLE);
+	}
+
+	public String getId(int handle) {
+		if (handle < 0 || handle >= ids.size)
+			return null;
+
+		return ids.get(handle);
+	}
+}
@@ -33,6 +33,7 @@ import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.graphics.g2d.TextureAtlas;
 import com.badlogic.gdx.graphics.g2d.TextureAtlas.AtlasRegion;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.Json;
@@ -104,6 +105,11 @@ public class AtlasRenderer implements SpriteRenderer {
 		}
 	}
 	
+	@Override
+	public boolean isAnimating() {
+		return faTween != null;
+	}
+
 	public void setFrame(int i) {
 		currentFrameIndex = i;
 		tex =  currentFrameAnimation.regions.get(i);
@@ -130,6 +136,13 @@ public class AtlasRenderer implements SpriteRenderer {
 		}
 	}
 
+	@Override
+	public Rectangle getBounds(float x, float y, float scale, Rectangle out) {
+		float w = getWidth() * scale;
+
+		return out.set(x - w / 2, y, w, getHeight() * scale);
+	}
+
 	@Override
 	public float getWidth() {
 		if (tex == null)
@@ -20,8 +20,16 @@ import java.util.ArrayList;
 import org.bladecoder.bladeengine.assets.AssetConsumer;
 import org.bladecoder.bladeengine.util.EngineLogger;
 
-public class Inventory implements AssetConsumer {
-	ArrayList<SpriteActor> items;
+import com.badlogic.gdx.utils.IntMap;
+import com.badlogic.gdx.utils.Json;
+import com.badlogic.gdx.utils.Json.Serializable;
+import com.badlogic.gdx.utils.JsonValue;
+
+public class Inventory implements AssetConsumer, Serializable {
+	private ArrayList<SpriteActor> items;
+
+	/** 'items' by actor handle. Rebuilt when 'items' is read */
+	transient private final IntMap<SpriteActor> itemsByHandle = new IntMap<SpriteActor>();
 	
 	private boolean visible = true;
 
@@ -38,38 +46,45 @@ public class Inventory implements AssetConsumer {
 	}
 
 	public SpriteActor getItem(String actorId) {
-		for (SpriteActor a : items) {
-			if (a.getId().equals(actorId))
-				return a;
-		}
+		return getItemByHandle(ActorRegistry.getInstance().findHandle(actorId));
+	}
 
-		return null;
+	public SpriteActor getItemByHandle(int handle) {
+		return itemsByHandle.get(handle);
+	}
+
+	private void indexItems() {
+		itemsByHandle.clear();
+
+		for (SpriteActor a : items)
+			itemsByHandle.put(a.getHandle(), a);
 	}
 
 	public void addItem(SpriteActor actor) {		
-		if(!items.contains(actor))
+		if(!items.contains(actor)) {
 			items.add(actor);
-		else
+			itemsByHandle.put(actor.getHandle(), actor);
+		} else
 			EngineLogger.error("Actor already in inventory: " + actor.getId());
 
 		//actor.setFrameAnimation("inventory");
 	}
 
 	public void removeItem(SpriteActor item) {
-		items.remove(item);
+		if (items.remove(item))
+			itemsByHandle.remove(item.getHandle());
 	}
 	
 	public void removeItem(String item) {
-		for (SpriteActor a : items) {
-			if (a.getId().equals(item)){
-				items.remove(a);
-				break;
-			}
-		}	
+		SpriteActor a = getItem(item);
+
+		if (a != null)
+			removeItem(a);
 	}
 	
 	public void removeAllItems() {
 		items.clear();
+		itemsByHandle.clear();
 	}	
 
 	public boolean isVisible() {
@@ -98,5 +113,24 @@ public class Inventory implements AssetConsumer {
 		for (SpriteActor a : items)
 			a.dispose();
 	}
+
+	@Override
+	public void write(Json json) {
+		json.writeValue("items", items, ArrayList.class, SpriteActor.class);
+		json.writeValue("visible", visible);
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public void read(Json json, JsonValue jsonData) {
+		items = json.readValue("items", ArrayList.class, SpriteActor.class,
+				jsonData);
+		visible = json.readValue("visible", Boolean.class, true, jsonData);
+
+		if (items == null)
+			items = new ArrayList<SpriteActor>();
+
+		indexItems();
+	}
 	
 }
@@ -23,6 +23,7 @@ import org.bladecoder.bladeengine.util.ActionCallbackSerialization;
 
 import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.utils.Disposable;
 import com.badlogic.gdx.utils.Json;
@@ -45,16 +46,29 @@ public class OverlayImage implements Disposable, Serializable {
 	private boolean closeOnClick = true;
 	
 	private ActionCallback cb;
+	private String cbSer;
 	
 	public void update(float delta) {
 		timer = timer - delta;
 		
-		if(isFinish() && cb != null) {
+		if(isFinish() && (cb != null || cbSer != null)) {
+			if(cbSer != null) {
+				cb = ActionCallbackSerialization.find(cbSer);
+				cbSer = null;
+			}
+			
 			ActionCallbackQueue.add(cb);
 			cb = null;
 		}
 	}
 	
+	/**
+	 * Sets 'out' to the area where the image is drawn.
+	 */
+	public Rectangle getBounds(Rectangle out) {
+		return out.set(pos.x, pos.y, tex.getWidth(), tex.getHeight());
+	}
+
 	public void draw(SpriteBatch batch) {
 		if(timer >= 0)
 			batch.draw(tex, pos.x, pos.y);
@@ -66,6 +80,7 @@ public class OverlayImage implements Disposable, Serializable {
 		this.timer = timer;
 		this.closeOnClick = closeOnClick;
 		this.cb = cb;
+		this.cbSer = null;
 		
 		// I18N for overlays
 		if(filename.charAt(0) == '@')
@@ -98,7 +113,8 @@ public class OverlayImage implements Disposable, Serializable {
 		json.writeValue("timer", timer);
 		json.writeValue("filename", filename);
 		json.writeValue("closeOnClick", closeOnClick);
-		json.writeValue("cb", ActionCallbackSerialization.find(cb), cb == null ? null : String.class);	
+		String id = cbSer != null ? cbSer : ActionCallbackSerialization.find(cb);
+		json.writeValue("cb", id, id == null ? null : String.class);	
 	}
 
 	@Override
@@ -107,8 +123,7 @@ public class OverlayImage implements Disposable, Serializable {
 		timer = json.readValue("timer", Float.class, jsonData);
 		filename = json.readValue("filename", String.class, jsonData);
 		closeOnClick = json.readValue("closeOnClick", Boolean.class, jsonData);
-		String cbSer = json.readValue("cb", String.class, jsonData);
-		if(cbSer != null)
-			cb = ActionCallbackSerialization.find(cbSer);
+		// resolved when used, the verbs are not read yet
+		cbSer = json.readValue("cb", String.class, jsonData);
 	}	
 }
@@ -16,10 +16,10 @@
 package org.bladecoder.bladeengine.model;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 
+import org.bladecoder.bladeengine.actions.ActionCallback;
 import org.bladecoder.bladeengine.assets.AssetConsumer;
 import org.bladecoder.bladeengine.assets.EngineAssetManager;
 import org.bladecoder.bladeengine.pathfinder.NavNode;
@@ -38,6 +38,8 @@ import com.badlogic.gdx.graphics.glutils.ShapeRenderer.ShapeType;
 import com.badlogic.gdx.math.Polygon;
 import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntMap;
 import com.badlogic.gdx.utils.Json;
 import com.badlogic.gdx.utils.Json.Serializable;
 import com.badlogic.gdx.utils.JsonValue;
@@ -52,6 +54,9 @@ public class Scene implements Serializable,
 	public static final Color WALKZONE_COLOR = Color.GREEN;
 	public static final Color OBSTACLE_COLOR = Color.RED;
 
+	/** Default max. number of background tiles loaded when streaming */
+	public static final int DEFAULT_BACKGROUND_BUDGET = 4;
+
 	/** 
 	 * All actors in the scene
 	 */
@@ -63,11 +68,46 @@ public class Scene implements Serializable,
 	 */
 	private ArrayList<SpriteActor> fgActors = new ArrayList<SpriteActor>();
 
+	/** 'actors' and 'fgActors' indexed by actor handle */
+	transient private final IntMap<Actor> actorsByHandle = new IntMap<Actor>();
+	transient private final IntMap<SpriteActor> fgActorsByHandle = new IntMap<SpriteActor>();
+
 	/**
 	 * Temp list with the 'actors' list + player ordered by 'y' axis to draw in
 	 * depth order and to check for click
 	 */
 	private final List<Actor> orderedActors = new ArrayList<Actor>();
+
+	/** Camera visible area and item bounds used for culling in draw() */
+	transient private final Rectangle viewRect = new Rectangle();
+	transient private final Rectangle itemRect = new Rectangle();
+
+	/** Items drawn and culled in the last draw() call */
+	transient private int drawnItems = 0;
+	transient private int culledItems = 0;
+
+	/** True if some actor 'y' changed since the last depth sort */
+	transient private boolean depthOrderDirty = true;
+
+	/**
+	 * Actors updated every frame. An actor leaves the list when it stops
+	 * being active and is added again when an animation starts. See
+	 * SpriteActor.isActive()
+	 */
+	transient private final ArrayList<SpriteActor> activeActors = new ArrayList<SpriteActor>();
+
+	/** Spatial index of the 'orderedActors' bboxes for getActorAt() */
+	private final ActorGrid actorGrid = new ActorGrid();
+
+	/**
+	 * Last getActorAt() result. Valid while the point and 'hitVersion' don't
+	 * change. 'hitVersion' is incremented after any actor change that can
+	 * modify the result.
+	 */
+	transient private int hitVersion = 0;
+	transient private int lastHitVersion = -1;
+	transient private float lastHitX, lastHitY;
+	transient private Actor lastHit;
 	
 	private SceneCamera camera = new SceneCamera();
 
@@ -76,6 +116,26 @@ public class Scene implements Serializable,
 	private Texture[] lightMap;
 	private String backgroundFilename;
 	private String lightMapFilename;
+
+	/**
+	 * Load only the background and light map tiles near the camera. For big
+	 * scrolling scenes
+	 */
+	private boolean streamBackground = false;
+
+	/** Max. number of tiles loaded for the background and the light map */
+	private int backgroundBudget = DEFAULT_BACKGROUND_BUDGET;
+
+	/** Null if the tiles are not streamed */
+	transient private TileStreamer backgroundStreamer;
+	transient private TileStreamer lightMapStreamer;
+
+	/**
+	 * The assets can be queued before the scene is the current scene by the
+	 * ScenePrefetcher. Reset when the scene is disposed.
+	 */
+	transient private boolean assetsQueued = false;
+	transient private boolean assetsRetrieved = false;
 	
 	/** For polygonal PathFinding */
 	private PolygonalNavGraph polygonalNavGraph;
@@ -205,9 +265,16 @@ public class Scene implements Serializable,
 	}
 
 	public void update(float delta) {
+		camera.savePosition();
+
+		// The walks requested in the last step start now
+		if (polygonalNavGraph != null)
+			polygonalNavGraph.joinSearches();
+
 		// We draw the elements in order: from top to bottom.
 		// so we need to order the array list
-		Collections.sort(orderedActors);
+		if (depthOrderDirty)
+			sortActorsByDepth();
 
 		if (overlay != null) {
 			overlay.update(delta);
@@ -248,36 +315,85 @@ public class Scene implements Serializable,
 			}
 		}
 
-		for (Actor a:orderedActors) {
-			if(a instanceof SpriteActor)
-				((SpriteActor)a).update(delta);
+		// Actors activated while updating are added at the end and also
+		// updated in this frame
+		for (int i = 0; i < activeActors.size(); i++) {
+			activeActors.get(i).update(delta);
 		}
+
+		int n = 0;
+
+		for (int i = 0; i < activeActors.size(); i++) {
+			SpriteActor a = activeActors.get(i);
+
+			if (a.isActive())
+				activeActors.set(n++, a);
+			else
+				a.inActiveSet = false;
+		}
+
+		while (activeActors.size() > n)
+			activeActors.remove(activeActors.size() - 1);
 		
 		camera.update(delta);
-	}
 
-	public void draw(SpriteBatch spriteBatch) {
-		
-		if (background != null) {
-			spriteBatch.disableBlending();
+		if (backgroundStreamer != null || lightMapStreamer != null) {
+			camera.getVisibleRect(viewRect);
 
-			float x = 0;
+			if (backgroundStreamer != null)
+				backgroundStreamer.update(viewRect);
 
-			for (Texture tile : background) {
-				spriteBatch.draw(tile, x, 0f);
-				x += tile.getWidth();
+			if (lightMapStreamer != null)
+				lightMapStreamer.update(viewRect);
+		}
+	}
+
+	/**
+	 * Insertion sort of 'orderedActors'. The list is nearly sorted because
+	 * only the actors that moved since the last sort are out of place, and
+	 * actors with the same 'y' keep their order.
+	 */
+	private void sortActorsByDepth() {
+		for (int i = 1; i < orderedActors.size(); i++) {
+			Actor a = orderedActors.get(i);
+			int j = i - 1;
+
+			while (j >= 0 && orderedActors.get(j).compareTo(a) > 0) {
+				orderedActors.set(j + 1, orderedActors.get(j));
+				j--;
 			}
 
+			orderedActors.set(j + 1, a);
+		}
+
+		for (Actor a : orderedActors)
+			a.depthY = a.getY();
+
+		depthOrderDirty = false;
+	}
+
+	/**
+	 * Draws the background, actors, light map and overlay. Only the items
+	 * that overlap the camera visible area are drawn.
+	 */
+	public void draw(SpriteBatch spriteBatch) {
+		drawnItems = 0;
+		culledItems = 0;
+		camera.getVisibleRect(viewRect);
+
+		if (background != null) {
+			spriteBatch.disableBlending();
+			drawTiles(spriteBatch, background, backgroundStreamer);
 			spriteBatch.enableBlending();
 		}
 
 		for (Actor a : orderedActors) {
-			if(a instanceof SpriteActor)
-				((SpriteActor)a).draw(spriteBatch);
+			if (a instanceof SpriteActor)
+				drawActor((SpriteActor) a, spriteBatch);
 		}
 
 		for (SpriteActor a : fgActors) {
-			a.draw(spriteBatch);
+			drawActor(a, spriteBatch);
 		}
 
 		// Draw the light map
@@ -285,18 +401,13 @@ public class Scene implements Serializable,
 			// Multiplicative blending for light maps
 			spriteBatch.setBlendFunction(GL20.GL_DST_COLOR, GL20.GL_ZERO);
 
-			float x = 0;
-
-			for (Texture tile : lightMap) {
-				spriteBatch.draw(tile, x, 0f);
-				x += tile.getWidth();
-			}
+			drawTiles(spriteBatch, lightMap, lightMapStreamer);
 
 			spriteBatch.setBlendFunction(GL20.GL_SRC_ALPHA,
 					GL20.GL_ONE_MINUS_SRC_ALPHA);
 		}
 
-		if (overlay != null) {
+		if (overlay != null && isVisible(overlay.getBounds(itemRect))) {
 			overlay.draw(spriteBatch);
 		}
 
@@ -322,6 +433,71 @@ public class Scene implements Serializable,
 		}
 	}
 
+	/**
+	 * Returns true if the asset is a background or lightmap tile loaded by the
+	 * streamers. Streamed tiles are loaded and unloaded while the scene runs.
+	 */
+	public boolean isStreamedAsset(String name) {
+		return (backgroundStreamer != null && backgroundStreamer.isTile(name))
+				|| (lightMapStreamer != null && lightMapStreamer.isTile(name));
+	}
+
+	/**
+	 * Draws the tiles side by side. When streaming, the tiles not loaded yet
+	 * are null and their size is taken from the streamer.
+	 */
+	private void drawTiles(SpriteBatch spriteBatch, Texture[] tiles,
+			TileStreamer streamer) {
+		float x = 0;
+
+		for (int i = 0; i < tiles.length; i++) {
+			Texture tile = tiles[i];
+			float w = streamer != null ? streamer.getTileWidth(i) : tile
+					.getWidth();
+			float h = streamer != null ? streamer.getTileHeight(i) : tile
+					.getHeight();
+
+			if (tile != null && isVisible(itemRect.set(x, 0f, w, h)))
+				spriteBatch.draw(tile, x, 0f);
+
+			x += w;
+		}
+	}
+
+	private void drawActor(SpriteActor a, SpriteBatch spriteBatch) {
+		if (a.isVisible() && isVisible(a.getDrawBounds(itemRect)))
+			a.draw(spriteBatch, World.getInstance().getInterpolationAlpha());
+	}
+
+	/**
+	 * Checks if the item bounds overlap the camera visible area and updates
+	 * the drawn/culled counters. Without camera size, nothing is culled.
+	 */
+	private boolean isVisible(Rectangle bounds) {
+		if (viewRect.width <= 0 || viewRect.overlaps(bounds)) {
+			drawnItems++;
+			return true;
+		}
+
+		culledItems++;
+		return false;
+	}
+
+	/**
+	 * Number of background and light map tiles, actors and overlays drawn in
+	 * the last draw() call.
+	 */
+	public int getDrawnItems() {
+		return drawnItems;
+	}
+
+	/**
+	 * Number of items out of the camera view in the last draw() call.
+	 */
+	public int getCulledItems() {
+		return culledItems;
+	}
+
 	public void drawBBoxLines(ShapeRenderer renderer) {
 		// renderer.begin(ShapeType.Rectangle);
 		renderer.begin(ShapeType.Line);
@@ -398,17 +574,30 @@ public class Scene implements Serializable,
 
 	public Actor getActor(String id, boolean searchInventory,
 			boolean searchFG) {
-		Actor a = actors.get(id);
+		return getActorByHandle(ActorRegistry.getInstance().findHandle(id),
+				searchInventory, searchFG);
+	}
+
+	public Actor getActorByHandle(int handle) {
+		return getActorByHandle(handle, true, false);
+	}
+
+	/**
+	 * Search the actor in the scene, the inventory and the foreground actors.
+	 * 
+	 * @param handle
+	 *            The ActorRegistry handle of the actor id
+	 */
+	public Actor getActorByHandle(int handle, boolean searchInventory,
+			boolean searchFG) {
+		Actor a = actorsByHandle.get(handle);
 
 		if (a == null && searchInventory) {
-			a = World.getInstance().getInventory().getItem(id);
+			a = World.getInstance().getInventory().getItemByHandle(handle);
 		}
 
 		if (a == null && searchFG) {
-			for (SpriteActor fg : fgActors) {
-				if (fg.getId().equals(id))
-					a = fg;
-			}
+			a = fgActorsByHandle.get(handle);
 		}
 
 		return a;
@@ -420,12 +609,60 @@ public class Scene implements Serializable,
 
 	public void addActor(Actor actor) {
 		actors.put(actor.getId(), actor);
+		actorsByHandle.put(actor.getHandle(), actor);
 		orderedActors.add(actor);
 		actor.setScene(this);
+
+		if (actor.getBBox() != null)
+			actorGrid.add(actor);
+
+		// Updated at least once to know if it is active
+		if (actor instanceof SpriteActor)
+			activateActor((SpriteActor) actor);
+
+		depthOrderDirty = true;
+		hitVersion++;
+	}
+
+	/**
+	 * Adds the actor to the actors updated every frame.
+	 */
+	void activateActor(SpriteActor a) {
+		if (!a.inActiveSet && actors.get(a.getId()) == a) {
+			a.inActiveSet = true;
+			activeActors.add(a);
+		}
+	}
+
+	/**
+	 * Called by the actors when the bbox or the interaction changes. The last
+	 * getActorAt() result is only invalidated when the old or the new bounds
+	 * of the actor contain its point.
+	 */
+	void actorChanged(Actor a) {
+		boolean hit = containsLastHit(a);
+
+		actorGrid.update(a);
+
+		if (a.getY() != a.depthY)
+			depthOrderDirty = true;
+
+		if (hit || containsLastHit(a))
+			hitVersion++;
+	}
+
+	private boolean containsLastHit(Actor a) {
+		if (lastHitVersion != hitVersion)
+			return false;
+
+		Rectangle bounds = actorGrid.getBounds(a);
+
+		return bounds != null && bounds.contains(lastHitX, lastHitY);
 	}
 
 	public void addFgActor(SpriteActor actor) {
 		fgActors.add(actor);
+		fgActorsByHandle.put(actor.getHandle(), actor);
 		// ADD SCENE?
 	}
 
@@ -489,19 +726,52 @@ public class Scene implements Serializable,
 		return tiles;
 	}
 
+	/**
+	 * Returns the interactive actor nearest to the camera in the point. Only
+	 * the actors in the grid cell of the point are tested and the result is
+	 * reused while the point and the actors don't change.
+	 */
 	public Actor getActorAt(float x, float y) {
-		// Se recorre la lista al revés para quedarnos con el más cercano a la
-		// cámara
-		for (int i = orderedActors.size() - 1; i >= 0; i--) {
-			Actor a = orderedActors.get(i);
-
-			if (a.hit(x, y) && !a.getId().equals(player)
-					&& a.hasInteraction()) {
-				return a;
+		if (lastHitVersion == hitVersion && lastHitX == x && lastHitY == y)
+			return lastHit;
+
+		Actor result = null;
+		int resultIndex = -1;
+		Array<Actor> candidates = actorGrid.getCandidates(x, y);
+
+		if (candidates != null) {
+			for (int i = 0; i < candidates.size; i++) {
+				Actor a = candidates.get(i);
+
+				if (!a.hasInteraction() || a.getId().equals(player)
+						|| !actorGrid.getBounds(a).contains(x, y)
+						|| !a.hit(x, y))
+					continue;
+
+				// With several hits, keep the nearest to the camera: the
+				// last in the depth order
+				if (result == null) {
+					result = a;
+				} else {
+					if (resultIndex == -1)
+						resultIndex = orderedActors.indexOf(result);
+
+					int index = orderedActors.indexOf(a);
+
+					if (index > resultIndex) {
+						result = a;
+						resultIndex = index;
+					}
+				}
 			}
 		}
 
-		return null;
+		lastHitX = x;
+		lastHitY = y;
+		lastHitVersion = hitVersion;
+		lastHit = result;
+
+		return result;
 	}
 
 	/**
@@ -538,6 +808,8 @@ public class Scene implements Serializable,
 		} else {
 			player = null;
 		}
+
+		hitVersion++;
 	}
 
 	public SpriteActor getPlayer() {
@@ -561,19 +833,90 @@ public class Scene implements Serializable,
 
 		res = actors.remove(a.getId());
 
-		if (res == null)
-			fgActors.remove(a);
-		else
+		if (res == null) {
+			if (fgActors.remove(a))
+				fgActorsByHandle.remove(a.getHandle());
+		} else {
+			actorsByHandle.remove(a.getHandle());
 			orderedActors.remove(a);
+
+			if (a instanceof SpriteActor && ((SpriteActor) a).inActiveSet) {
+				activeActors.remove(a);
+				((SpriteActor) a).inActiveSet = false;
+			}
+			actorGrid.remove(a);
+		}
+
+		hitVersion++;
 		
 		if(a.isWalkObstacle() && polygonalNavGraph != null)
 			polygonalNavGraph.removeDinamicObstacle(a.getBBox());
 			
 	}
 
+	/**
+	 * Walks several actors at the same time. The paths are searched in
+	 * parallel and the walks are started in the order of the list.
+	 * 
+	 * @param cbs
+	 *            The callback of every actor. Can be null.
+	 */
+	public void goTo(List<SpriteActor> walkers, List<Vector2> targets,
+			List<ActionCallback> cbs) {
+		if (polygonalNavGraph == null) {
+			for (int i = 0; i < walkers.size(); i++)
+				walkers.get(i).goTo(targets.get(i),
+						cbs == null ? null : cbs.get(i));
+
+			return;
+		}
+
+		float[] points = new float[walkers.size() * 4];
+
+		for (int i = 0; i < walkers.size(); i++) {
+			Vector2 target = targets.get(i);
+
+			points[i * 4] = walkers.get(i).getBBox().getX();
+			points[i * 4 + 1] = walkers.get(i).getBBox().getY();
+			points[i * 4 + 2] = target.x;
+			points[i * 4 + 3] = target.y;
+		}
+
+		ArrayList<ArrayList<Vector2>> paths = polygonalNavGraph
+				.findPaths(points);
+
+		for (int i = 0; i < walkers.size(); i++)
+			walkers.get(i).walk(paths.get(i), cbs == null ? null : cbs.get(i));
+	}
+
+	/**
+	 * Returns the background tiles. When streaming, the tiles not loaded are
+	 * null.
+	 */
 	public Texture[] getBackground() {
 		return background;
 	}
+
+	public boolean isStreamBackground() {
+		return streamBackground;
+	}
+
+	/**
+	 * Loads only the background and light map tiles near the camera. Must be
+	 * set before loading the scene assets.
+	 * 
+	 * @param budget
+	 *            Max. number of tiles loaded for the background and for the
+	 *            light map. The tiles in the camera view are always loaded.
+	 */
+	public void setStreamBackground(boolean stream, int budget) {
+		streamBackground = stream;
+		backgroundBudget = budget;
+	}
+
+	public int getBackgroundBudget() {
+		return backgroundBudget;
+	}
 	
 	public SceneCamera getCamera() {
 		return camera;
@@ -599,23 +942,46 @@ public class Scene implements Serializable,
 
 	@Override
 	public void loadAssets() {
+		if (assetsQueued)
+			return;
+
+		assetsQueued = true;
+
+		if (streamBackground)
+			camera.getVisibleRect(viewRect);
 
 		if (background != null) {
 			ArrayList<String> tiles = getTilesByFilename(backgroundFilename);
 
-			// LOAD BACKGROUND TEXTURES
-			for (String filename : tiles) {
-				EngineAssetManager.getInstance().loadTexture(filename);
-			}
+			if (streamBackground)
+				backgroundStreamer = TileStreamer.create(tiles, background,
+						backgroundBudget, BG_TEXFILTER_MIN, BG_TEXFILTER_MAG);
 
+			if (backgroundStreamer != null) {
+				backgroundStreamer.loadAssets(viewRect);
+			} else {
+				// LOAD BACKGROUND TEXTURES
+				for (String filename : tiles) {
+					EngineAssetManager.getInstance().loadTexture(filename);
+				}
+			}
 		}
 
 		// LOAD LIGHT MAP
 		if (lightMap != null) {
 			ArrayList<String> tiles = getTilesByFilename(lightMapFilename);
 
-			for (String filename : tiles) {
-				EngineAssetManager.getInstance().loadTexture(filename);
+			if (streamBackground)
+				lightMapStreamer = TileStreamer.create(tiles, lightMap,
+						backgroundBudget, TextureFilter.Nearest,
+						TextureFilter.Nearest);
+
+			if (lightMapStreamer != null) {
+				lightMapStreamer.loadAssets(viewRect);
+			} else {
+				for (String filename : tiles) {
+					EngineAssetManager.getInstance().loadTexture(filename);
+				}
 			}
 		}
 
@@ -633,9 +999,18 @@ public class Scene implements Serializable,
 
 	@Override
 	public void retrieveAssets() {
+		if (assetsRetrieved)
+			return;
+
+		assetsRetrieved = true;
 
 		// RETRIEVE BACKGROUND
-		if (background != null) {
+		if (backgroundStreamer != null) {
+			camera.getVisibleRect(viewRect);
+			backgroundStreamer.update(viewRect);
+			camera.setScrollingDimensions(backgroundStreamer.getWidth(),
+					backgroundStreamer.getHeight());
+		} else if (background != null) {
 			ArrayList<String> tiles = getTilesByFilename(backgroundFilename);
 
 			int width = 0;
@@ -660,7 +1035,10 @@ public class Scene implements Serializable,
 		}
 
 		// RETRIEVE LIGHT MAP
-		if (lightMap != null) {
+		if (lightMapStreamer != null) {
+			camera.getVisibleRect(viewRect);
+			lightMapStreamer.update(viewRect);
+		} else if (lightMap != null) {
 			ArrayList<String> tiles = getTilesByFilename(lightMapFilename);
 
 			for (int i = 0; i < lightMap.length; i++) {
@@ -672,14 +1050,18 @@ public class Scene implements Serializable,
 			}
 		}
 		
-		// CALC WALK GRAPH
+		// CALC WALK GRAPH. Uses the precalculated graph if available.
 		if(polygonalNavGraph != null) {
-			polygonalNavGraph.createInitialGraph();
+			polygonalNavGraph.createInitialGraph(id);
 		}
 
 		// RETRIEVE ACTORS
 		for (Actor a : actors.values()) {
 			a.retrieveAssets();
+
+			// The renderers start their initial animation
+			if (a instanceof SpriteActor)
+				activateActor((SpriteActor) a);
 		}
 
 		for (SpriteActor a : fgActors) {
@@ -701,16 +1083,26 @@ public class Scene implements Serializable,
 	@Override
 	public void dispose() {
 
-		if (background != null) {
+		if (backgroundStreamer != null) {
+			backgroundStreamer.dispose();
+			backgroundStreamer = null;
+		} else if (background != null && assetsRetrieved) {
 			for (Texture tile : background)
 				if (tile != null)
 					EngineAssetManager.getInstance().disposeTexture(tile);
+		} else if (background != null && assetsQueued) {
+			unloadTiles(backgroundFilename);
 		}
 
-		if (lightMap != null) {
+		if (lightMapStreamer != null) {
+			lightMapStreamer.dispose();
+			lightMapStreamer = null;
+		} else if (lightMap != null && assetsRetrieved) {
 			for (Texture tile : lightMap)
 				if (tile != null)
 					EngineAssetManager.getInstance().disposeTexture(tile);
+		} else if (lightMap != null && assetsQueued) {
+			unloadTiles(lightMapFilename);
 		}
 
 		// orderedActors.clear();
@@ -723,7 +1115,7 @@ public class Scene implements Serializable,
 			a.dispose();
 		}
 
-		if (musicFilename != null && music != null) {
+		if (musicFilename != null && (music != null || assetsQueued)) {
 			EngineAssetManager.getInstance().disposeMusic(musicFilename);
 			music = null;
 		}
@@ -734,6 +1126,18 @@ public class Scene implements Serializable,
 		}
 
 		transition = null;
+
+		assetsQueued = false;
+		assetsRetrieved = false;
+	}
+
+	/**
+	 * Unloads the tiles queued but not retrieved. The tiles can still be in
+	 * the loading queue, where isLoaded() is false.
+	 */
+	private void unloadTiles(String filename) {
+		for (String tile : getTilesByFilename(filename))
+			EngineAssetManager.getInstance().unload(tile);
 	}
 	
 
@@ -766,6 +1170,8 @@ public class Scene implements Serializable,
 
 		json.writeValue("lightMap", lightMapFilename,
 				lightMapFilename == null ? null : lightMapFilename.getClass());
+		json.writeValue("streamBackground", streamBackground);
+		json.writeValue("backgroundBudget", backgroundBudget);
 
 		json.writeValue("musicFilename", musicFilename,
 				musicFilename == null ? null : musicFilename.getClass());
@@ -806,14 +1212,33 @@ public class Scene implements Serializable,
 				SpriteActor.class, jsonData);
 		player = json.readValue("player", String.class, jsonData);
 
+		actorGrid.clear();
+		actorsByHandle.clear();
+		fgActorsByHandle.clear();
+
+		for (SpriteActor a : fgActors)
+			fgActorsByHandle.put(a.getHandle(), a);
+
 		for (Actor a : actors.values()) {
+			actorsByHandle.put(a.getHandle(), a);
 			orderedActors.add(a);
 			a.setScene(this);
+			actorGrid.add(a);
+
+			if (a instanceof SpriteActor)
+				activateActor((SpriteActor) a);
 		}
 
+		depthOrderDirty = true;
+		hitVersion++;
+
 		backgroundFilename = json.readValue("background", String.class,
 				jsonData);
 		lightMapFilename = json.readValue("lightMap", String.class, jsonData);
+		streamBackground = json.readValue("streamBackground", Boolean.class,
+				false, jsonData);
+		backgroundBudget = json.readValue("backgroundBudget", Integer.class,
+				DEFAULT_BACKGROUND_BUDGET, jsonData);
 
 		setBackground(backgroundFilename, lightMapFilename);
 
@@ -21,6 +21,7 @@ import org.bladecoder.bladeengine.anim.Tween;
 
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.OrthographicCamera;
+import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.math.Vector3;
 import com.badlogic.gdx.utils.Json;
@@ -42,6 +43,12 @@ public class SceneCamera extends OrthographicCamera implements Serializable  {
 	private float scrollingWidth, scrollingHeight;
 	
 	private CameraTween cameraTween;
+
+	/** Position at the start of the last simulation step. NaN if not set */
+	transient private float prevX = Float.NaN, prevY = Float.NaN;
+
+	/** Simulation position while drawing with the interpolated position */
+	transient private float simX, simY;
 	
 	public SceneCamera() {
 	}
@@ -51,6 +58,7 @@ public class SceneCamera extends OrthographicCamera implements Serializable  {
 		scrollingHeight = worldHeight;
 		
 		zoom = 1.0f;
+		prevX = prevY = Float.NaN;
 		
 		setToOrtho(false, worldWidth, worldHeight);
 		update();
@@ -91,6 +99,42 @@ public class SceneCamera extends OrthographicCamera implements Serializable  {
 		}
 	}	
 
+	/**
+	 * Stores the position at the start of a simulation step.
+	 */
+	public void savePosition() {
+		prevX = position.x;
+		prevY = position.y;
+	}
+
+	/**
+	 * Moves the camera between the position saved at the start of the last
+	 * step and the current position. Must be followed by endDraw().
+	 * 
+	 * @param alpha
+	 *            Interpolation factor, 1 for the current position
+	 */
+	public void beginDraw(float alpha) {
+		simX = position.x;
+		simY = position.y;
+
+		if (!Float.isNaN(prevX) && alpha < 1) {
+			position.set(prevX + (simX - prevX) * alpha, prevY
+					+ (simY - prevY) * alpha, 0);
+			update();
+		}
+	}
+
+	/**
+	 * Restores the simulation position after drawing.
+	 */
+	public void endDraw() {
+		if (position.x != simX || position.y != simY) {
+			position.set(simX, simY, 0);
+			update();
+		}
+	}
+
 	public void setPosition(float x, float y) {
 
 		float maxleft = viewportWidth / 2;
@@ -127,6 +171,16 @@ public class SceneCamera extends OrthographicCamera implements Serializable  {
 		return zoom;
 	}
 
+	/**
+	 * Sets 'out' to the scene area shown by the camera, zoom included.
+	 */
+	public Rectangle getVisibleRect(Rectangle out) {
+		float w = viewportWidth * zoom;
+		float h = viewportHeight * zoom;
+
+		return out.set(position.x - w / 2, position.y - h / 2, w, h);
+	}
+
 	/**
 	 * Create camera animation.
 	 * 
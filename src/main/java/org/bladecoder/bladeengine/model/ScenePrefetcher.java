@@ -0,0 +1,291 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.bladecoder.bladeengine.model;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+
+import org.bladecoder.bladeengine.actions.Action;
+import org.bladecoder.bladeengine.actions.LeaveAction;
+import org.bladecoder.bladeengine.assets.EngineAssetManager;
+import org.bladecoder.bladeengine.util.EngineLogger;
+
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.ObjectIntMap;
+
+/**
+ * Loads the assets of the scenes reachable from the current scene before the
+ * player leaves it. The candidates are the targets of the LeaveActions in the
+ * verbs of the current scene and its actors.
+ *
+ * Only one scene is loaded at a time and only when the asset manager has
+ * nothing else to load. Entering another scene cancels the scene being loaded.
+ * The assets are only loaded in the asset manager, they are retrieved and the
+ * walk graph is created when the scene is entered. The memory of a prefetched
+ * scene is estimated as the size of the textures loaded with it. Prefetching
+ * stops when the budget is exceeded.
+ *
+ * Scenes loaded by a LoadChapterAction are not prefetched, the chapter scenes
+ * are created when the chapter is loaded.
+ *
+ * @author rgarcia
+ */
+public class ScenePrefetcher {
+	public static final int DEFAULT_BUDGET = 32 * 1024 * 1024;
+
+	/** Max. bytes of textures of the prefetched scenes. 0 disables prefetching */
+	private int budget = DEFAULT_BUDGET;
+	private int usedBytes = 0;
+
+	/** A candidate didn't fit in the budget. Reset when the scene changes */
+	private boolean budgetExceeded = false;
+
+	/** Prefetched scenes and their estimated size in bytes */
+	private final ObjectIntMap<Scene> prefetched = new ObjectIntMap<Scene>();
+
+	/** Scene being loaded and the textures loaded before it was queued */
+	private Scene loading;
+	private final HashSet<String> loadedBefore = new HashSet<String>();
+
+	/** The scene the candidates were searched for */
+	private Scene source;
+	private final ArrayList<Scene> candidates = new ArrayList<Scene>();
+
+	private int hits = 0;
+	private int misses = 0;
+
+	public int getBudget() {
+		return budget;
+	}
+
+	public void setBudget(int budget) {
+		this.budget = budget;
+	}
+
+	public int getUsedBytes() {
+		return usedBytes;
+	}
+
+	/**
+	 * Number of scenes entered with their assets already loaded.
+	 */
+	public int getHits() {
+		return hits;
+	}
+
+	public int getMisses() {
+		return misses;
+	}
+
+	public boolean isPrefetched(Scene scene) {
+		return prefetched.containsKey(scene);
+	}
+
+	/**
+	 * Called every frame while the current scene is loaded.
+	 */
+	public void update(World world) {
+		Scene current = world.getCurrentScene();
+
+		if (loading != null) {
+			if (isLoading())
+				return;
+
+			finishLoading(current);
+		}
+
+		if (current != source) {
+			source = current;
+			budgetExceeded = false;
+			findCandidates(world, current);
+			releaseNotCandidates();
+		}
+
+		if (budget <= 0 || budgetExceeded)
+			return;
+
+		// Idle priority: wait until the current scene has nothing to load
+		if (hasQueuedAssets())
+			return;
+
+		for (Scene s : candidates) {
+			if (!prefetched.containsKey(s)) {
+				startLoading(s);
+				break;
+			}
+		}
+	}
+
+	/**
+	 * Must be called when the scene is going to be the current scene. The
+	 * scene is removed from the prefetched scenes.
+	 */
+	public void enter(Scene scene) {
+		if (prefetched.containsKey(scene)) {
+			usedBytes -= prefetched.remove(scene, 0);
+			hits++;
+		} else {
+			misses++;
+		}
+
+		if (loading == scene) {
+			// The World finishes loading it
+			loading = null;
+		} else if (loading != null) {
+			// The assets of the entered scene would wait for it
+			cancelLoading();
+		}
+
+		EngineLogger.debug("SCENE PREFETCH HITS: " + hits + " MISSES: "
+				+ misses);
+	}
+
+	/**
+	 * Disposes all the prefetched scenes.
+	 */
+	public void dispose() {
+		if (loading != null)
+			cancelLoading();
+
+		for (Scene s : prefetched.keys()) {
+			s.dispose();
+		}
+
+		prefetched.clear();
+		candidates.clear();
+		source = null;
+		usedBytes = 0;
+		budgetExceeded = false;
+	}
+
+	private void findCandidates(World world, Scene current) {
+		candidates.clear();
+
+		if (current == null)
+			return;
+
+		addCandidates(world, current, current.getVerbManager());
+
+		for (Actor a : current.getActors().values()) {
+			addCandidates(world, current, a.getVerbManager());
+		}
+	}
+
+	private void addCandidates(World world, Scene current, VerbManager vm) {
+		for (Verb v : vm.getVerbs().values()) {
+			for (Action a : v.getActions()) {
+				if (!(a instanceof LeaveAction))
+					continue;
+
+				Scene s = world.getScene(((LeaveAction) a).getTarget());
+
+				if (s != null && s != current && !candidates.contains(s))
+					candidates.add(s);
+			}
+		}
+	}
+
+	private void releaseNotCandidates() {
+		ArrayList<Scene> released = new ArrayList<Scene>();
+
+		for (Scene s : prefetched.keys()) {
+			if (!candidates.contains(s))
+				released.add(s);
+		}
+
+		for (Scene s : released) {
+			usedBytes -= prefetched.remove(s, 0);
+			s.dispose();
+		}
+	}
+
+	private void startLoading(Scene scene) {
+		recordLoadedAssets();
+
+		loading = scene;
+		scene.loadAssets();
+	}
+
+	/**
+	 * Unloads the queued assets of the scene being loaded.
+	 */
+	private void cancelLoading() {
+		EngineLogger.debug("SCENE PREFETCH: " + loading.getId()
+				+ " cancelled");
+
+		loading.dispose();
+		loading = null;
+		loadedBefore.clear();
+	}
+
+	private void finishLoading(Scene current) {
+		Scene scene = loading;
+		loading = null;
+
+		int bytes = getNewTexturesSize(current);
+
+		if (usedBytes + bytes > budget) {
+			EngineLogger.debug("SCENE PREFETCH: " + scene.getId()
+					+ " exceeds the budget");
+			scene.dispose();
+			budgetExceeded = true;
+			return;
+		}
+
+		prefetched.put(scene, bytes);
+		usedBytes += bytes;
+	}
+
+	/**
+	 * Size of the textures loaded since the scene was queued. Textures shared
+	 * with other scenes and the tiles streamed by the current scene are not
+	 * counted.
+	 */
+	int getNewTexturesSize(Scene current) {
+		EngineAssetManager am = EngineAssetManager.getInstance();
+		Array<String> names = am.getAssetNames();
+		int bytes = 0;
+
+		for (String name : names) {
+			if (!loadedBefore.contains(name)
+					&& am.getAssetType(name) == Texture.class
+					&& (current == null || !current.isStreamedAsset(name))) {
+				Texture t = am.get(name, Texture.class);
+				bytes += t.getWidth() * t.getHeight() * 4;
+			}
+		}
+
+		loadedBefore.clear();
+
+		return bytes;
+	}
+
+	void recordLoadedAssets() {
+		loadedBefore.clear();
+
+		for (String name : EngineAssetManager.getInstance().getAssetNames())
+			loadedBefore.add(name);
+	}
+
+	boolean isLoading() {
+		return EngineAssetManager.getInstance().isLoading();
+	}
+
+	boolean hasQueuedAssets() {
+		return EngineAssetManager.getInstance().getQueuedAssets() > 0;
+	}
+}
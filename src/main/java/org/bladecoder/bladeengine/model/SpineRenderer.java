@@ -30,6 +30,7 @@ import org.bladecoder.bladeengine.util.RectangleRenderer;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.Json;
@@ -66,6 +67,9 @@ public class SpineRenderer implements SpriteRenderer {
 	private SkeletonRenderer renderer;
 	private SkeletonBounds bounds;
 
+	/** Skeleton position when the bounds were updated */
+	private float boundsX, boundsY;
+
 	private final HashMap<String, SkeletonCacheEntry> skeletonCache = new HashMap<String, SkeletonCacheEntry>();
 	
 	private float lastAnimationTime = 0;
@@ -182,6 +186,14 @@ public class SpineRenderer implements SpriteRenderer {
 		}
 	}
 
+	/**
+	 * The skeleton animation state is updated while there is a skeleton.
+	 */
+	@Override
+	public boolean isAnimating() {
+		return currentSkeleton != null && currentSkeleton.skeleton != null;
+	}
+
 	@Override
 	public void draw(SpriteBatch batch, float x, float y, float scale) {
 
@@ -200,6 +212,29 @@ public class SpineRenderer implements SpriteRenderer {
 		}
 	}
 
+	private void updateBounds() {
+		bounds.update(currentSkeleton.skeleton, true);
+		boundsX = currentSkeleton.skeleton.getX();
+		boundsY = currentSkeleton.skeleton.getY();
+	}
+
+	/**
+	 * The skeleton bounds are not centered in the position. They are moved
+	 * from the skeleton position when they were updated to the draw position.
+	 */
+	@Override
+	public Rectangle getBounds(float x, float y, float scale, Rectangle out) {
+		if (bounds == null || bounds.getWidth() == 0) {
+			float w = getWidth() * scale;
+
+			return out.set(x - w / 2, y, w, getHeight() * scale);
+		}
+
+		return out.set(x + (bounds.getMinX() - boundsX) * scale, y
+				+ (bounds.getMinY() - boundsY) * scale, bounds.getWidth()
+				* scale, bounds.getHeight() * scale);
+	}
+
 	@Override
 	public float getWidth() {
 		if (bounds != null && bounds.getWidth() != 0)
@@ -308,7 +343,7 @@ public class SpineRenderer implements SpriteRenderer {
 		currentSkeleton.animation.setTimeScale(fa.duration);
 		currentSkeleton.animation.apply(currentSkeleton.skeleton);
 		update(0);
-		bounds.update(currentSkeleton.skeleton, true);
+		updateBounds();
 		lastAnimationTime = 0;
 	}
 
@@ -457,7 +492,7 @@ public class SpineRenderer implements SpriteRenderer {
 			currentSkeleton.animation.setTimeScale(currentFrameAnimation.duration);
 			currentSkeleton.animation.apply(currentSkeleton.skeleton);
 			update(lastAnimationTime);
-			bounds.update(currentSkeleton.skeleton, true);
+			updateBounds();
 
 		} else if (initFrameAnimation != null) {
 			startFrameAnimation(initFrameAnimation, Tween.FROM_FA, 1, null);
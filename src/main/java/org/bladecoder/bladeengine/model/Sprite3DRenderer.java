@@ -105,8 +105,8 @@ public class Sprite3DRenderer implements SpriteRenderer {
 	// TODO Move shadowLight to static for memory eficiency.
 	// This implies that the shadow must be calculated in the draw method and
 	// not in the update
-	private final DirectionalShadowLight shadowLight = (DirectionalShadowLight) new DirectionalShadowLight(
-			1024, 1024, 30f, 30f, 1f, 100f).set(1f, 1f, 1f, 0.01f, -1f, 0.01f);
+	// Created with the environment, it has a framebuffer
+	private DirectionalShadowLight shadowLight;
 
 	PointLight celLight;
 
@@ -505,6 +505,10 @@ public class Sprite3DRenderer implements SpriteRenderer {
 			currentModel.controller.update(delta);
 			lastAnimationTime += delta;
 
+			// Only the animation advances without GL
+			if (World.getInstance().isHeadless())
+				return;
+
 			// GENERATE SHADOW MAP
 			if(renderShadow)
 				genShadowMap();
@@ -514,6 +518,19 @@ public class Sprite3DRenderer implements SpriteRenderer {
 		}
 	}
 
+	@Override
+	public boolean isAnimating() {
+		return currentModel != null && currentModel.controller.current != null
+				&& currentModel.controller.current.loopCount != 0;
+	}
+
+	@Override
+	public Rectangle getBounds(float x, float y, float scale, Rectangle out) {
+		float w = getWidth() * scale;
+
+		return out.set(x - w / 2, y, w, getHeight() * scale);
+	}
+
 	@Override
 	public float getWidth() {
 		return width;
@@ -594,6 +611,11 @@ public class Sprite3DRenderer implements SpriteRenderer {
 		environment.add(celLight);
 
 		if(renderShadow) {
+			if (shadowLight == null)
+				shadowLight = (DirectionalShadowLight) new DirectionalShadowLight(
+						1024, 1024, 30f, 30f, 1f, 100f).set(1f, 1f, 1f, 0.01f,
+						-1f, 0.01f);
+
 			shadowEnvironment = new Environment();
 			shadowEnvironment.add(shadowLight);
 			shadowEnvironment.shadowMap = shadowLight;
@@ -722,6 +744,10 @@ public class Sprite3DRenderer implements SpriteRenderer {
 				lookat(modelRotation);
 		}
 
+		// no batchs, shadows or framebuffers in headless mode
+		if (World.getInstance().isHeadless())
+			return;
+
 		// create STATIC BATCHS if not created yet
 		if (modelBatch == null)
 			createBatchs();
@@ -761,11 +787,14 @@ public class Sprite3DRenderer implements SpriteRenderer {
 		environment = null;
 		shadowEnvironment = null;
 
-		if (USE_FBO)
+		if (USE_FBO && fb != null)
 			fb.dispose();
 	}
 
 	public static void disposeBatchs() {
+		if (modelBatch == null)
+			return;
+
 		modelBatch.dispose();
 		shadowBatch.dispose();
 		floorBatch.dispose();
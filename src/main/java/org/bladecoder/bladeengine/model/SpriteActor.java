@@ -25,9 +25,13 @@ import org.bladecoder.bladeengine.anim.SpritePosTween;
 import org.bladecoder.bladeengine.anim.Tween;
 import org.bladecoder.bladeengine.anim.WalkTween;
 import org.bladecoder.bladeengine.assets.EngineAssetManager;
+import org.bladecoder.bladeengine.polygonalpathfinder.PathListener;
+import org.bladecoder.bladeengine.polygonalpathfinder.PolygonalNavGraph;
+import org.bladecoder.bladeengine.util.ActionCallbackSerialization;
 import org.bladecoder.bladeengine.util.EngineLogger;
 
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.utils.Json;
 import com.badlogic.gdx.utils.JsonValue;
@@ -44,12 +48,26 @@ public class SpriteActor extends Actor {
 	private SpritePosTween posTween;
 	private float scale = 1.0f;
 
+	/** Path search in progress started by goTo() */
+	private PendingWalk pendingWalk;
+
+	/** Walk searching when the game was saved. Started when retrieved */
+	transient private Vector2 savedWalkTarget;
+	transient private String savedWalkCb;
+
 	/** Scale sprite acording to the scene depth map */
 	private DepthType depthType = DepthType.NONE;
 
 	private float walkingSpeed = DEFAULT_WALKING_SPEED;
 	private boolean bboxFromRenderer = false;
 
+	/** Position before the last update, to interpolate the drawing position */
+	transient private float prevX, prevY;
+	transient private boolean interpolate = false;
+
+	/** True if the actor is in the scene active set */
+	transient boolean inActiveSet = false;
+
 	public void setRenderer(SpriteRenderer r) {
 		renderer = r;
 	}
@@ -73,13 +91,9 @@ public class SpriteActor extends Actor {
 	public void setPosition(float x, float y) {
 		
 		if(isWalkObstacle() && scene.getPolygonalNavGraph() != null) {
-			scene.getPolygonalNavGraph().removeDinamicObstacle(bbox);
-		}
-		
-		bbox.setPosition(x, y);
-		
-		if(isWalkObstacle() && scene.getPolygonalNavGraph() != null) {
-			scene.getPolygonalNavGraph().addDinamicObstacle(bbox);
+			scene.getPolygonalNavGraph().moveDinamicObstacle(bbox, x, y);
+		} else {
+			bbox.setPosition(x, y);
 		}
 		
 		if (scene != null) {
@@ -96,6 +110,8 @@ public class SpriteActor extends Actor {
 
 		}
 
+		bboxChanged();
+
 	}
 	
 	public boolean isBboxFromRenderer() {
@@ -124,10 +140,36 @@ public class SpriteActor extends Actor {
 	public void setScale(float scale) {
 		this.scale = scale;
 		bbox.setScale(scale, scale);
+		bboxChanged();
+	}
+
+	/**
+	 * Returns true if the actor needs update() calls: it has a position tween
+	 * or a running animation.
+	 */
+	public boolean isActive() {
+		return posTween != null || interpolate || renderer.isAnimating();
+	}
+
+	/**
+	 * Adds the actor to the scene active set after starting an animation.
+	 */
+	private void wakeUp() {
+		if (scene != null)
+			scene.activateActor(this);
 	}
 
 	public void update(float delta) {
 		renderer.update(delta);
+
+		// Interpolate until the step after the position tween ends
+		interpolate = posTween != null;
+
+		if (interpolate) {
+			prevX = getX();
+			prevY = getY();
+		}
+
 		if(posTween != null) {
 			posTween.update(this, delta);
 			if(posTween.isComplete()) {
@@ -136,9 +178,41 @@ public class SpriteActor extends Actor {
 		}
 	}
 
+	/**
+	 * Sets 'out' to the area where the actor is drawn: the renderer bounds in
+	 * the actor position plus the bbox.
+	 */
+	public Rectangle getDrawBounds(Rectangle out) {
+		renderer.getBounds(getX(), getY(), scale, out);
+
+		if (bbox.getVertices().length > 0)
+			out.merge(bbox.getBoundingRectangle());
+
+		return out;
+	}
+
 	public void draw(SpriteBatch batch) {
+		draw(batch, 1);
+	}
+
+	/**
+	 * Draws the actor. Moving actors are drawn between the position before
+	 * the last update and the current position.
+	 * 
+	 * @param alpha
+	 *            Interpolation factor, 1 for the current position
+	 */
+	public void draw(SpriteBatch batch, float alpha) {
 		if (isVisible()) {
-			renderer.draw(batch, getX(), getY(), scale);
+			float x = getX();
+			float y = getY();
+
+			if (interpolate) {
+				x = prevX + (x - prevX) * alpha;
+				y = prevY + (y - prevY) * alpha;
+			}
+
+			renderer.draw(batch, x, y, scale);
 		}
 	}
 
@@ -167,19 +241,16 @@ public class SpriteActor extends Actor {
 		}
 
 		renderer.startFrameAnimation(id, repeatType, count, cb);
+		wakeUp();
 
 		fa = renderer.getCurrentFrameAnimation();
 
 		if (fa != null) {
 			if(bboxFromRenderer) {
-				if(isWalkObstacle() && scene.getPolygonalNavGraph() != null) {
-					scene.getPolygonalNavGraph().removeDinamicObstacle(bbox);
-				}
-				
 				updateBBox();
 				
 				if(isWalkObstacle() && scene.getPolygonalNavGraph() != null) {
-					scene.getPolygonalNavGraph().addDinamicObstacle(bbox);
+					scene.getPolygonalNavGraph().updateDinamicObstacle(bbox);
 				}
 			}
 			
@@ -210,38 +281,45 @@ public class SpriteActor extends Actor {
 	public void startPosAnimation(int repeatType, int count, float duration,
 			float destX, float destY, ActionCallback cb) {
 
+		pendingWalk = null;
 		posTween = new SpritePosTween();
 
 		posTween.start(this, repeatType, count, destX, destY, duration,
 				cb);
+		wakeUp();
 	}
 
 	public void lookat(Vector2 p) {
 		renderer.lookat(bbox.getX(), bbox.getY(), p);
+		wakeUp();
 		if(bboxFromRenderer)
 			updateBBox();
 	}
 
 	public void lookat(String direction) {
 		renderer.lookat(direction);
+		wakeUp();
 		if(bboxFromRenderer)
 			updateBBox();
 	}
 
 	public void stand() {
 		renderer.stand();
+		wakeUp();
 		if(bboxFromRenderer)
 			updateBBox();
 	}
 
 	public void startWalkFA(Vector2 p0, Vector2 pf) {
 		renderer.startWalkFA(p0, pf);
+		wakeUp();
 		if(bboxFromRenderer)
 			updateBBox();
 	}
 
 	/**
-	 * Walking Support
+	 * Walking Support. The path is searched in background and the actor stops
+	 * until the path is found. The walk starts in the next simulation step.
 	 * 
 	 * @param pf
 	 * @param cb
@@ -249,15 +327,28 @@ public class SpriteActor extends Actor {
 	public void goTo(Vector2 pf, ActionCallback cb) {
 		EngineLogger.debug(MessageFormat.format("GOTO {0},{1}", pf.x, pf.y));
 
-		Vector2 p0 = new Vector2(bbox.getX(), bbox.getY());
+		PolygonalNavGraph graph = scene.getPolygonalNavGraph();
 
-		ArrayList<Vector2> walkingPath = null;
+		if (graph == null) {
+			// llamamos al callback aunque el camino esté vacío
+			if (cb != null)
+				ActionCallbackQueue.add(cb);
 
-		if(scene.getPolygonalNavGraph() != null) {
-			walkingPath = scene.getPolygonalNavGraph().findPath(p0.x, p0.y, pf.x, pf.y);
+			return;
 		}
 
-		if (walkingPath == null || walkingPath.size() == 0) {
+		posTween = null;
+		pendingWalk = new PendingWalk(pf, cb);
+		graph.findPathAsync(bbox.getX(), bbox.getY(), pf.x, pf.y, pendingWalk);
+	}
+
+	/**
+	 * Walks the path. Used when the path has been searched outside goTo().
+	 */
+	public void walk(ArrayList<Vector2> walkingPath, ActionCallback cb) {
+		pendingWalk = null;
+
+		if (walkingPath.size() == 0) {
 			// llamamos al callback aunque el camino esté vacío
 			if (cb != null)
 				ActionCallbackQueue.add(cb);
@@ -268,6 +359,30 @@ public class SpriteActor extends Actor {
 		posTween = new WalkTween();
 
 		((WalkTween)posTween).start(this, walkingPath, walkingSpeed, cb);
+		wakeUp();
+	}
+
+	/**
+	 * Receives the path requested by goTo(). The path is ignored if the actor
+	 * has started another walk or animation.
+	 */
+	private class PendingWalk implements PathListener {
+		final Vector2 target;
+		final ActionCallback cb;
+
+		PendingWalk(Vector2 target, ActionCallback cb) {
+			this.target = new Vector2(target);
+			this.cb = cb;
+		}
+
+		@Override
+		public void onPathFound(ArrayList<Vector2> path) {
+			if (pendingWalk != this)
+				return;
+
+			pendingWalk = null;
+			walk(path, cb);
+		}
 	}
 	
 	/**
@@ -289,7 +404,10 @@ public class SpriteActor extends Actor {
 		verts[4] = renderer.getWidth()/2;
 		verts[5] = renderer.getHeight();
 		verts[6] = renderer.getWidth()/2;
-		verts[7] = 0f;		
+		verts[7] = 0f;
+		
+		bbox.dirty();
+		bboxChanged();
 	}	
 
 	@Override
@@ -322,6 +440,16 @@ public class SpriteActor extends Actor {
 		setPosition(bbox.getX(), bbox.getY());
 		
 		super.retrieveAssets();
+
+		// The walk graph is created before the actors are retrieved
+		if (savedWalkTarget != null) {
+			ActionCallback cb = savedWalkCb == null ? null
+					: ActionCallbackSerialization.find(savedWalkCb);
+
+			goTo(savedWalkTarget, cb);
+			savedWalkTarget = null;
+			savedWalkCb = null;
+		}
 	}
 
 	@Override
@@ -333,6 +461,14 @@ public class SpriteActor extends Actor {
 	public void write(Json json) {
 		super.write(json);
 
+		// The search is started again when the game is loaded
+		if (pendingWalk != null) {
+			json.writeValue("walkTarget", pendingWalk.target);
+			json.writeValue("walkCb",
+					ActionCallbackSerialization.find(pendingWalk.cb),
+					pendingWalk.cb == null ? null : String.class);
+		}
+
 		json.writeValue("scale", scale);
 		json.writeValue("walkingSpeed", walkingSpeed);
 		json.writeValue("posTween", posTween, null);
@@ -353,6 +489,9 @@ public class SpriteActor extends Actor {
 		renderer = json.readValue("renderer", SpriteRenderer.class, jsonData);
 		
 		bboxFromRenderer = json.readValue("bboxFromRenderer", Boolean.class, jsonData);
+
+		savedWalkTarget = json.readValue("walkTarget", Vector2.class, jsonData);
+		savedWalkCb = json.readValue("walkCb", String.class, jsonData);
 		
 		if(bboxFromRenderer)
 			bbox.setScale(1, 1);
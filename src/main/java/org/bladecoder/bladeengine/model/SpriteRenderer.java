@@ -22,16 +22,28 @@ import org.bladecoder.bladeengine.anim.FrameAnimation;
 import org.bladecoder.bladeengine.assets.AssetConsumer;
 
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.utils.Json.Serializable;
 
 public interface SpriteRenderer extends Serializable, AssetConsumer {
 
 	public void update(float delta);
+
+	/**
+	 * Returns true if update() must be called every frame: there is an
+	 * animation running.
+	 */
+	public boolean isAnimating();
 	public void draw(SpriteBatch batch, float x, float y, float scale);
 	
 	public float getWidth();
 	public float getHeight();
+
+	/**
+	 * Sets 'out' to the area drawn by draw() with the same position and scale.
+	 */
+	public Rectangle getBounds(float x, float y, float scale, Rectangle out);
 	
 	public FrameAnimation getCurrentFrameAnimation();
 	public String getCurrentFrameAnimationId();
@@ -0,0 +1,387 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.bladecoder.bladeengine.model;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.List;
+
+import org.bladecoder.bladeengine.assets.EngineAssetManager;
+import org.bladecoder.bladeengine.util.EngineLogger;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.Texture.TextureFilter;
+import com.badlogic.gdx.math.Rectangle;
+
+/**
+ * Keeps loaded only the tiles of a tiled image (background or light map) near
+ * the camera. The tiles are placed side by side from x = 0 and their sizes are
+ * read from the PNG headers, so the tile positions are known without loading
+ * them.
+ * 
+ * The tiles in the camera view are always loaded. The tiles ahead in the
+ * scroll direction are prefetched, up to one view width or the distance the
+ * camera moves in PREFETCH_FRAMES if it is longer. Prefetching doesn't exceed
+ * 'maxLoadedTiles': the farthest tiles out of the prefetch range are unloaded
+ * first and the nearest tiles are queued first.
+ * 
+ * @author rgarcia
+ */
+public class TileStreamer {
+	private static final long PNG_SIGNATURE = 0x89504E470D0A1A0AL;
+	private static final int PNG_IHDR = 0x49484452;
+
+	/**
+	 * Frames of camera movement loaded ahead. Must cover the time to load a
+	 * tile.
+	 */
+	private static final int PREFETCH_FRAMES = 30;
+
+	private final String[] filenames;
+
+	/** The scene tile array. Not loaded tiles are null */
+	private final Texture[] tiles;
+
+	private final float[] tileX;
+	private final int[] widths;
+	private final int[] heights;
+
+	/** True if the tile is queued in the asset manager or loaded */
+	private final boolean[] queued;
+	private int numQueued = 0;
+
+	/** Tiles to keep loaded, computed in every update */
+	private final boolean[] wanted;
+
+	private final int maxLoadedTiles;
+	private final TextureFilter minFilter;
+	private final TextureFilter magFilter;
+
+	private float lastViewX = Float.NaN;
+	private int scrollDir = 0;
+
+	/** Camera movement in the last update */
+	private float speed = 0;
+
+	TileStreamer(String[] filenames, int[] widths, int[] heights,
+			Texture[] tiles, int maxLoadedTiles, TextureFilter minFilter,
+			TextureFilter magFilter) {
+		int n = filenames.length;
+
+		this.filenames = filenames;
+		this.widths = widths;
+		this.heights = heights;
+		this.tiles = tiles;
+		this.maxLoadedTiles = maxLoadedTiles;
+		this.minFilter = minFilter;
+		this.magFilter = magFilter;
+
+		tileX = new float[n];
+		queued = new boolean[n];
+		wanted = new boolean[n];
+
+		for (int i = 1; i < n; i++)
+			tileX[i] = tileX[i - 1] + widths[i - 1];
+	}
+
+	/**
+	 * Creates the streamer for the tiles.
+	 * 
+	 * @return null if the tile sizes can not be read. The tiles must be
+	 *         loaded the usual way.
+	 */
+	public static TileStreamer create(List<String> filenames, Texture[] tiles,
+			int maxLoadedTiles, TextureFilter minFilter, TextureFilter magFilter) {
+		int n = filenames.size();
+		int[] widths = new int[n];
+		int[] heights = new int[n];
+		int[] size = new int[2];
+
+		for (int i = 0; i < n; i++) {
+			if (!readPNGSize(EngineAssetManager.getInstance().getResAsset(
+					filenames.get(i)), size)) {
+				EngineLogger.debug("Can't stream background, not a PNG file: "
+						+ filenames.get(i));
+				return null;
+			}
+
+			widths[i] = size[0];
+			heights[i] = size[1];
+		}
+
+		return new TileStreamer(filenames.toArray(new String[n]), widths,
+				heights, tiles, maxLoadedTiles, minFilter, magFilter);
+	}
+
+	private static boolean readPNGSize(FileHandle file, int[] size) {
+		DataInputStream in = new DataInputStream(file.read());
+
+		try {
+			if (in.readLong() != PNG_SIGNATURE)
+				return false;
+
+			in.readInt(); // chunk length
+
+			if (in.readInt() != PNG_IHDR)
+				return false;
+
+			size[0] = in.readInt();
+			size[1] = in.readInt();
+
+			return true;
+		} catch (IOException e) {
+			return false;
+		} finally {
+			try {
+				in.close();
+			} catch (IOException e) {
+			}
+		}
+	}
+
+	public int getWidth() {
+		int n = widths.length;
+
+		return n == 0 ? 0 : (int) tileX[n - 1] + widths[n - 1];
+	}
+
+	public int getHeight() {
+		return heights.length == 0 ? 0 : heights[0];
+	}
+
+	public int getTileWidth(int i) {
+		return widths[i];
+	}
+
+	public int getTileHeight(int i) {
+		return heights[i];
+	}
+
+	public int getNumLoadedTiles() {
+		return numQueued;
+	}
+
+	/**
+	 * Returns true if the file is one of the tiles.
+	 */
+	public boolean isTile(String filename) {
+		for (String f : filenames) {
+			if (f.equals(filename))
+				return true;
+		}
+
+		return false;
+	}
+
+	/**
+	 * Queues the tiles needed for the view. Called when loading the scene
+	 * assets.
+	 */
+	public void loadAssets(Rectangle view) {
+		lastViewX = view.x;
+		queueTiles(view);
+	}
+
+	/**
+	 * Retrieves the loaded tiles, queues the tiles needed for the view and
+	 * unloads the far tiles. Called every frame with the camera view.
+	 */
+	public void update(Rectangle view) {
+		if (!Float.isNaN(lastViewX) && view.x != lastViewX) {
+			scrollDir = view.x > lastViewX ? 1 : -1;
+			speed = Math.abs(view.x - lastViewX);
+		} else {
+			speed = 0;
+		}
+
+		lastViewX = view.x;
+
+		queueTiles(view);
+
+		boolean pending = false;
+
+		for (int i = 0; i < tiles.length; i++) {
+			if (!queued[i] || tiles[i] != null)
+				continue;
+
+			Texture t = getLoadedTexture(filenames[i]);
+
+			if (t != null) {
+				tiles[i] = t;
+				t.setFilter(minFilter, magFilter);
+			} else {
+				pending = true;
+			}
+		}
+
+		// Nobody updates the asset manager after the scene is loaded
+		if (pending)
+			updateLoading();
+	}
+
+	private void queueTiles(Rectangle view) {
+		float ahead = Math.max(view.width, speed * PREFETCH_FRAMES);
+		float minX = scrollDir <= 0 ? view.x - ahead : view.x;
+		float maxX = scrollDir >= 0 ? view.x + view.width + ahead : view.x
+				+ view.width;
+
+		int first = findTile(view.x, view.x + view.width, true);
+		int last = findTile(view.x, view.x + view.width, false);
+
+		if (first == -1)
+			return;
+
+		int prefetchFirst = findTile(minX, maxX, true);
+		int prefetchLast = findTile(minX, maxX, false);
+
+		// The tiles in the view are always wanted. The nearest tiles ahead are
+		// wanted while they fit.
+		int numWanted = 0;
+
+		for (int i = 0; i < tiles.length; i++) {
+			wanted[i] = i >= first && i <= last;
+
+			if (wanted[i])
+				numWanted++;
+		}
+
+		for (int d = 1; numWanted < maxLoadedTiles; d++) {
+			boolean inRange = false;
+
+			if (last + d <= prefetchLast) {
+				wanted[last + d] = true;
+				numWanted++;
+				inRange = true;
+			}
+
+			if (first - d >= prefetchFirst && numWanted < maxLoadedTiles) {
+				wanted[first - d] = true;
+				numWanted++;
+				inRange = true;
+			}
+
+			if (!inRange)
+				break;
+		}
+
+		int numMissing = 0;
+
+		for (int i = 0; i < tiles.length; i++) {
+			if (wanted[i] && !queued[i])
+				numMissing++;
+		}
+
+		// Unload the farthest tiles not wanted to make room
+		float center = view.x + view.width / 2;
+
+		while (numQueued + numMissing > maxLoadedTiles) {
+			int farthest = -1;
+			float farthestDist = -1;
+
+			for (int i = 0; i < tiles.length; i++) {
+				if (!queued[i] || wanted[i])
+					continue;
+
+				float dist = Math.abs(tileX[i] + widths[i] / 2 - center);
+
+				if (dist > farthestDist) {
+					farthest = i;
+					farthestDist = dist;
+				}
+			}
+
+			if (farthest == -1)
+				break;
+
+			unloadTile(farthest);
+		}
+
+		for (int i = 0; i < tiles.length; i++) {
+			if (wanted[i])
+				queueTile(i);
+		}
+	}
+
+	/**
+	 * Returns the first or the last tile overlapping the range or -1.
+	 */
+	private int findTile(float minX, float maxX, boolean first) {
+		int found = -1;
+
+		for (int i = 0; i < tiles.length; i++) {
+			if (tileX[i] < maxX && tileX[i] + widths[i] > minX) {
+				if (first)
+					return i;
+
+				found = i;
+			}
+		}
+
+		return found;
+	}
+
+	private void queueTile(int i) {
+		if (!queued[i]) {
+			loadTexture(filenames[i]);
+			queued[i] = true;
+			numQueued++;
+		}
+	}
+
+	private void unloadTile(int i) {
+		unloadTexture(filenames[i]);
+		tiles[i] = null;
+		queued[i] = false;
+		numQueued--;
+	}
+
+	void loadTexture(String filename) {
+		EngineAssetManager.getInstance().loadTexture(filename);
+	}
+
+	void unloadTexture(String filename) {
+		EngineAssetManager.getInstance().unload(filename);
+	}
+
+	/**
+	 * Returns the texture if it is loaded or null.
+	 */
+	Texture getLoadedTexture(String filename) {
+		if (!EngineAssetManager.getInstance().isLoaded(filename))
+			return null;
+
+		return EngineAssetManager.getInstance().getTexture(filename);
+	}
+
+	void updateLoading() {
+		EngineAssetManager.getInstance().update();
+	}
+
+	/**
+	 * Unloads all the queued and loaded tiles.
+	 */
+	public void dispose() {
+		for (int i = 0; i < tiles.length; i++) {
+			if (queued[i])
+				unloadTile(i);
+		}
+
+		lastViewX = Float.NaN;
+		scrollDir = 0;
+		speed = 0;
+	}
+}
@@ -37,13 +37,19 @@ public class Transition implements Serializable {
 	private float time;
 	private float currentTime;
 	private ActionCallback cb;
+	private String cbSer;
 	private Color c;
 	private Type type;
 	
 	public void update(float delta) {
 		currentTime += delta;
 		
-		if(isFinish() && cb != null) {
+		if(isFinish() && (cb != null || cbSer != null)) {
+			if(cbSer != null) {
+				cb = ActionCallbackSerialization.find(cbSer);
+				cbSer = null;
+			}
+			
 			ActionCallbackQueue.add(cb);
 			cb = null;
 		}
@@ -72,6 +78,7 @@ public class Transition implements Serializable {
 		this.type = type;
 		this.time = time;
 		this.cb = cb;
+		this.cbSer = null;
 	}
 	
 	public boolean isFinish() {
@@ -84,7 +91,8 @@ public class Transition implements Serializable {
 		json.writeValue("time", time);
 		json.writeValue("color", c);
 		json.writeValue("type", type);
-		json.writeValue("cb", ActionCallbackSerialization.find(cb), cb == null ? null : String.class);	
+		String id = cbSer != null ? cbSer : ActionCallbackSerialization.find(cb);
+		json.writeValue("cb", id, id == null ? null : String.class);	
 	}
 
 	@Override
@@ -93,8 +101,7 @@ public class Transition implements Serializable {
 		time = json.readValue("time", Float.class, jsonData);
 		c = json.readValue("color", Color.class, jsonData);
 		type = json.readValue("type", Type.class, jsonData);
-		String cbSer = json.readValue("cb", String.class, jsonData);
-		if(cbSer != null)
-			cb = ActionCallbackSerialization.find(cbSer);
+		// resolved when used, the verbs are not read yet
+		cbSer = json.readValue("cb", String.class, jsonData);
 	}
 }
@@ -18,18 +18,17 @@ package org.bladecoder.bladeengine.model;
 import java.util.ArrayList;
 
 import org.bladecoder.bladeengine.actions.Action;
-import org.bladecoder.bladeengine.actions.ActionCallback;
-import org.bladecoder.bladeengine.actions.ActionEndTrigger;
 import org.bladecoder.bladeengine.actions.RunVerbAction;
-import org.bladecoder.bladeengine.util.EngineLogger;
 
-public class Verb implements ActionCallback {
+/**
+ * A list of actions. Every run is executed by a new VerbContext, so a verb can
+ * be running several times at once.
+ */
+public class Verb {
 	private String id;
 	
 	private ArrayList<Action> actions = new ArrayList <Action>();
 	
-	int ip = -1;
-	
 	public Verb() {
 	}
 	
@@ -54,43 +53,15 @@ public class Verb implements ActionCallback {
 	}
 	
 	public void run() {
-		ip = 0;
-		nextStep();
-	}
-	
-	public void nextStep() {
-		
-		boolean stop = false;
-		
-		while(ip < actions.size() && !stop) {
-			Action a = actions.get(ip);
-			if(a instanceof ActionEndTrigger) {
-				((ActionEndTrigger)a).setCallback(this);
-				stop = true;
-			}
-			
-			ip++;
-			
-			try {
-				a.run();
-			} catch (Exception e) {
-				EngineLogger.error("EXCEPTION EXECUTING ACTION: " + a.getClass().getSimpleName(), e);
-			}		
-		}
-	}
-
-	@Override
-	public void onEvent() {
-		nextStep();	
+		VerbContext.run(this);
 	}
 
-
 	public void cancel() {
 		for(Action c:actions) {
 			if(c instanceof RunVerbAction)
 				((RunVerbAction)c).cancel();
 		}		
 		
-		ip = actions.size();
+		VerbContext.cancel(this);
 	}	
 }
@@ -0,0 +1,217 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.bladecoder.bladeengine.model;
+
+import java.util.ArrayList;
+
+import org.bladecoder.bladeengine.actions.Action;
+import org.bladecoder.bladeengine.actions.ActionCallback;
+import org.bladecoder.bladeengine.actions.ActionEndTrigger;
+import org.bladecoder.bladeengine.util.ActionCallbackSerialization;
+import org.bladecoder.bladeengine.util.EngineLogger;
+
+import com.badlogic.gdx.utils.Json;
+import com.badlogic.gdx.utils.Json.Serializable;
+import com.badlogic.gdx.utils.JsonValue;
+import com.badlogic.gdx.utils.Pool;
+import com.badlogic.gdx.utils.Pool.Poolable;
+
+/**
+ * One execution of a Verb. Keeps the position of the next action to run, so
+ * the same verb can be running several times at once.
+ *
+ * The context is the callback of the action that it is waiting for. When the
+ * last action ends, the context goes back to the pool. When several runs wait
+ * for the same action, all of them continue when it ends.
+ *
+ * @author rgarcia
+ */
+public class VerbContext implements ActionCallback, Serializable, Poolable {
+	private static final Pool<VerbContext> pool = new Pool<VerbContext>() {
+		@Override
+		protected VerbContext newObject() {
+			return new VerbContext();
+		}
+	};
+
+	/** The contexts started and not finished yet */
+	private static final ArrayList<VerbContext> running = new ArrayList<VerbContext>();
+	private static int nextId = 0;
+
+	/** Identifies the context in the saved games. Changes when reused */
+	private int id = -1;
+	private Verb verb;
+	private int ip = -1;
+
+	/**
+	 * Gets a context from the pool and runs the verb from the first action.
+	 */
+	public static VerbContext run(Verb verb) {
+		VerbContext c = pool.obtain();
+
+		c.id = nextId++;
+		c.verb = verb;
+		c.ip = 0;
+		running.add(c);
+
+		c.nextStep();
+
+		return c;
+	}
+
+	/**
+	 * Returns the running contexts. Don't modify the list.
+	 */
+	public static ArrayList<VerbContext> getRunning() {
+		return running;
+	}
+
+	public static VerbContext find(int id) {
+		for (VerbContext c : running) {
+			if (c.id == id)
+				return c;
+		}
+
+		return null;
+	}
+
+	/**
+	 * Skips the remaining actions of all the running contexts of the verb.
+	 * The contexts waiting for an action are released when the action ends.
+	 */
+	public static void cancel(Verb verb) {
+		for (int i = running.size() - 1; i >= 0; i--) {
+			VerbContext c = running.get(i);
+
+			if (c.verb == verb)
+				c.ip = verb.getActions().size();
+		}
+	}
+
+	/**
+	 * Releases all the running contexts. Called when the game is disposed.
+	 */
+	public static void clear() {
+		for (VerbContext c : running)
+			pool.free(c);
+
+		running.clear();
+	}
+
+	/**
+	 * Restores the running contexts of a saved game.
+	 */
+	public static void restore(ArrayList<VerbContext> contexts) {
+		clear();
+
+		for (VerbContext c : contexts) {
+			if (c.verb == null) {
+				EngineLogger.error("VerbContext: verb not found for context "
+						+ c.id);
+				continue;
+			}
+
+			running.add(c);
+			nextId = Math.max(nextId, c.id + 1);
+		}
+	}
+
+	public int getId() {
+		return id;
+	}
+
+	public Verb getVerb() {
+		return verb;
+	}
+
+	/** Position of the next action to run */
+	public int getIp() {
+		return ip;
+	}
+
+	public void nextStep() {
+		// the context can be released and reused by an action that ends
+		// inmediatly
+		if (verb == null)
+			return;
+
+		int runId = id;
+		ArrayList<Action> actions = verb.getActions();
+		boolean stop = false;
+
+		while (ip < actions.size() && !stop) {
+			Action a = actions.get(ip);
+
+			if (a instanceof ActionEndTrigger) {
+				((ActionEndTrigger) a).setCallback(this);
+				stop = true;
+			}
+
+			ip++;
+
+			try {
+				a.run();
+			} catch (Exception e) {
+				EngineLogger.error("EXCEPTION EXECUTING ACTION: "
+						+ a.getClass().getSimpleName(), e);
+			}
+
+			if (id != runId)
+				return;
+		}
+
+		if (!stop)
+			release();
+	}
+
+	private void release() {
+		running.remove(this);
+		pool.free(this);
+	}
+
+	@Override
+	public void onEvent() {
+		nextStep();
+	}
+
+	@Override
+	public String toString() {
+		return id + ": " + (verb == null ? null : verb.getId()) + " " + ip
+				+ "/" + (verb == null ? 0 : verb.getActions().size());
+	}
+
+	@Override
+	public void reset() {
+		id = -1;
+		verb = null;
+		ip = -1;
+	}
+
+	@Override
+	public void write(Json json) {
+		json.writeValue("id", id);
+		json.writeValue("verb", ActionCallbackSerialization.findVerb(verb));
+		json.writeValue("ip", ip);
+	}
+
+	@Override
+	public void read(Json json, JsonValue jsonData) {
+		id = json.readValue("id", Integer.class, jsonData);
+		verb = ActionCallbackSerialization.findVerb(json.readValue("verb",
+				String.class, jsonData));
+		ip = json.readValue("ip", Integer.class, jsonData);
+	}
+}
@@ -28,8 +28,26 @@ public class VerbManager implements Serializable {
 	protected static HashMap<String, Verb> defaultVerbs = new HashMap<String, Verb>();
 	protected HashMap<String, Verb> verbs = new HashMap<String, Verb>();
 
+	/**
+	 * 'verbs' indexed by verb id, target and state, so the lookups don't build
+	 * keys. Rebuilt in the first lookup after a change in 'verbs'.
+	 */
+	transient private final HashMap<String, DispatchEntry> dispatch = new HashMap<String, DispatchEntry>();
+	transient private boolean dispatchDirty = true;
+
+	/**
+	 * The verbs with the same id. 'next' has the verbs with one more suffix
+	 * ("id.x") and 'next2' the verbs with two more suffixes ("id.x.y").
+	 */
+	static class DispatchEntry {
+		Verb verb;
+		HashMap<String, Verb> next;
+		HashMap<String, HashMap<String, Verb>> next2;
+	}
+
 	public void addVerb(String id, Verb v) {
 		verbs.put(id, v);
+		dispatchDirty = true;
 	}
 
 	public static void addDefaultVerb(String id, Verb v) {
@@ -50,35 +68,103 @@ public class VerbManager implements Serializable {
 	 * @return
 	 */
 	public Verb getVerb(String id, String state, String target) {
-		StringBuilder sb = new StringBuilder();
+		if (dispatchDirty)
+			buildDispatch();
+
+		DispatchEntry e = dispatch.get(id);
+
+		if (e == null)
+			return null;
+
 		Verb v = null;
-		
-		if(target != null) {
-			if(state != null) {
-				sb.append(id).append(".").append(target).append(".").append(state);
-				v = verbs.get(sb.toString()); // id.target.state
-			}
 
-			if (v == null) {
-				sb.setLength(0);
-				sb.append(id).append(".").append(target);
-				v = verbs.get(sb.toString()); // id.target
+		if (target != null) {
+			if (state != null && e.next2 != null) {
+				HashMap<String, Verb> m = e.next2.get(target);
+
+				if (m != null)
+					v = m.get(state); // id.target.state
 			}
+
+			if (v == null && e.next != null)
+				v = e.next.get(target); // id.target
 		}
-		
-		if (v == null && state != null) {
-			sb.setLength(0);
-			sb.append(id).append(".").append(state);
-			
-			v = verbs.get(sb.toString()); // id.state
-		}
+
+		if (v == null && state != null && e.next != null)
+			v = e.next.get(state); // id.state
 
 		if (v == null)
-			v = verbs.get(id); // id
+			v = e.verb; // id
 
 		return v;
 	}
-	
+
+	/**
+	 * Returns the actor Verb or the default verb with the same id.
+	 */
+	public Verb getVerbOrDefault(String id, String state, String target) {
+		Verb v = getVerb(id, state, target);
+
+		if (v == null)
+			v = defaultVerbs.get(id);
+
+		return v;
+	}
+
+	/**
+	 * Indexes every verb key by all the ways it can be split in id, target
+	 * and state. Ids, targets and states can have dots, so a key like "a.b.c"
+	 * is found as id "a.b" and target "c" and also as id "a", target "b" and
+	 * state "c", like the concatenated keys.
+	 */
+	private void buildDispatch() {
+		dispatch.clear();
+
+		for (String key : verbs.keySet()) {
+			Verb v = verbs.get(key);
+
+			getDispatchEntry(key).verb = v;
+
+			for (int i = key.indexOf('.'); i != -1; i = key.indexOf('.', i + 1)) {
+				DispatchEntry e = getDispatchEntry(key.substring(0, i));
+				String rest = key.substring(i + 1);
+
+				if (e.next == null)
+					e.next = new HashMap<String, Verb>();
+
+				e.next.put(rest, v);
+
+				for (int j = rest.indexOf('.'); j != -1; j = rest.indexOf('.', j + 1)) {
+					if (e.next2 == null)
+						e.next2 = new HashMap<String, HashMap<String, Verb>>();
+
+					String first = rest.substring(0, j);
+					HashMap<String, Verb> m = e.next2.get(first);
+
+					if (m == null) {
+						m = new HashMap<String, Verb>();
+						e.next2.put(first, m);
+					}
+
+					m.put(rest.substring(j + 1), v);
+				}
+			}
+		}
+
+		dispatchDirty = false;
+	}
+
+	private DispatchEntry getDispatchEntry(String id) {
+		DispatchEntry e = dispatch.get(id);
+
+		if (e == null) {
+			e = new DispatchEntry();
+			dispatch.put(id, e);
+		}
+
+		return e;
+	}
+
 	public static HashMap<String, Verb> getDefaultVerbs() {
 		return defaultVerbs;
 	}
@@ -95,13 +181,7 @@ public class VerbManager implements Serializable {
 	 */
 	public void runVerb(String verb, String state, String target) {
 
-		Verb v = null;
-			
-		v = getVerb(verb, state, target);
-
-		if (v == null) {
-			v = defaultVerbs.get(verb);
-		}
+		Verb v = getVerbOrDefault(verb, state, target);
 
 		if (v != null) {
 			v.run();
@@ -118,13 +198,7 @@ public class VerbManager implements Serializable {
 	 * @param target
 	 */
 	public void cancelVerb(String verb, String state, String target) {
-		Verb v = null;
-		
-		v = getVerb(verb, state, target);
-
-		if (v == null) {
-			v = defaultVerbs.get(verb);
-		}
+		Verb v = getVerbOrDefault(verb, state, target);
 
 		if (v != null)
 			v.cancel();
@@ -143,6 +217,7 @@ public class VerbManager implements Serializable {
 	@Override
 	public void read (Json json, JsonValue jsonData) {
 		verbs = json.readValue("verbs", HashMap.class, Verb.class, jsonData);
+		dispatchDirty = true;
 	}
 
 
@@ -17,6 +17,7 @@ package org.bladecoder.bladeengine.model;
 
 import java.io.IOException;
 import java.io.Writer;
+import java.util.ArrayList;
 import java.util.HashMap;
 
 import javax.xml.parsers.ParserConfigurationException;
@@ -28,6 +29,7 @@ import org.bladecoder.bladeengine.assets.AssetConsumer;
 import org.bladecoder.bladeengine.assets.EngineAssetManager;
 import org.bladecoder.bladeengine.i18n.I18N;
 import org.bladecoder.bladeengine.loader.WorldXMLLoader;
+import org.bladecoder.bladeengine.util.ActionCallbackSerialization;
 import org.bladecoder.bladeengine.util.EngineLogger;
 import org.xml.sax.SAXException;
 
@@ -41,7 +43,16 @@ import com.badlogic.gdx.utils.JsonWriter.OutputType;
 
 public class World implements Serializable, AssetConsumer {
 
-	private static final String GAMESTATE_FILENAME = "gamestate.v6";
+	private static final String GAMESTATE_FILENAME = "gamestate.v7";
+
+	/** Default simulation step: 60 updates per second */
+	public static final float DEFAULT_TIME_STEP = 1 / 60f;
+
+	/**
+	 * Max. simulation steps per frame. After a longer hitch the remaining
+	 * time is dropped
+	 */
+	public static final int MAX_STEPS_PER_FRAME = 5;
 
 	public static enum AssetState {
 		LOADED, LOADING, LOADING_AND_INIT_SCENE, LOAD_ASSETS, LOAD_ASSETS_AND_INIT_SCENE
@@ -68,6 +79,15 @@ public class World implements Serializable, AssetConsumer {
 	/** keep track of the time of game */
 	private float timeOfGame;
 
+	/** Fixed simulation step. If 0, the frame delta is used */
+	transient private float timeStep = DEFAULT_TIME_STEP;
+
+	/** Frame time not simulated yet */
+	transient private float accumulator = 0;
+
+	/** Fraction of the next step elapsed, used to interpolate positions */
+	transient private float interpolationAlpha = 1;
+
 	/** for debug purposes, keep track of loading time */
 	private long initLoadingTime;
 
@@ -90,6 +110,12 @@ public class World implements Serializable, AssetConsumer {
 	
 	transient private SpriteBatch spriteBatch;
 
+	/** Loads the scenes that can be entered from the current scene */
+	transient private final ScenePrefetcher scenePrefetcher = new ScenePrefetcher();
+
+	/** Runs the game without GL. Nothing is drawn */
+	transient private boolean headless;
+
 	public static World getInstance() {
 
 		if (instance == null) {
@@ -103,7 +129,7 @@ public class World implements Serializable, AssetConsumer {
 		disposed = true;
 	}
 
-	private void init() {
+	void init() {
 		scenes = new HashMap<String, Scene>();
 		inventory = new Inventory();
 		textManager = new TextManager();
@@ -115,7 +141,8 @@ public class World implements Serializable, AssetConsumer {
 
 		customProperties = new HashMap<String, String>();
 		
-		spriteBatch = new SpriteBatch();
+		if (!headless)
+			spriteBatch = new SpriteBatch();
 
 		disposed = false;
 	}
@@ -136,12 +163,16 @@ public class World implements Serializable, AssetConsumer {
 	}
 
 	public void draw() {
-		if (assetState == AssetState.LOADED) {
+		if (assetState == AssetState.LOADED && !headless) {
 			
-			spriteBatch.setProjectionMatrix(currentScene.getCamera().combined);
+			SceneCamera camera = currentScene.getCamera();
+
+			camera.beginDraw(interpolationAlpha);
+			spriteBatch.setProjectionMatrix(camera.combined);
 			spriteBatch.begin();
 			getCurrentScene().draw(spriteBatch);
 			spriteBatch.end();
+			camera.endDraw();
 		}
 	}
 
@@ -158,7 +189,7 @@ public class World implements Serializable, AssetConsumer {
 			initLoadingTime = System.currentTimeMillis();
 
 		} else if ((assetState == AssetState.LOADING || assetState == AssetState.LOADING_AND_INIT_SCENE)
-				&& !EngineAssetManager.getInstance().isLoading()) {
+				&& !isLoadingAssets()) {
 			retrieveAssets();
 
 			boolean initScene = (assetState == AssetState.LOADING_AND_INIT_SCENE);
@@ -179,12 +210,90 @@ public class World implements Serializable, AssetConsumer {
 		if (paused || assetState != AssetState.LOADED)
 			return;
 
+		scenePrefetcher.update(this);
+
+		if (timeStep <= 0) {
+			step(delta);
+			interpolationAlpha = 1;
+			ActionCallbackQueue.run();
+			return;
+		}
+
+		accumulator += delta;
+
+		int steps = 0;
+
+		// Stops if a verb changes the scene. Its assets aren't loaded yet
+		while (accumulator >= timeStep && steps < MAX_STEPS_PER_FRAME
+				&& assetState == AssetState.LOADED) {
+			step(timeStep);
+			accumulator -= timeStep;
+			steps++;
+		}
+
+		if (accumulator >= timeStep)
+			accumulator = 0;
+
+		interpolationAlpha = accumulator / timeStep;
+
+		// Once per frame, the time budget of the queue is per frame
+		ActionCallbackQueue.run();
+	}
+
+	boolean isLoadingAssets() {
+		return EngineAssetManager.getInstance().isLoading();
+	}
+
+	/**
+	 * Advances the game simulation.
+	 */
+	private void step(float delta) {
 		timeOfGame += delta;
 
 		getCurrentScene().update(delta);
 		textManager.update(delta);
 		timers.update(delta);
-		ActionCallbackQueue.run();
+	}
+
+	public float getTimeStep() {
+		return timeStep;
+	}
+
+	/**
+	 * Sets the fixed simulation step. With 0, the game is updated once per
+	 * frame with the frame delta.
+	 */
+	public void setTimeStep(float timeStep) {
+		this.timeStep = timeStep;
+		accumulator = 0;
+	}
+
+	public ScenePrefetcher getScenePrefetcher() {
+		return scenePrefetcher;
+	}
+
+	public boolean isHeadless() {
+		return headless;
+	}
+
+	/**
+	 * Runs the game without GL. The scene is not drawn and the renderers do
+	 * not render in the update but the animations and callbacks advance as
+	 * usual. Must be set before loading the game.
+	 * 
+	 * To run faster than real time, call update() with the time step in a
+	 * loop.
+	 */
+	public void setHeadless(boolean headless) {
+		this.headless = headless;
+	}
+
+	/**
+	 * Returns the fraction of the next simulation step elapsed. Moving actors
+	 * are drawn between their previous and current positions.
+	 */
+	public float getInterpolationAlpha() {
+		return interpolationAlpha;
 	}
 
 	@Override
@@ -243,6 +352,7 @@ public class World implements Serializable, AssetConsumer {
 
 		long initTime = System.currentTimeMillis();
 		WorldXMLLoader.load("world.xml", this, chapterName);
+		ActionCallbackSerialization.index();
 		EngineLogger.debug("XML LOADING TIME (ms): "
 				+ (System.currentTimeMillis() - initTime));
 	}
@@ -274,6 +384,8 @@ public class World implements Serializable, AssetConsumer {
 
 	public void setCurrentScene(Scene scene) {
 
+		scenePrefetcher.enter(scene);
+
 		if (currentScene != null) {
 			textManager.reset();
 			timers.clear();
@@ -315,6 +427,10 @@ public class World implements Serializable, AssetConsumer {
 		return scenes.get(id);
 	}
 
+	public HashMap<String, Scene> getScenes() {
+		return scenes;
+	}
+
 	public void setCutMode(boolean v) {
 		cutMode = v;
 	}
@@ -365,14 +481,21 @@ public class World implements Serializable, AssetConsumer {
 
 		try {
 
+			scenePrefetcher.dispose();
+			VerbContext.clear();
+			ActionCallbackSerialization.clearIndex();
+
 			// ONLY dispose currentscene because other scenes are already
-			// disposed
+			// disposed or prefetched
 			currentScene.dispose();
 			currentScene = null;
 
 			inventory.dispose();
 			
-			spriteBatch.dispose();
+			if (spriteBatch != null) {
+				spriteBatch.dispose();
+				spriteBatch = null;
+			}
 			
 			Sprite3DRenderer.disposeBatchs();
 
@@ -514,6 +637,8 @@ public class World implements Serializable, AssetConsumer {
 		}
 		
 		json.writeValue("chapter", chapter);
+		json.writeValue("verbContexts", VerbContext.getRunning(),
+				ArrayList.class, VerbContext.class);
 	}
 
 	@SuppressWarnings("unchecked")
@@ -541,6 +666,10 @@ public class World implements Serializable, AssetConsumer {
 		instance.cutMode = json.readValue("cutmode", Boolean.class, jsonData);
 		VerbManager.defaultVerbs = json.readValue("defaultVerbs", HashMap.class,
 				Verb.class, jsonData);
+
+		// The callbacks of the timers and texts are restored with the index
+		ActionCallbackSerialization.index();
+
 		instance.timers = json.readValue("timers", Timers.class, jsonData);
 
 		instance.textManager = json.readValue("textmanager", TextManager.class,
@@ -560,5 +689,12 @@ public class World implements Serializable, AssetConsumer {
 		
 		instance.chapter = json.readValue("chapter", String.class, jsonData);
 		I18N.load(EngineAssetManager.MODEL_DIR + "world", EngineAssetManager.MODEL_DIR + instance.chapter);
+
+		// The verbs must be loaded to restore the running verbs
+		ArrayList<VerbContext> contexts = json.readValue("verbContexts",
+				ArrayList.class, VerbContext.class, jsonData);
+
+		if (contexts != null)
+			VerbContext.restore(contexts);
 	}
 }
@@ -0,0 +1,977 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.bladecoder.bladeengine.navmeshpathfinder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+
+import org.bladecoder.bladeengine.pathfinder.AStarPathFinder;
+import org.bladecoder.bladeengine.pathfinder.NavContext;
+import org.bladecoder.bladeengine.pathfinder.NavGraph;
+import org.bladecoder.bladeengine.pathfinder.PathFinder;
+import org.bladecoder.bladeengine.util.EngineLogger;
+import org.bladecoder.bladeengine.util.PolygonUtils;
+
+import com.badlogic.gdx.math.EarClippingTriangulator;
+import com.badlogic.gdx.math.Intersector;
+import com.badlogic.gdx.math.Polygon;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.ShortArray;
+
+/**
+ * Navigation mesh. The walkzone minus the obstacles is triangulated, the
+ * shortest corridor of triangles is searched with A* and the path is smoothed
+ * with the funnel algorithm.
+ *
+ * Overlapping obstacles are merged and obstacles crossing the walkzone border
+ * are cut from the walkzone. Only the common case where the borders cross
+ * twice is supported, other obstacles are ignored with an error.
+ *
+ * The triangles are indexed in a uniform grid to find the triangle of a point
+ * without testing all of them.
+ *
+ * @author rgarcia
+ */
+public class NavMesh implements NavGraph<NavNodeTriangle> {
+	private static final int MAX_SEARCH_DISTANCE = 1000;
+	private static final int MAX_CELLS_PER_SIDE = 64;
+
+	/**
+	 * Distance that the vertices of an obstacle in the walkzone border are
+	 * moved out, so the borders cross instead of touching.
+	 */
+	private static final float BORDER_MARGIN = 1f;
+
+	private final ArrayList<NavNodeTriangle> triangles = new ArrayList<NavNodeTriangle>();
+
+	/** Index of the triangles that overlap every cell. Null if not built */
+	private IntArray[] cells;
+	private int cols, rows;
+	private float gridX, gridY, cellWidth, cellHeight;
+
+	private final PathFinder pathfinder = new AStarPathFinder(this,
+			MAX_SEARCH_DISTANCE, new TriangleDistance());
+	private final NavPathNavMesh corridor = new NavPathNavMesh();
+
+	/** Portals between the corridor triangles: left x, y, right x, y */
+	private final FloatArray portals = new FloatArray();
+
+	private final Vector2 start = new Vector2();
+	private final Vector2 target = new Vector2();
+	private final Vector2 tmp = new Vector2();
+
+	public ArrayList<NavNodeTriangle> getTriangles() {
+		return triangles;
+	}
+
+	/**
+	 * Triangulates the walkzone with the obstacles as holes.
+	 */
+	public void build(Polygon walkZone, List<Polygon> obstacles) {
+		triangles.clear();
+
+		float outerVerts[] = walkZone.getTransformedVertices();
+		FloatArray outer = new FloatArray(outerVerts);
+
+		if (signedArea(outerVerts) < 0)
+			reverse(outer);
+
+		// Holes must be clockwise
+		ArrayList<float[]> holes = new ArrayList<float[]>();
+
+		for (float[] verts : mergeObstacles(obstacles)) {
+			float o[] = outer.toArray();
+
+			if (isInside(verts, o)) {
+				FloatArray hole = new FloatArray(verts);
+				reverse(hole);
+				holes.add(hole.toArray());
+			} else if (overlaps(verts, o)) {
+				float cut[] = splice(o, pushOut(verts, o), true);
+
+				if (cut == null) {
+					EngineLogger.error("NavMesh: Obstacle crossing the walkzone border more than twice ignored");
+				} else {
+					outer.clear();
+					outer.addAll(cut);
+
+					if (signedArea(cut) < 0)
+						reverse(outer);
+				}
+			}
+		}
+
+		// Holes with greater x first
+		Collections.sort(holes, new Comparator<float[]>() {
+			@Override
+			public int compare(float[] a, float[] b) {
+				return Float.compare(maxX(b), maxX(a));
+			}
+		});
+
+		for (int i = 0; i < holes.size(); i++) {
+			bridge(outer, holes.get(i), holes.subList(i + 1, holes.size()));
+		}
+
+		float merged[] = outer.toArray();
+		ShortArray indices = new EarClippingTriangulator()
+				.computeTriangles(merged);
+
+		// Triangles sharing an edge are adjacent. The vertices are compared by
+		// position because the bridges duplicate vertices.
+		HashMap<Long, Integer> vertexIds = new HashMap<Long, Integer>();
+		HashMap<Long, Integer> openEdges = new HashMap<Long, Integer>();
+		int ids[] = new int[3];
+
+		for (int i = 0; i < indices.size; i += 3) {
+			int a = indices.get(i) * 2;
+			int b = indices.get(i + 1) * 2;
+			int c = indices.get(i + 2) * 2;
+
+			float area = (merged[b] - merged[a]) * (merged[c + 1] - merged[a + 1])
+					- (merged[b + 1] - merged[a + 1]) * (merged[c] - merged[a]);
+
+			if (area == 0)
+				continue;
+
+			if (area < 0) {
+				int tmpIndex = b;
+				b = c;
+				c = tmpIndex;
+			}
+
+			NavNodeTriangle t = new NavNodeTriangle(merged[a], merged[a + 1],
+					merged[b], merged[b + 1], merged[c], merged[c + 1]);
+
+			for (int k = 0; k < 3; k++)
+				ids[k] = vertexId(vertexIds, t.verts[k * 2], t.verts[k * 2 + 1]);
+
+			for (int k = 0; k < 3; k++) {
+				int v1 = ids[k];
+				int v2 = ids[(k + 1) % 3];
+
+				// The adjacent triangle has the edge in opposite direction
+				Integer e = openEdges.remove(((long) v2 << 32) | v1);
+
+				if (e != null) {
+					NavNodeTriangle t2 = triangles.get(e / 3);
+
+					t.adjacent[k] = t2;
+					t2.adjacent[e % 3] = t;
+					t.neighbors.add(t2);
+					t2.neighbors.add(t);
+				} else {
+					openEdges.put(((long) v1 << 32) | v2, triangles.size() * 3
+							+ k);
+				}
+			}
+
+			t.index = triangles.size();
+			triangles.add(t);
+		}
+
+		createGrid();
+	}
+
+	/**
+	 * Returns the obstacles in counterclockwise order with the overlapping
+	 * obstacles merged.
+	 */
+	private static ArrayList<float[]> mergeObstacles(List<Polygon> obstacles) {
+		ArrayList<float[]> merged = new ArrayList<float[]>();
+
+		for (Polygon o : obstacles) {
+			FloatArray verts = new FloatArray(o.getTransformedVertices());
+
+			if (signedArea(verts.items, verts.size) < 0)
+				reverse(verts);
+
+			addObstacle(merged, verts.toArray());
+		}
+
+		return merged;
+	}
+
+	private static void addObstacle(ArrayList<float[]> obstacles, float[] verts) {
+		for (int i = 0; i < obstacles.size(); i++) {
+			float o[] = obstacles.get(i);
+
+			if (!overlaps(verts, o))
+				continue;
+
+			float union[] = union(o, verts);
+
+			if (union == null) {
+				EngineLogger.error("NavMesh: Obstacle crossing other obstacle more than twice ignored");
+				return;
+			}
+
+			if (signedArea(union) < 0) {
+				FloatArray reversed = new FloatArray(union);
+				reverse(reversed);
+				union = reversed.toArray();
+			}
+
+			obstacles.remove(i);
+			addObstacle(obstacles, union);
+			return;
+		}
+
+		obstacles.add(verts);
+	}
+
+	private static float[] union(float[] a, float[] b) {
+		if (countCrossings(a, b) == 0)
+			return isInside(b, a) ? a : b;
+
+		return splice(a, b, false);
+	}
+
+	/**
+	 * Replaces the part of 'a' inside 'b' with the part of 'b' inside or
+	 * outside 'a'. Inside gives 'a' minus 'b' and outside gives the union.
+	 * 
+	 * @return null if the borders don't cross exactly twice
+	 */
+	private static float[] splice(float[] a, float[] b, boolean inside) {
+		FloatArray crossings = new FloatArray();
+
+		findCrossings(a, b, crossings);
+
+		if (crossings.size != 2 * CROSSING_SIZE)
+			return null;
+
+		// Sort by position in 'a'
+		if (crossings.get(0) > crossings.get(CROSSING_SIZE)
+				|| (crossings.get(0) == crossings.get(CROSSING_SIZE) && crossings
+						.get(1) > crossings.get(CROSSING_SIZE + 1))) {
+			for (int k = 0; k < CROSSING_SIZE; k++) {
+				float tmp = crossings.get(k);
+				crossings.set(k, crossings.get(CROSSING_SIZE + k));
+				crossings.set(CROSSING_SIZE + k, tmp);
+			}
+		}
+
+		// 'a' goes into 'b' in one crossing and out of 'b' in the other
+		int in = 0, out = CROSSING_SIZE;
+		float mx = (crossings.get(3) + next(a, crossings, 0, 0)) / 2;
+		float my = (crossings.get(4) + next(a, crossings, 0, 1)) / 2;
+
+		if (!PolygonUtils.isPointInside(b, mx, my, false)) {
+			in = CROSSING_SIZE;
+			out = 0;
+		}
+
+		FloatArray result = new FloatArray(a.length + b.length + 4);
+
+		// The part of 'a' outside 'b', from the out crossing to the in
+		// crossing
+		addPoint(result, crossings.get(out + 3), crossings.get(out + 4));
+
+		int n = a.length / 2;
+		int ia = (int) crossings.get(out);
+		int count = ((int) crossings.get(in) - ia + n) % n;
+
+		if (count == 0 && crossings.get(in + 1) < crossings.get(out + 1))
+			count = n;
+
+		for (int k = 1; k <= count; k++) {
+			int v = ((ia + k) % n) * 2;
+			addPoint(result, a[v], a[v + 1]);
+		}
+
+		addPoint(result, crossings.get(in + 3), crossings.get(in + 4));
+
+		// The part of 'b' from the in crossing to the out crossing
+		FloatArray forward = arc(b, crossings, in, out, true);
+		FloatArray backward = arc(b, crossings, in, out, false);
+		FloatArray arc = forward;
+
+		float ax = forward.size > 0 ? forward.get(0) : crossings.get(out + 3);
+		float ay = forward.size > 0 ? forward.get(1) : crossings.get(out + 4);
+		mx = (crossings.get(in + 3) + ax) / 2;
+		my = (crossings.get(in + 4) + ay) / 2;
+
+		if (PolygonUtils.isPointInside(a, mx, my, false) != inside)
+			arc = backward;
+
+		for (int k = 0; k < arc.size; k += 2)
+			addPoint(result, arc.get(k), arc.get(k + 1));
+
+		// The first point closes the polygon
+		if (result.get(result.size - 2) == result.get(0)
+				&& result.get(result.size - 1) == result.get(1))
+			result.size -= 2;
+
+		return result.toArray();
+	}
+
+	/** Crossing data: edge of 'a', position in the edge, edge of 'b', x, y */
+	private static final int CROSSING_SIZE = 5;
+
+	/**
+	 * Adds the points where the borders cross. Every edge includes its start
+	 * vertex and excludes its end vertex, so a crossing in a vertex is only
+	 * found once.
+	 */
+	private static void findCrossings(float[] a, float[] b, FloatArray out) {
+		for (int i = 0; i < a.length; i += 2) {
+			float ax = a[i], ay = a[i + 1];
+			float bx = a[(i + 2) % a.length], by = a[(i + 3) % a.length];
+
+			for (int j = 0; j < b.length; j += 2) {
+				float cx = b[j], cy = b[j + 1];
+				float dx = b[(j + 2) % b.length], dy = b[(j + 3) % b.length];
+
+				float den = (bx - ax) * (dy - cy) - (by - ay) * (dx - cx);
+
+				if (den == 0)
+					continue;
+
+				float r = ((ay - cy) * (dx - cx) - (ax - cx) * (dy - cy)) / den;
+				float t = ((ay - cy) * (bx - ax) - (ax - cx) * (by - ay)) / den;
+
+				if (r >= 0 && r < 1 && t >= 0 && t < 1) {
+					out.add(i / 2);
+					out.add(r);
+					out.add(j / 2);
+					out.add(ax + r * (bx - ax));
+					out.add(ay + r * (by - ay));
+				}
+			}
+		}
+	}
+
+	private static int countCrossings(float[] a, float[] b) {
+		FloatArray crossings = new FloatArray();
+		findCrossings(a, b, crossings);
+
+		return crossings.size / CROSSING_SIZE;
+	}
+
+	/**
+	 * Coordinate of the point after the crossing in 'a': the next vertex or
+	 * the other crossing if it is in the same edge.
+	 */
+	private static float next(float[] a, FloatArray crossings, int c,
+			int coord) {
+		int other = c == 0 ? CROSSING_SIZE : 0;
+
+		if (crossings.get(other) == crossings.get(c)
+				&& crossings.get(other + 1) > crossings.get(c + 1))
+			return crossings.get(other + 3 + coord);
+
+		int v = (((int) crossings.get(c) + 1) % (a.length / 2)) * 2;
+
+		return a[v + coord];
+	}
+
+	/**
+	 * Vertices of 'b' between the 'from' and 'to' crossings, walking 'b'
+	 * forward or backward.
+	 */
+	private static FloatArray arc(float[] b, FloatArray crossings, int from,
+			int to, boolean forward) {
+		FloatArray arc = new FloatArray();
+		int n = b.length / 2;
+		int start = (int) crossings.get(from + 2);
+		int end = (int) crossings.get(to + 2);
+
+		if (forward) {
+			// vertices start + 1 .. end
+			int count = (end - start + n) % n;
+
+			if (count == 0 && isBefore(b, crossings, to, from))
+				count = n;
+
+			for (int k = 1; k <= count; k++) {
+				int v = ((start + k) % n) * 2;
+				arc.add(b[v]);
+				arc.add(b[v + 1]);
+			}
+		} else {
+			// vertices start .. end + 1
+			int count = (start - end + n) % n;
+
+			if (count == 0 && isBefore(b, crossings, from, to))
+				count = n;
+
+			for (int k = 0; k < count; k++) {
+				int v = ((start - k + n) % n) * 2;
+				arc.add(b[v]);
+				arc.add(b[v + 1]);
+			}
+		}
+
+		return arc;
+	}
+
+	/**
+	 * Checks if the crossing c1 is before c2 in the same edge of 'b'.
+	 */
+	private static boolean isBefore(float[] b, FloatArray crossings, int c1,
+			int c2) {
+		int v = (int) crossings.get(c1 + 2) * 2;
+
+		return Vector2.dst2(b[v], b[v + 1], crossings.get(c1 + 3),
+				crossings.get(c1 + 4)) < Vector2.dst2(b[v], b[v + 1],
+				crossings.get(c2 + 3), crossings.get(c2 + 4));
+	}
+
+	private static void addPoint(FloatArray verts, float x, float y) {
+		if (verts.size > 0 && verts.get(verts.size - 2) == x
+				&& verts.get(verts.size - 1) == y)
+			return;
+
+		verts.add(x);
+		verts.add(y);
+	}
+
+	/**
+	 * Returns a copy of the obstacle with the vertices that are not inside the
+	 * walkzone moved away from the obstacle center. An obstacle with an edge
+	 * over the walkzone border crosses it after the change.
+	 */
+	private static float[] pushOut(float[] obstacle, float[] walkZone) {
+		float verts[] = obstacle.clone();
+		float cx = 0, cy = 0;
+
+		for (int i = 0; i < verts.length; i += 2) {
+			cx += verts[i];
+			cy += verts[i + 1];
+		}
+
+		cx /= verts.length / 2;
+		cy /= verts.length / 2;
+
+		for (int i = 0; i < verts.length; i += 2) {
+			if (PolygonUtils.isPointInside(walkZone, verts[i], verts[i + 1],
+					false))
+				continue;
+
+			float dx = verts[i] - cx;
+			float dy = verts[i + 1] - cy;
+			float len = (float) Math.sqrt(dx * dx + dy * dy);
+
+			if (len > 0) {
+				verts[i] += dx / len * BORDER_MARGIN;
+				verts[i + 1] += dy / len * BORDER_MARGIN;
+			}
+		}
+
+		return verts;
+	}
+
+	/**
+	 * Checks if all the vertices of 'a' are inside 'b' and the borders don't
+	 * cross.
+	 */
+	private static boolean isInside(float[] a, float[] b) {
+		for (int i = 0; i < a.length; i += 2) {
+			if (!PolygonUtils.isPointInside(b, a[i], a[i + 1], false))
+				return false;
+		}
+
+		return countCrossings(a, b) == 0;
+	}
+
+	/**
+	 * Checks if the polygons have common area.
+	 */
+	private static boolean overlaps(float[] a, float[] b) {
+		if (countCrossings(a, b) > 0)
+			return true;
+
+		return PolygonUtils.isPointInside(b, a[0], a[1], false)
+				|| PolygonUtils.isPointInside(a, b[0], b[1], false);
+	}
+
+	/**
+	 * Indexes the triangles in a uniform grid. A triangle is added to every
+	 * cell that it overlaps.
+	 */
+	private void createGrid() {
+		if (triangles.isEmpty()) {
+			cells = null;
+			return;
+		}
+
+		float minX = Float.MAX_VALUE, minY = Float.MAX_VALUE;
+		float maxX = -Float.MAX_VALUE, maxY = -Float.MAX_VALUE;
+
+		for (NavNodeTriangle t : triangles) {
+			for (int k = 0; k < 6; k += 2) {
+				minX = Math.min(minX, t.verts[k]);
+				maxX = Math.max(maxX, t.verts[k]);
+				minY = Math.min(minY, t.verts[k + 1]);
+				maxY = Math.max(maxY, t.verts[k + 1]);
+			}
+		}
+
+		int side = Math.min(MAX_CELLS_PER_SIDE,
+				Math.max(1, (int) Math.sqrt(triangles.size())));
+
+		cols = side;
+		rows = side;
+		gridX = minX;
+		gridY = minY;
+		cellWidth = Math.max(1, (maxX - minX) / cols);
+		cellHeight = Math.max(1, (maxY - minY) / rows);
+		cells = new IntArray[cols * rows];
+
+		for (int r = 0; r < rows; r++) {
+			for (int c = 0; c < cols; c++)
+				cells[r * cols + c] = new IntArray(4);
+		}
+
+		for (NavNodeTriangle t : triangles) {
+			float v[] = t.verts;
+			int c0 = col(Math.min(v[0], Math.min(v[2], v[4])));
+			int c1 = col(Math.max(v[0], Math.max(v[2], v[4])));
+			int r0 = row(Math.min(v[1], Math.min(v[3], v[5])));
+			int r1 = row(Math.max(v[1], Math.max(v[3], v[5])));
+
+			for (int r = r0; r <= r1; r++) {
+				for (int c = c0; c <= c1; c++) {
+					if (overlapsCell(v, c, r))
+						cells[r * cols + c].add(t.index);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Separating axis test between the triangle and the cell. The bounds were
+	 * tested when selecting the cells, so only the edge normals are tested.
+	 */
+	private boolean overlapsCell(float[] v, int c, int r) {
+		float x0 = gridX + c * cellWidth, y0 = gridY + r * cellHeight;
+		float x1 = x0 + cellWidth, y1 = y0 + cellHeight;
+
+		for (int k = 0; k < 6; k += 2) {
+			float ax = v[k], ay = v[k + 1];
+			float bx = v[(k + 2) % 6], by = v[(k + 3) % 6];
+			float cx = v[(k + 4) % 6], cy = v[(k + 5) % 6];
+
+			// The third vertex side of the edge is inside
+			float side = cross(ax, ay, bx, by, cx, cy);
+
+			if (side == 0)
+				continue;
+
+			if (cross(ax, ay, bx, by, x0, y0) * side < 0
+					&& cross(ax, ay, bx, by, x1, y0) * side < 0
+					&& cross(ax, ay, bx, by, x0, y1) * side < 0
+					&& cross(ax, ay, bx, by, x1, y1) * side < 0)
+				return false;
+		}
+
+		return true;
+	}
+
+	private int col(float x) {
+		int c = (int) ((x - gridX) / cellWidth);
+
+		return c < 0 ? 0 : (c >= cols ? cols - 1 : c);
+	}
+
+	private int row(float y) {
+		int r = (int) ((y - gridY) / cellHeight);
+
+		return r < 0 ? 0 : (r >= rows ? rows - 1 : r);
+	}
+
+	/**
+	 * Finds the shortest path between two points.
+	 *
+	 * @return false if there is no path
+	 */
+	public boolean findPath(float sx, float sy, float tx, float ty,
+			ArrayList<Vector2> out) {
+		out.clear();
+
+		NavNodeTriangle startTriangle = locate(sx, sy, start);
+		NavNodeTriangle targetTriangle = locate(tx, ty, target);
+
+		if (startTriangle == null || targetTriangle == null)
+			return false;
+
+		if (startTriangle == targetTriangle) {
+			out.add(new Vector2(start));
+			out.add(new Vector2(target));
+			return true;
+		}
+
+		if (!pathfinder.findPath(null, startTriangle, targetTriangle, corridor))
+			return false;
+
+		Array<NavNodeTriangle> c = corridor.getCorridor();
+
+		portals.clear();
+		portals.addAll(start.x, start.y, start.x, start.y);
+
+		for (int i = 0; i < c.size - 1; i++) {
+			NavNodeTriangle t = c.get(i);
+			int k = t.getEdge(c.get(i + 1));
+
+			// Traveling out of a counterclockwise triangle, the end of the
+			// edge is at the left
+			portals.add(t.verts[(k * 2 + 2) % 6]);
+			portals.add(t.verts[(k * 2 + 3) % 6]);
+			portals.add(t.verts[k * 2]);
+			portals.add(t.verts[k * 2 + 1]);
+		}
+
+		portals.addAll(target.x, target.y, target.x, target.y);
+
+		stringPull(out);
+
+		return true;
+	}
+
+	/**
+	 * Simple Stupid Funnel Algorithm by Mikko Mononen.
+	 */
+	private void stringPull(ArrayList<Vector2> out) {
+		float p[] = portals.items;
+		int nPortals = portals.size / 4;
+
+		float apexX = p[0], apexY = p[1];
+		float leftX = p[0], leftY = p[1];
+		float rightX = p[2], rightY = p[3];
+		int apexIndex = 0, leftIndex = 0, rightIndex = 0;
+
+		out.add(new Vector2(apexX, apexY));
+
+		for (int i = 1; i < nPortals; i++) {
+			float lX = p[i * 4], lY = p[i * 4 + 1];
+			float rX = p[i * 4 + 2], rY = p[i * 4 + 3];
+
+			// Update right vertex
+			if (cross(apexX, apexY, rightX, rightY, rX, rY) >= 0) {
+				if ((apexX == rightX && apexY == rightY)
+						|| cross(apexX, apexY, leftX, leftY, rX, rY) < 0) {
+					// Tighten the funnel
+					rightX = rX;
+					rightY = rY;
+					rightIndex = i;
+				} else {
+					// Right over left, left is a new corner
+					apexX = leftX;
+					apexY = leftY;
+					apexIndex = leftIndex;
+					out.add(new Vector2(apexX, apexY));
+
+					rightX = leftX = apexX;
+					rightY = leftY = apexY;
+					rightIndex = leftIndex = apexIndex;
+					i = apexIndex;
+					continue;
+				}
+			}
+
+			// Update left vertex
+			if (cross(apexX, apexY, leftX, leftY, lX, lY) <= 0) {
+				if ((apexX == leftX && apexY == leftY)
+						|| cross(apexX, apexY, rightX, rightY, lX, lY) > 0) {
+					// Tighten the funnel
+					leftX = lX;
+					leftY = lY;
+					leftIndex = i;
+				} else {
+					// Left over right, right is a new corner
+					apexX = rightX;
+					apexY = rightY;
+					apexIndex = rightIndex;
+					out.add(new Vector2(apexX, apexY));
+
+					rightX = leftX = apexX;
+					rightY = leftY = apexY;
+					rightIndex = leftIndex = apexIndex;
+					i = apexIndex;
+					continue;
+				}
+			}
+		}
+
+		Vector2 last = out.get(out.size() - 1);
+
+		if (last.x != target.x || last.y != target.y)
+			out.add(new Vector2(target));
+	}
+
+	/**
+	 * Returns the triangle that contains the point. If the point is not in the
+	 * mesh, it is clamped to the nearest triangle.
+	 *
+	 * @param dest
+	 *            The point inside the returned triangle
+	 */
+	public NavNodeTriangle locate(float x, float y, Vector2 dest) {
+		dest.set(x, y);
+
+		if (cells == null)
+			return null;
+
+		int c0 = col(x);
+		int r0 = row(y);
+
+		// The first triangle in the list containing the point, the point can
+		// be in the shared edge of several triangles
+		NavNodeTriangle found = null;
+		IntArray cell = cells[r0 * cols + c0];
+
+		for (int k = 0; k < cell.size; k++) {
+			NavNodeTriangle t = triangles.get(cell.get(k));
+
+			if (t.contains(x, y) && (found == null || t.index < found.index))
+				found = t;
+		}
+
+		if (found != null)
+			return found;
+
+		// The nearest triangle. The cells are visited in rings around the
+		// point until the ring is farther than the nearest point found.
+		NavNodeTriangle nearest = null;
+		float minDist = Float.MAX_VALUE;
+		float cellSize = Math.min(cellWidth, cellHeight);
+
+		for (int d = 0; d < Math.max(cols, rows); d++) {
+			float ringDist = (d - 1) * cellSize;
+
+			if (d > 1 && ringDist * ringDist > minDist)
+				break;
+
+			for (int r = r0 - d; r <= r0 + d; r++) {
+				if (r < 0 || r >= rows)
+					continue;
+
+				// Only the first and last columns of the inner rows
+				int step = (r == r0 - d || r == r0 + d) ? 1 : Math.max(1, 2 * d);
+
+				for (int c = c0 - d; c <= c0 + d; c += step) {
+					if (c < 0 || c >= cols)
+						continue;
+
+					cell = cells[r * cols + c];
+
+					for (int k = 0; k < cell.size; k++) {
+						NavNodeTriangle t = triangles.get(cell.get(k));
+
+						for (int e = 0; e < 3; e++) {
+							Intersector.nearestSegmentPoint(t.verts[e * 2],
+									t.verts[e * 2 + 1],
+									t.verts[(e * 2 + 2) % 6],
+									t.verts[(e * 2 + 3) % 6], x, y, tmp);
+
+							float dist = tmp.dst2(x, y);
+
+							// Same result as testing the triangles in order
+							if (dist < minDist
+									|| (dist == minDist && t.index < nearest.index)) {
+								minDist = dist;
+								nearest = t;
+								dest.set(tmp);
+							}
+						}
+					}
+				}
+			}
+		}
+
+		// Move the clamped point a little to the center to be inside the
+		// triangle
+		if (nearest != null) {
+			dest.lerp(tmp.set(nearest.centerX, nearest.centerY), 0.01f);
+		}
+
+		return nearest;
+	}
+
+	@Override
+	public boolean blocked(NavContext<NavNodeTriangle> context,
+			NavNodeTriangle targetNode) {
+		return false;
+	}
+
+	@Override
+	public float getCost(NavContext<NavNodeTriangle> context,
+			NavNodeTriangle targetNode) {
+		NavNodeTriangle source = context.getSourceNode();
+
+		return Vector2.dst(source.centerX, source.centerY, targetNode.centerX,
+				targetNode.centerY);
+	}
+
+	/**
+	 * Connects the hole to the outer polygon with a bridge from the vertex of
+	 * the hole with greater x to the nearest visible vertex of the outer
+	 * polygon.
+	 */
+	private static void bridge(FloatArray outer, float[] hole,
+			List<float[]> otherHoles) {
+		int m = 0;
+
+		for (int i = 2; i < hole.length; i += 2) {
+			if (hole[i] > hole[m])
+				m = i;
+		}
+
+		final float mx = hole[m];
+		final float my = hole[m + 1];
+		final float o[] = outer.toArray();
+
+		Integer candidates[] = new Integer[o.length / 2];
+
+		for (int i = 0; i < candidates.length; i++)
+			candidates[i] = i * 2;
+
+		Arrays.sort(candidates, new Comparator<Integer>() {
+			@Override
+			public int compare(Integer a, Integer b) {
+				return Float.compare(Vector2.dst2(mx, my, o[a], o[a + 1]),
+						Vector2.dst2(mx, my, o[b], o[b + 1]));
+			}
+		});
+
+		int v = -1;
+
+		for (int c : candidates) {
+			if (isBridgeVisible(mx, my, o[c], o[c + 1], o, hole, otherHoles)) {
+				v = c;
+				break;
+			}
+		}
+
+		if (v == -1)
+			return;
+
+		// outer[0..v] + hole[m..m] + outer[v..]
+		FloatArray merged = new FloatArray(o.length + hole.length + 4);
+		merged.addAll(o, 0, v + 2);
+
+		for (int i = 0; i <= hole.length; i += 2) {
+			int j = (m + i) % hole.length;
+			merged.add(hole[j]);
+			merged.add(hole[j + 1]);
+		}
+
+		merged.addAll(o, v, o.length - v);
+
+		outer.clear();
+		outer.addAll(merged);
+	}
+
+	private static boolean isBridgeVisible(float x1, float y1, float x2,
+			float y2, float[] outer, float[] hole, List<float[]> otherHoles) {
+		if (x1 == x2 && y1 == y2)
+			return false;
+
+		if (crosses(x1, y1, x2, y2, outer) || crosses(x1, y1, x2, y2, hole))
+			return false;
+
+		for (float[] h : otherHoles) {
+			if (crosses(x1, y1, x2, y2, h))
+				return false;
+		}
+
+		// The bridge must go through the walkable area
+		float midX = (x1 + x2) / 2;
+		float midY = (y1 + y2) / 2;
+
+		return PolygonUtils.isPointInside(new Polygon(outer), midX, midY,
+				false)
+				&& !PolygonUtils.isPointInside(new Polygon(hole), midX, midY,
+						true);
+	}
+
+	private static boolean crosses(float x1, float y1, float x2, float y2,
+			float[] verts) {
+		for (int i = 0; i < verts.length; i += 2) {
+			if (PolygonUtils.lineSegmentsCross(x1, y1, x2, y2, verts[i],
+					verts[i + 1], verts[(i + 2) % verts.length],
+					verts[(i + 3) % verts.length]))
+				return true;
+		}
+
+		return false;
+	}
+
+	/** > 0 if (cx, cy) is at the left of the line from a to b */
+	private static float cross(float ax, float ay, float bx, float by,
+			float cx, float cy) {
+		return (bx - ax) * (cy - ay) - (by - ay) * (cx - ax);
+	}
+
+	private static float signedArea(float[] verts) {
+		return signedArea(verts, verts.length);
+	}
+
+	private static float signedArea(float[] verts, int length) {
+		float area = 0;
+
+		for (int i = 0; i < length; i += 2) {
+			area += verts[i] * verts[(i + 3) % length]
+					- verts[(i + 2) % length] * verts[i + 1];
+		}
+
+		return area / 2;
+	}
+
+	private static void reverse(FloatArray verts) {
+		int n = verts.size / 2;
+
+		for (int i = 0; i < n / 2; i++) {
+			int j = n - 1 - i;
+			float x = verts.get(i * 2);
+			float y = verts.get(i * 2 + 1);
+			verts.set(i * 2, verts.get(j * 2));
+			verts.set(i * 2 + 1, verts.get(j * 2 + 1));
+			verts.set(j * 2, x);
+			verts.set(j * 2 + 1, y);
+		}
+	}
+
+	private static float maxX(float[] verts) {
+		float max = -Float.MAX_VALUE;
+
+		for (int i = 0; i < verts.length; i += 2)
+			max = Math.max(max, verts[i]);
+
+		return max;
+	}
+
+	private static int vertexId(HashMap<Long, Integer> ids, float x, float y) {
+		Long key = ((long) Float.floatToIntBits(x) << 32)
+				| (Float.floatToIntBits(y) & 0xffffffffL);
+		Integer id = ids.get(key);
+
+		if (id == null) {
+			id = ids.size();
+			ids.put(key, id);
+		}
+
+		return id;
+	}
+}
@@ -0,0 +1,135 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.bladecoder.bladeengine.navmeshpathfinder;
+
+import java.util.ArrayList;
+
+import org.bladecoder.bladeengine.polygonalpathfinder.PathListener;
+import org.bladecoder.bladeengine.polygonalpathfinder.PolygonalNavGraph;
+
+import com.badlogic.gdx.math.Polygon;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.FloatArray;
+
+/**
+ * Walkzone and obstacles pathfinder that uses a navigation mesh instead of the
+ * visibility graph. Recommended for big scenes with lots of obstacle vertices.
+ * 
+ * Dinamic obstacles are supported but every change forces the mesh to be
+ * triangulated again in the next path search.
+ * 
+ * @author rgarcia
+ */
+public class NavMeshNavGraph extends PolygonalNavGraph {
+	private final NavMesh navMesh = new NavMesh();
+	private final ArrayList<Polygon> dinamicObstacles = new ArrayList<Polygon>();
+	private final ArrayList<Polygon> allObstacles = new ArrayList<Polygon>();
+
+	private boolean dirty = true;
+
+	public NavMesh getNavMesh() {
+		return navMesh;
+	}
+
+	/**
+	 * Returns a new list for every call.
+	 */
+	@Override
+	public ArrayList<Vector2> findPath(float sx, float sy, float tx, float ty) {
+		ArrayList<Vector2> path = new ArrayList<Vector2>();
+
+		if (dirty)
+			createInitialGraph();
+
+		navMesh.findPath(sx, sy, tx, ty, path);
+
+		return path;
+	}
+
+	@Override
+	public boolean findPath(float sx, float sy, float tx, float ty,
+			FloatArray out) {
+		out.clear();
+
+		for (Vector2 p : findPath(sx, sy, tx, ty)) {
+			out.add(p.x);
+			out.add(p.y);
+		}
+
+		return out.size > 0;
+	}
+
+	/**
+	 * The mesh is not thread safe, the paths are searched one by one.
+	 */
+	@Override
+	public ArrayList<ArrayList<Vector2>> findPaths(float[] points) {
+		ArrayList<ArrayList<Vector2>> paths = new ArrayList<ArrayList<Vector2>>(
+				points.length / 4);
+
+		for (int i = 0; i < points.length; i += 4)
+			paths.add(findPath(points[i], points[i + 1], points[i + 2],
+					points[i + 3]));
+
+		return paths;
+	}
+
+	/**
+	 * The mesh search is fast, so the path is searched in the calling thread
+	 * and only the delivery is deferred.
+	 */
+	@Override
+	public void findPathAsync(float sx, float sy, float tx, float ty,
+			PathListener listener) {
+		deliverPath(listener, findPath(sx, sy, tx, ty));
+	}
+
+	@Override
+	public void createInitialGraph() {
+		allObstacles.clear();
+		allObstacles.addAll(getObstacles());
+		allObstacles.addAll(dinamicObstacles);
+
+		navMesh.build(getWalkZone(), allObstacles);
+
+		dirty = false;
+	}
+
+	@Override
+	public void createInitialGraph(String id) {
+		createInitialGraph();
+	}
+
+	@Override
+	public void addDinamicObstacle(Polygon poly) {
+		if (!dinamicObstacles.contains(poly))
+			dinamicObstacles.add(poly);
+
+		dirty = true;
+	}
+
+	@Override
+	public void removeDinamicObstacle(Polygon poly) {
+		dinamicObstacles.remove(poly);
+		dirty = true;
+	}
+
+	@Override
+	public void updateDinamicObstacle(Polygon poly) {
+		if (dinamicObstacles.contains(poly))
+			dirty = true;
+	}
+}
@@ -0,0 +1,70 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.bladecoder.bladeengine.navmeshpathfinder;
+
+import org.bladecoder.bladeengine.pathfinder.NavNode;
+
+import com.badlogic.gdx.math.Intersector;
+
+/**
+ * A triangle of the navigation mesh.
+ * 
+ * @author rgarcia
+ */
+public class NavNodeTriangle extends NavNode {
+	/** Vertex coordinates in counterclockwise order: x0, y0, x1, y1, x2, y2 */
+	public final float[] verts = new float[6];
+
+	/** adjacent[k] is the triangle sharing the edge from vertex k to vertex k+1 */
+	public final NavNodeTriangle[] adjacent = new NavNodeTriangle[3];
+
+	public float centerX;
+	public float centerY;
+
+	/** Position in the triangle list of the mesh */
+	int index;
+
+	public NavNodeTriangle(float x0, float y0, float x1, float y1, float x2,
+			float y2) {
+		verts[0] = x0;
+		verts[1] = y0;
+		verts[2] = x1;
+		verts[3] = y1;
+		verts[4] = x2;
+		verts[5] = y2;
+
+		centerX = (x0 + x1 + x2) / 3;
+		centerY = (y0 + y1 + y2) / 3;
+	}
+
+	public boolean contains(float x, float y) {
+		return Intersector.isPointInTriangle(x, y, verts[0], verts[1],
+				verts[2], verts[3], verts[4], verts[5]);
+	}
+
+	/**
+	 * Returns the index of the edge shared with the triangle or -1 if they are
+	 * not adjacent.
+	 */
+	public int getEdge(NavNodeTriangle t) {
+		for (int k = 0; k < 3; k++) {
+			if (adjacent[k] == t)
+				return k;
+		}
+
+		return -1;
+	}
+}
@@ -0,0 +1,58 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.bladecoder.bladeengine.navmeshpathfinder;
+
+import org.bladecoder.bladeengine.pathfinder.NavPath;
+
+import com.badlogic.gdx.utils.Array;
+
+/**
+ * The corridor of triangles found between the start and the target triangles.
+ * 
+ * @author rgarcia
+ */
+public class NavPathNavMesh implements NavPath<NavNodeTriangle> {
+	private final Array<NavNodeTriangle> corridor = new Array<NavNodeTriangle>();
+
+	@Override
+	public void fill(NavNodeTriangle startNode, NavNodeTriangle targetNode) {
+		corridor.clear();
+
+		NavNodeTriangle current = targetNode;
+
+		while (current != startNode) {
+			corridor.add(current);
+			current = (NavNodeTriangle) current.parent;
+		}
+
+		corridor.add(startNode);
+		corridor.reverse();
+	}
+
+	@Override
+	public int getLength() {
+		return corridor.size;
+	}
+
+	@Override
+	public void clear() {
+		corridor.clear();
+	}
+
+	public Array<NavNodeTriangle> getCorridor() {
+		return corridor;
+	}
+}
@@ -0,0 +1,37 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.bladecoder.bladeengine.navmeshpathfinder;
+
+import org.bladecoder.bladeengine.pathfinder.AStarPathFinder.AStarHeuristicCalculator;
+import org.bladecoder.bladeengine.pathfinder.NavContext;
+
+import com.badlogic.gdx.math.Vector2;
+
+/**
+ * Heuristic calculator for a navigation mesh. Euclidean distance between the
+ * centers of the triangles.
+ * 
+ * @author rgarcia
+ */
+public class TriangleDistance implements
+		AStarHeuristicCalculator<NavNodeTriangle> {
+	@Override
+	public float getCost(NavContext<NavNodeTriangle> map, Object mover,
+			NavNodeTriangle startNode, NavNodeTriangle targetNode) {
+		return Vector2.dst(startNode.centerX, startNode.centerY,
+				targetNode.centerX, targetNode.centerY);
+	}
+}
@@ -82,7 +82,7 @@ public class AStarPathFinder implements NavContext, PathFinder {
 			for (NavNode neighborNode : currentData.node.neighbors) {
 				AStarAlgoData neighborData = getAlgoData(neighborNode);
 				if (!isBlocked(currentData.node, neighborNode)) {
-					sourceNodeInContext = startNode;
+					sourceNodeInContext = currentData.node;
 					float nextStepCost = currentCost + graph.getCost(this, neighborNode);
 					if (nextStepCost < neighborData.cost) {
 						if (neighborData.open) {
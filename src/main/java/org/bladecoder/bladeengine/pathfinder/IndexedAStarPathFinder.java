@@ -0,0 +1,241 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.bladecoder.bladeengine.pathfinder;
+
+import java.util.Arrays;
+
+import com.badlogic.gdx.utils.FloatArray;
+
+/** AStar path finder for IndexedNavGraphs. The search state is stored in arrays indexed by node id and the open list is a
+ * binary heap of ints, so no garbage is generated once the arrays have grown to the graph size.
+ * <p>
+ * Not thread safe. Use one instance for every thread.
+ * </p>
+ * @author rgarcia */
+public class IndexedAStarPathFinder {
+	private static final int NOT_OPEN = -1;
+	private static final int CLOSED = -2;
+
+	/** The maximum number of nodes expanded before giving up */
+	private int maxExpandedNodes;
+	/** The heuristic we're applying to determine which nodes to search first */
+	private IndexedHeuristic heuristic;
+	/** Nodes expanded in the last search */
+	private int expandedNodes;
+
+	/** Cost from the start node */
+	private float[] cost = new float[0];
+	/** Cost plus heuristic. The open list is ordered by this value */
+	private float[] total = new float[0];
+	private int[] parent = new int[0];
+	/** Position in the open list or NOT_OPEN/CLOSED */
+	private int[] heapIndex = new int[0];
+	/** Search that initialized the node data */
+	private int[] searchID = new int[0];
+	private int search;
+
+	private int[] heap = new int[0];
+	private int heapSize;
+
+	public IndexedAStarPathFinder (int maxExpandedNodes, IndexedHeuristic heuristic) {
+		this.maxExpandedNodes = maxExpandedNodes;
+		this.heuristic = heuristic;
+	}
+
+	public IndexedHeuristic getHeuristic () {
+		return heuristic;
+	}
+
+	public void setHeuristic (IndexedHeuristic heuristic) {
+		this.heuristic = heuristic;
+	}
+
+	public int getMaxExpandedNodes () {
+		return maxExpandedNodes;
+	}
+
+	/** Sets the search budget. When the budget is exhausted, the search stops and the best path found so far to the target, if
+	 * any, is returned. */
+	public void setMaxExpandedNodes (int maxExpandedNodes) {
+		this.maxExpandedNodes = maxExpandedNodes;
+	}
+
+	/** Returns the number of nodes expanded in the last search. */
+	public int getExpandedNodes () {
+		return expandedNodes;
+	}
+
+	/** Finds the path between the nodes.
+	 * 
+	 * @param out Filled with the x, y coordinates of the path nodes, from start to target. Cleared if no path is found.
+	 * @return True if a path was found. */
+	public boolean findPath (IndexedNavGraph graph, int startNode, int targetNode, FloatArray out) {
+		out.clear();
+
+		ensureCapacity(graph.getNodeCount());
+
+		search++;
+		if (search == 0) {
+			Arrays.fill(searchID, 0);
+			search = 1;
+		}
+
+		heapSize = 0;
+
+		initNode(startNode);
+		cost[startNode] = 0;
+		total[startNode] = heuristic.estimate(graph, startNode, targetNode);
+		push(startNode);
+
+		expandedNodes = 0;
+
+		while (expandedNodes < maxExpandedNodes && heapSize != 0) {
+			int node = pop();
+			heapIndex[node] = CLOSED;
+
+			if (node == targetNode) break;
+
+			expandedNodes++;
+
+			float nodeCost = cost[node];
+			int count = graph.getNeighborCount(node);
+
+			for (int i = 0; i < count; i++) {
+				int neighbor = graph.getNeighbor(node, i);
+				float nextStepCost = nodeCost + graph.getCost(node, i);
+
+				if (searchID[neighbor] != search) initNode(neighbor);
+
+				if (nextStepCost < cost[neighbor]) {
+					cost[neighbor] = nextStepCost;
+					total[neighbor] = nextStepCost + heuristic.estimate(graph, neighbor, targetNode);
+					parent[neighbor] = node;
+
+					if (heapIndex[neighbor] >= 0)
+						up(heapIndex[neighbor]);
+					else
+						push(neighbor);
+				}
+			}
+		}
+
+		if (searchID[targetNode] != search || (targetNode != startNode && parent[targetNode] < 0)) return false;
+
+		fill(graph, targetNode, out);
+
+		return true;
+	}
+
+	private void fill (IndexedNavGraph graph, int targetNode, FloatArray out) {
+		int count = 0;
+		for (int n = targetNode; n >= 0; n = parent[n])
+			count++;
+
+		float[] items = out.ensureCapacity(count * 2);
+		out.size = count * 2;
+
+		int i = out.size;
+		for (int n = targetNode; n >= 0; n = parent[n]) {
+			items[--i] = graph.getY(n);
+			items[--i] = graph.getX(n);
+		}
+	}
+
+	private void initNode (int node) {
+		searchID[node] = search;
+		cost[node] = Float.MAX_VALUE;
+		parent[node] = -1;
+		heapIndex[node] = NOT_OPEN;
+	}
+
+	private void ensureCapacity (int nodes) {
+		if (cost.length >= nodes) return;
+
+		int size = Math.max(nodes, (int)(cost.length * 1.75f));
+
+		cost = new float[size];
+		total = new float[size];
+		parent = new int[size];
+		heapIndex = new int[size];
+		searchID = new int[size];
+		heap = new int[size];
+		search = 0;
+	}
+
+	private void push (int node) {
+		heap[heapSize] = node;
+		heapIndex[node] = heapSize;
+		up(heapSize++);
+	}
+
+	private int pop () {
+		int removed = heap[0];
+
+		if (--heapSize > 0) {
+			heap[0] = heap[heapSize];
+			heapIndex[heap[0]] = 0;
+			down(0);
+		}
+
+		return removed;
+	}
+
+	private void up (int index) {
+		int node = heap[index];
+		float value = total[node];
+
+		while (index > 0) {
+			int parentIndex = (index - 1) >> 1;
+			int parentNode = heap[parentIndex];
+
+			if (value >= total[parentNode]) break;
+
+			heap[index] = parentNode;
+			heapIndex[parentNode] = index;
+			index = parentIndex;
+		}
+
+		heap[index] = node;
+		heapIndex[node] = index;
+	}
+
+	private void down (int index) {
+		int node = heap[index];
+		float value = total[node];
+
+		while (true) {
+			int left = (index << 1) + 1;
+			if (left >= heapSize) break;
+
+			int right = left + 1;
+			int child = right < heapSize && total[heap[right]] < total[heap[left]] ? right : left;
+
+			if (total[heap[child]] >= value) break;
+
+			heap[index] = heap[child];
+			heapIndex[heap[index]] = index;
+			index = child;
+		}
+
+		heap[index] = node;
+		heapIndex[node] = index;
+	}
+
+	/** Estimates the cost from a node to the target node. */
+	public interface IndexedHeuristic {
+		public float estimate (IndexedNavGraph graph, int node, int targetNode);
+	}
+}
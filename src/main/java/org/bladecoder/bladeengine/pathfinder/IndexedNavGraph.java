@@ -0,0 +1,34 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.bladecoder.bladeengine.pathfinder;
+
+/** A graph whose nodes are identified by consecutive int ids, from 0 to getNodeCount() - 1. Used by the
+ * IndexedAStarPathFinder. */
+public interface IndexedNavGraph {
+	public int getNodeCount ();
+
+	public int getNeighborCount (int node);
+
+	/** Returns the id of the neighbor number 'index' of the node. */
+	public int getNeighbor (int node, int index);
+
+	/** Get the cost of moving from the node to its neighbor number 'index'. */
+	public float getCost (int node, int index);
+
+	public float getX (int node);
+
+	public float getY (int node);
+}
@@ -0,0 +1,160 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.bladecoder.bladeengine.polygonalpathfinder;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.bladecoder.bladeengine.pathfinder.IndexedNavGraph;
+
+/**
+ * Shortest distance and next hop between every pair of nodes of a graph,
+ * calculated with Floyd-Warshall. With the table, a path between 2 nodes is
+ * obtained following the next hops without any search.
+ * 
+ * The table uses 6 bytes per pair of nodes, so it is only suitable for small
+ * graphs.
+ * 
+ * @author rgarcia
+ */
+public class AllPairsTable {
+	private static final int BYTES_PER_PAIR = 6;
+
+	private final int n;
+	private final float[] dist;
+
+	/** Next node in the path from i to j or -1 if there is no path */
+	private final short[] next;
+
+	private AllPairsTable(int n) {
+		this.n = n;
+		dist = new float[n * n];
+		next = new short[n * n];
+	}
+
+	/**
+	 * Memory used by the table for a graph with the given number of nodes.
+	 */
+	public static long getMemorySize(int nodes) {
+		return (long) nodes * nodes * BYTES_PER_PAIR;
+	}
+
+	public static AllPairsTable build(IndexedNavGraph graph) {
+		int n = graph.getNodeCount();
+
+		if (n > Short.MAX_VALUE)
+			throw new IllegalArgumentException("Too many nodes: " + n);
+
+		AllPairsTable t = new AllPairsTable(n);
+		float[] dist = t.dist;
+		short[] next = t.next;
+
+		Arrays.fill(dist, Float.MAX_VALUE);
+		Arrays.fill(next, (short) -1);
+
+		for (int i = 0; i < n; i++) {
+			dist[i * n + i] = 0;
+			next[i * n + i] = (short) i;
+
+			for (int k = 0; k < graph.getNeighborCount(i); k++) {
+				int j = graph.getNeighbor(i, k);
+				float c = graph.getCost(i, k);
+
+				if (c < dist[i * n + j]) {
+					dist[i * n + j] = c;
+					next[i * n + j] = (short) j;
+				}
+			}
+		}
+
+		for (int k = 0; k < n; k++) {
+			int kRow = k * n;
+
+			for (int i = 0; i < n; i++) {
+				int iRow = i * n;
+				float dik = dist[iRow + k];
+
+				if (dik == Float.MAX_VALUE)
+					continue;
+
+				for (int j = 0; j < n; j++) {
+					float d = dik + dist[kRow + j];
+
+					if (d < dist[iRow + j]) {
+						dist[iRow + j] = d;
+						next[iRow + j] = next[iRow + k];
+					}
+				}
+			}
+		}
+
+		return t;
+	}
+
+	public int getNodeCount() {
+		return n;
+	}
+
+	/**
+	 * Length of the shortest path between the nodes or Float.MAX_VALUE if
+	 * there is no path.
+	 */
+	public float getDistance(int from, int to) {
+		return dist[from * n + to];
+	}
+
+	/**
+	 * The node after 'from' in the shortest path to 'to', or -1 if there is no
+	 * path.
+	 */
+	public int getNextHop(int from, int to) {
+		return next[from * n + to];
+	}
+
+	public void write(DataOutputStream out) throws IOException {
+		out.writeInt(n);
+
+		for (int i = 0; i < dist.length; i++) {
+			out.writeFloat(dist[i]);
+			out.writeShort(next[i]);
+		}
+	}
+
+	/**
+	 * Reads a table written by write().
+	 * 
+	 * @return null if the table is not for a graph of 'nodes' nodes.
+	 */
+	public static AllPairsTable read(DataInputStream in, int nodes)
+			throws IOException {
+		if (in.readInt() != nodes)
+			return null;
+
+		AllPairsTable t = new AllPairsTable(nodes);
+
+		for (int i = 0; i < t.dist.length; i++) {
+			t.dist[i] = in.readFloat();
+			t.next[i] = in.readShort();
+
+			if (t.next[i] >= nodes)
+				return null;
+		}
+
+		return t;
+	}
+}
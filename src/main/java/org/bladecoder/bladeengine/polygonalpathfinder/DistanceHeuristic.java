@@ -0,0 +1,61 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.bladecoder.bladeengine.polygonalpathfinder;
+
+import org.bladecoder.bladeengine.pathfinder.IndexedAStarPathFinder.IndexedHeuristic;
+import org.bladecoder.bladeengine.pathfinder.IndexedNavGraph;
+
+/**
+ * Heuristics for the polygonal graph. The cost of an edge is its length.
+ * 
+ * EUCLIDEAN never overestimates the cost, so the shortest path is always
+ * found. OCTILE avoids the square root but can overestimate up to 8% and
+ * return slightly longer paths. MANHATTAN is the old heuristic, it can
+ * overestimate up to 41%.
+ * 
+ * @author rgarcia
+ */
+public enum DistanceHeuristic implements IndexedHeuristic {
+	EUCLIDEAN {
+		@Override
+		public float estimate(IndexedNavGraph graph, int node, int targetNode) {
+			float dx = graph.getX(targetNode) - graph.getX(node);
+			float dy = graph.getY(targetNode) - graph.getY(node);
+
+			return (float) Math.sqrt(dx * dx + dy * dy);
+		}
+	},
+
+	OCTILE {
+		@Override
+		public float estimate(IndexedNavGraph graph, int node, int targetNode) {
+			float dx = Math.abs(graph.getX(targetNode) - graph.getX(node));
+			float dy = Math.abs(graph.getY(targetNode) - graph.getY(node));
+
+			return Math.max(dx, dy) + SQRT2_MINUS_1 * Math.min(dx, dy);
+		}
+	},
+
+	MANHATTAN {
+		@Override
+		public float estimate(IndexedNavGraph graph, int node, int targetNode) {
+			return Math.abs(graph.getX(targetNode) - graph.getX(node))
+					+ Math.abs(graph.getY(targetNode) - graph.getY(node));
+		}
+	};
+
+	private static final float SQRT2_MINUS_1 = (float) (Math.sqrt(2) - 1);
+}
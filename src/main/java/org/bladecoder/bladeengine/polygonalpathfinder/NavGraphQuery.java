@@ -0,0 +1,285 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.bladecoder.bladeengine.polygonalpathfinder;
+
+import org.bladecoder.bladeengine.pathfinder.IndexedAStarPathFinder;
+import org.bladecoder.bladeengine.pathfinder.IndexedNavGraph;
+import org.bladecoder.bladeengine.util.EdgeGrid;
+
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.IntArray;
+
+/**
+ * A NavGraphSnapshot plus the start and target points of a path query. The
+ * start and target are added as 2 new nodes with ids getStartNode() and
+ * getTargetNode(), without modifying the snapshot.
+ * 
+ * Holds all the state needed by a search, so several threads can search the
+ * same snapshot using one NavGraphQuery for every thread.
+ * 
+ * @author rgarcia
+ */
+public class NavGraphQuery implements IndexedNavGraph {
+	private final IndexedAStarPathFinder pathfinder = new IndexedAStarPathFinder(
+			PolygonalNavGraph.DEFAULT_SEARCH_BUDGET, DistanceHeuristic.EUCLIDEAN);
+	private final EdgeGrid.Marks marks = new EdgeGrid.Marks();
+
+	private NavGraphSnapshot graph;
+
+	private float sx, sy, tx, ty;
+
+	/** Nodes in line of sight of the start point */
+	private final IntArray startNeighbors = new IntArray();
+	private final FloatArray startCosts = new FloatArray();
+
+	/** Nodes in line of sight of the target point */
+	private final IntArray targetNeighbors = new IntArray();
+	private boolean[] seesTarget = new boolean[0];
+	private float[] targetCosts = new float[0];
+
+	/**
+	 * Finds the path between the points. The start point must be inside the
+	 * walkzone and the target point must be already clamped to the walkzone.
+	 * 
+	 * @param out
+	 *            Filled with the x, y coordinates of the path points.
+	 * @return false if there is no path. In that case 'out' is empty.
+	 */
+	public boolean findPath(NavGraphSnapshot graph, float sx, float sy,
+			float tx, float ty, FloatArray out) {
+		out.clear();
+
+		// If both points are in line-of-sight, there’s no need for
+		// pathfinding, just walk there!
+		if (graph.inLineOfSight(sx, sy, tx, ty, marks)) {
+			out.add(sx);
+			out.add(sy);
+			out.add(tx);
+			out.add(ty);
+
+			return true;
+		}
+
+		// Otherwise, connect the start and end points to every node that they
+		// can see on the graph.
+		begin(graph, sx, sy, tx, ty);
+
+		for (int i = 0; i < graph.getNodeCount(); i++) {
+			float x = graph.getX(i);
+			float y = graph.getY(i);
+
+			if (graph.inLineOfSight(sx, sy, x, y, marks))
+				addStartNeighbor(i);
+
+			if (graph.inLineOfSight(tx, ty, x, y, marks))
+				addTargetNeighbor(i);
+		}
+
+		if (graph.getAllPairs() != null)
+			return findPath(graph.getAllPairs(), out);
+
+		pathfinder.setHeuristic(graph.getHeuristic());
+		pathfinder.setMaxExpandedNodes(graph.getSearchBudget());
+
+		return pathfinder.findPath(this, getStartNode(), getTargetNode(), out);
+	}
+
+	/**
+	 * Finds the path using the all pairs table. Selects the pair of nodes
+	 * visible from the start and target points with the shortest total
+	 * distance and follows the next hops between them. Nodes added after
+	 * creating the table are not used.
+	 */
+	private boolean findPath(AllPairsTable table, FloatArray out) {
+		int n = table.getNodeCount();
+		float best = Float.MAX_VALUE;
+		int first = -1;
+		int last = -1;
+
+		for (int i = 0; i < startNeighbors.size; i++) {
+			int s = startNeighbors.get(i);
+			float startCost = startCosts.get(i);
+
+			if (s >= n)
+				continue;
+
+			for (int j = 0; j < targetNeighbors.size; j++) {
+				int t = targetNeighbors.get(j);
+
+				if (t >= n)
+					continue;
+
+				float d = table.getDistance(s, t);
+
+				if (d == Float.MAX_VALUE)
+					continue;
+
+				d += startCost + targetCosts[t];
+
+				if (d < best) {
+					best = d;
+					first = s;
+					last = t;
+				}
+			}
+		}
+
+		if (first == -1)
+			return false;
+
+		out.add(sx);
+		out.add(sy);
+
+		for (int node = first; node != last; node = table.getNextHop(node,
+				last)) {
+			out.add(graph.getX(node));
+			out.add(graph.getY(node));
+		}
+
+		out.add(graph.getX(last));
+		out.add(graph.getY(last));
+		out.add(tx);
+		out.add(ty);
+
+		return true;
+	}
+
+	/**
+	 * Number of nodes expanded by the last search.
+	 */
+	public int getExpandedNodes() {
+		return pathfinder.getExpandedNodes();
+	}
+
+	/**
+	 * Starts a new query. The start and target nodes have no neighbors until
+	 * added with addStartNeighbor() and addTargetNeighbor().
+	 */
+	private void begin(NavGraphSnapshot graph, float sx, float sy, float tx,
+			float ty) {
+		for (int i = 0; i < targetNeighbors.size; i++)
+			seesTarget[targetNeighbors.get(i)] = false;
+
+		startNeighbors.clear();
+		startCosts.clear();
+		targetNeighbors.clear();
+
+		if (seesTarget.length < graph.getNodeCount()) {
+			int size = Math.max(graph.getNodeCount(), seesTarget.length * 2);
+			seesTarget = new boolean[size];
+			targetCosts = new float[size];
+		}
+
+		this.graph = graph;
+		this.sx = sx;
+		this.sy = sy;
+		this.tx = tx;
+		this.ty = ty;
+	}
+
+	private void addStartNeighbor(int node) {
+		startNeighbors.add(node);
+		startCosts.add(NavGraphSnapshot.distance(sx, sy, graph.getX(node),
+				graph.getY(node)));
+	}
+
+	private void addTargetNeighbor(int node) {
+		if (!seesTarget[node]) {
+			seesTarget[node] = true;
+			targetCosts[node] = NavGraphSnapshot.distance(graph.getX(node),
+					graph.getY(node), tx, ty);
+			targetNeighbors.add(node);
+		}
+	}
+
+	public int getStartNode() {
+		return graph.getNodeCount();
+	}
+
+	public int getTargetNode() {
+		return graph.getNodeCount() + 1;
+	}
+
+	@Override
+	public int getNodeCount() {
+		return graph.getNodeCount() + 2;
+	}
+
+	@Override
+	public int getNeighborCount(int node) {
+		int n = graph.getNodeCount();
+
+		if (node == n)
+			return startNeighbors.size;
+
+		if (node == n + 1)
+			return 0;
+
+		return graph.getNeighborCount(node) + (seesTarget[node] ? 1 : 0);
+	}
+
+	@Override
+	public int getNeighbor(int node, int index) {
+		int n = graph.getNodeCount();
+
+		if (node == n)
+			return startNeighbors.get(index);
+
+		if (index == graph.getNeighborCount(node))
+			return n + 1;
+
+		return graph.getNeighbor(node, index);
+	}
+
+	@Override
+	public float getCost(int node, int index) {
+		int n = graph.getNodeCount();
+
+		if (node == n)
+			return startCosts.get(index);
+
+		if (index == graph.getNeighborCount(node))
+			return targetCosts[node];
+
+		return graph.getCost(node, index);
+	}
+
+	@Override
+	public float getX(int node) {
+		int n = graph.getNodeCount();
+
+		if (node == n)
+			return sx;
+
+		if (node == n + 1)
+			return tx;
+
+		return graph.getX(node);
+	}
+
+	@Override
+	public float getY(int node) {
+		int n = graph.getNodeCount();
+
+		if (node == n)
+			return sy;
+
+		if (node == n + 1)
+			return ty;
+
+		return graph.getY(node);
+	}
+}
@@ -0,0 +1,397 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.bladecoder.bladeengine.polygonalpathfinder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.bladecoder.bladeengine.pathfinder.IndexedNavGraph;
+import org.bladecoder.bladeengine.pathfinder.NavNode;
+import org.bladecoder.bladeengine.util.EdgeGrid;
+import org.bladecoder.bladeengine.util.PointLocator;
+import org.bladecoder.bladeengine.util.PolygonUtils;
+
+import com.badlogic.gdx.math.Polygon;
+import com.badlogic.gdx.utils.IntArray;
+
+/**
+ * Compact copy of the nodes and edges of a PolygonalNavGraph. Node positions
+ * and adjacency lists are stored in arrays indexed by node id. The snapshot
+ * also has a copy of the walkzone and obstacles to check the line of sight of
+ * the start and target points of a query.
+ * 
+ * When a dinamic obstacle changes, the snapshot is patched: only the rows of
+ * the touched nodes are rewritten. Every row has some free room and a row
+ * that doesn't fit is moved to the end of the arrays. A snapshot in use by
+ * other thread must not be patched, copy it first.
+ * 
+ * @author rgarcia
+ */
+public class NavGraphSnapshot implements IndexedNavGraph {
+	/** Free room added to every row, to patch it without moving it */
+	private static final int ROW_SLACK = 2;
+
+	private int nodeCount;
+	private float[] x;
+	private float[] y;
+
+	/**
+	 * The neighbors of node i are in neighbors[rowStart[i]..rowStart[i] +
+	 * rowSize[i]). The row has room for rowCapacity[i] neighbors.
+	 */
+	private int[] rowStart;
+	private int[] rowSize;
+	private int[] rowCapacity;
+	private int[] neighbors;
+
+	/** Length of every edge, in the same order as neighbors */
+	private float[] lengths;
+
+	/** Used size of the neighbors array and unused entries below it */
+	private int used;
+	private int wasted;
+
+	/** Polygon vertices in world coordinates */
+	private final float[] walkZone;
+	private final float[][] obstacles;
+	private float[][] dinamicObstacles;
+
+	/** minX, minY, maxX, maxY of every obstacle */
+	private final float[] obstacleBounds;
+	private float[] dinamicBounds;
+
+	/** Edges of the walkzone and the static obstacles. Not modified */
+	private final EdgeGrid staticEdges;
+
+	/** Point location indexes built with the edge grid. Not modified */
+	private final PointLocator walkZoneLocator;
+	private final PointLocator[] obstacleLocators;
+
+	private final DistanceHeuristic heuristic;
+	private final int searchBudget;
+
+	/** Paths between all the nodes. Null if not available */
+	private AllPairsTable allPairs;
+
+	NavGraphSnapshot(ArrayList<NavNodePolygonal> nodes, Polygon walkZone,
+			ArrayList<Polygon> obstacles, ArrayList<Polygon> dinamicObstacles,
+			EdgeGrid staticEdges, PointLocator walkZoneLocator,
+			PointLocator[] obstacleLocators, DistanceHeuristic heuristic,
+			int searchBudget, AllPairsTable allPairs) {
+		this.walkZone = walkZone.getTransformedVertices().clone();
+		this.obstacles = new float[obstacles.size()][];
+		this.obstacleBounds = new float[obstacles.size() * 4];
+		this.staticEdges = staticEdges;
+		this.walkZoneLocator = walkZoneLocator;
+		this.obstacleLocators = obstacleLocators;
+		this.heuristic = heuristic;
+		this.searchBudget = searchBudget;
+		this.allPairs = allPairs;
+
+		copyPolygons(obstacles, this.obstacles, obstacleBounds);
+		setDinamicObstacles(dinamicObstacles);
+
+		int nNodes = nodes.size();
+		int nEdges = 0;
+
+		for (int i = 0; i < nNodes; i++) {
+			NavNodePolygonal n = nodes.get(i);
+			n.index = i;
+			nEdges += n.neighbors.size + ROW_SLACK;
+		}
+
+		x = new float[nNodes];
+		y = new float[nNodes];
+		rowStart = new int[nNodes];
+		rowSize = new int[nNodes];
+		rowCapacity = new int[nNodes];
+		neighbors = new int[nEdges];
+		lengths = new float[nEdges];
+
+		nodeCount = nNodes;
+
+		for (int i = 0; i < nNodes; i++)
+			setRow(i, nodes.get(i));
+	}
+
+	/**
+	 * Copy to patch a snapshot that is in use by other thread. The arrays not
+	 * modified by patch() are shared.
+	 */
+	NavGraphSnapshot(NavGraphSnapshot s) {
+		walkZone = s.walkZone;
+		obstacles = s.obstacles;
+		obstacleBounds = s.obstacleBounds;
+		dinamicObstacles = s.dinamicObstacles;
+		dinamicBounds = s.dinamicBounds;
+		staticEdges = s.staticEdges;
+		walkZoneLocator = s.walkZoneLocator;
+		obstacleLocators = s.obstacleLocators;
+		heuristic = s.heuristic;
+		searchBudget = s.searchBudget;
+		allPairs = s.allPairs;
+
+		nodeCount = s.nodeCount;
+		x = s.x.clone();
+		y = s.y.clone();
+		rowStart = s.rowStart.clone();
+		rowSize = s.rowSize.clone();
+		rowCapacity = s.rowCapacity.clone();
+		neighbors = s.neighbors.clone();
+		lengths = s.lengths.clone();
+		used = s.used;
+		wasted = s.wasted;
+	}
+
+	/**
+	 * Updates the snapshot after linking or unlinking dinamic obstacles. The
+	 * static nodes keep their ids and the dinamic nodes, at the end of the
+	 * list, are renumbered.
+	 * 
+	 * @param nStatic
+	 *            Number of static nodes at the start of the list
+	 * @param touched
+	 *            Ids of the static nodes whose neighbors changed. The static
+	 *            neighbors of the dinamic nodes are always rewritten.
+	 * @return false if the arrays are too fragmented. In that case a new
+	 *         snapshot must be created.
+	 */
+	boolean patch(ArrayList<NavNodePolygonal> nodes, int nStatic,
+			IntArray touched, ArrayList<Polygon> dinamicObstacles,
+			AllPairsTable allPairs) {
+		int nNodes = nodes.size();
+
+		this.allPairs = allPairs;
+		setDinamicObstacles(dinamicObstacles);
+
+		for (int i = nNodes; i < nodeCount; i++) {
+			wasted += rowCapacity[i];
+			rowCapacity[i] = 0;
+			rowSize[i] = 0;
+		}
+
+		if (nNodes > x.length) {
+			int size = Math.max(nNodes, x.length * 3 / 2);
+
+			x = Arrays.copyOf(x, size);
+			y = Arrays.copyOf(y, size);
+			rowStart = Arrays.copyOf(rowStart, size);
+			rowSize = Arrays.copyOf(rowSize, size);
+			rowCapacity = Arrays.copyOf(rowCapacity, size);
+		}
+
+		nodeCount = nNodes;
+
+		// The dinamic nodes are renumbered before writing any row
+		for (int i = nStatic; i < nNodes; i++)
+			nodes.get(i).index = i;
+
+		for (int i = nStatic; i < nNodes; i++) {
+			NavNodePolygonal n = nodes.get(i);
+
+			setRow(i, n);
+
+			for (NavNode n2 : n.neighbors) {
+				NavNodePolygonal p = (NavNodePolygonal) n2;
+
+				if (p.index < nStatic)
+					setRow(p.index, p);
+			}
+		}
+
+		for (int i = 0; i < touched.size; i++) {
+			int node = touched.get(i);
+			setRow(node, nodes.get(node));
+		}
+
+		return wasted <= used / 2;
+	}
+
+	/**
+	 * Writes the position and the neighbors of the node. The row is moved to
+	 * the end of the arrays if it doesn't fit.
+	 */
+	private void setRow(int i, NavNodePolygonal n) {
+		int size = n.neighbors.size;
+
+		if (size > rowCapacity[i]) {
+			int capacity = size + ROW_SLACK;
+
+			if (used + capacity > neighbors.length) {
+				int length = Math.max(used + capacity, neighbors.length * 3 / 2);
+
+				neighbors = Arrays.copyOf(neighbors, length);
+				lengths = Arrays.copyOf(lengths, length);
+			}
+
+			wasted += rowCapacity[i];
+			rowStart[i] = used;
+			rowCapacity[i] = capacity;
+			used += capacity;
+		}
+
+		x[i] = n.x;
+		y[i] = n.y;
+		rowSize[i] = size;
+
+		int e = rowStart[i];
+
+		for (NavNode n2 : n.neighbors) {
+			NavNodePolygonal p = (NavNodePolygonal) n2;
+
+			neighbors[e] = p.index;
+			lengths[e] = distance(n.x, n.y, p.x, p.y);
+			e++;
+		}
+	}
+
+	private void setDinamicObstacles(ArrayList<Polygon> polygons) {
+		dinamicObstacles = new float[polygons.size()][];
+		dinamicBounds = new float[polygons.size() * 4];
+
+		copyPolygons(polygons, dinamicObstacles, dinamicBounds);
+	}
+
+	private static void copyPolygons(ArrayList<Polygon> polygons,
+			float[][] verts, float[] bounds) {
+		for (int i = 0; i < polygons.size(); i++) {
+			verts[i] = polygons.get(i).getTransformedVertices().clone();
+
+			float minX = Float.MAX_VALUE, minY = Float.MAX_VALUE;
+			float maxX = -Float.MAX_VALUE, maxY = -Float.MAX_VALUE;
+
+			for (int j = 0; j < verts[i].length; j += 2) {
+				minX = Math.min(minX, verts[i][j]);
+				maxX = Math.max(maxX, verts[i][j]);
+				minY = Math.min(minY, verts[i][j + 1]);
+				maxY = Math.max(maxY, verts[i][j + 1]);
+			}
+
+			bounds[i * 4] = minX;
+			bounds[i * 4 + 1] = minY;
+			bounds[i * 4 + 2] = maxX;
+			bounds[i * 4 + 3] = maxY;
+		}
+	}
+
+	/**
+	 * Checks the line of sight against the walkzone and all the obstacles.
+	 * Gives the same result as PolygonalNavGraph.
+	 * 
+	 * @param marks
+	 *            Marks of the calling thread for the edge grid
+	 */
+	public boolean inLineOfSight(float p1X, float p1Y, float p2X, float p2Y,
+			EdgeGrid.Marks marks) {
+		float midX = (p1X + p2X) / 2;
+		float midY = (p1Y + p2Y) / 2;
+
+		if (staticEdges.isBuilt()) {
+			if (staticEdges.crosses(p1X, p1Y, p2X, p2Y, marks))
+				return false;
+
+			if (!walkZoneLocator.isPointInside(midX, midY, true))
+				return false;
+
+			for (int i = 0; i < obstacles.length; i++) {
+				if (inBounds(obstacleBounds, i, midX, midY)
+						&& obstacleLocators[i].isPointInside(midX, midY, false))
+					return false;
+			}
+		} else {
+			if (!PolygonUtils.inLineOfSight(p1X, p1Y, p2X, p2Y, walkZone,
+					false))
+				return false;
+
+			for (float[] o : obstacles) {
+				if (!PolygonUtils.inLineOfSight(p1X, p1Y, p2X, p2Y, o, true))
+					return false;
+			}
+		}
+
+		for (int i = 0; i < dinamicObstacles.length; i++) {
+			int b = i * 4;
+
+			if (Math.max(p1X, p2X) < dinamicBounds[b]
+					|| Math.min(p1X, p2X) > dinamicBounds[b + 2]
+					|| Math.max(p1Y, p2Y) < dinamicBounds[b + 1]
+					|| Math.min(p1Y, p2Y) > dinamicBounds[b + 3])
+				continue;
+
+			if (!PolygonUtils.inLineOfSight(p1X, p1Y, p2X, p2Y,
+					dinamicObstacles[i], true))
+				return false;
+		}
+
+		return true;
+	}
+
+	private static boolean inBounds(float[] bounds, int i, float x, float y) {
+		int b = i * 4;
+
+		return x >= bounds[b] && y >= bounds[b + 1] && x <= bounds[b + 2]
+				&& y <= bounds[b + 3];
+	}
+
+	public DistanceHeuristic getHeuristic() {
+		return heuristic;
+	}
+
+	public int getSearchBudget() {
+		return searchBudget;
+	}
+
+	public AllPairsTable getAllPairs() {
+		return allPairs;
+	}
+
+	@Override
+	public int getNodeCount() {
+		return nodeCount;
+	}
+
+	@Override
+	public int getNeighborCount(int node) {
+		return rowSize[node];
+	}
+
+	@Override
+	public int getNeighbor(int node, int index) {
+		return neighbors[rowStart[node] + index];
+	}
+
+	@Override
+	public float getCost(int node, int index) {
+		return lengths[rowStart[node] + index];
+	}
+
+	@Override
+	public float getX(int node) {
+		return x[node];
+	}
+
+	@Override
+	public float getY(int node) {
+		return y[node];
+	}
+
+	static float distance(float x1, float y1, float x2, float y2) {
+		float dx = x2 - x1;
+		float dy = y2 - y1;
+
+		return (float) Math.sqrt(dx * dx + dy * dy);
+	}
+}
@@ -26,6 +26,9 @@ import org.bladecoder.bladeengine.pathfinder.NavNode;
 public class NavNodePolygonal extends NavNode {
 	public float x;
 	public float y;
+
+	/** Node id in the last NavGraphSnapshot */
+	int index;
 	
 	public float getX() {
 		return x;
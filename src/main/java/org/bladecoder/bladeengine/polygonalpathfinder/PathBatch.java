@@ -0,0 +1,74 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.bladecoder.bladeengine.polygonalpathfinder;
+
+import java.util.concurrent.RecursiveAction;
+
+import com.badlogic.gdx.utils.FloatArray;
+
+/**
+ * Fork/join task that searches several paths in the same snapshot. The range
+ * of paths is split until every task has a few paths. Every thread uses its
+ * own NavGraphQuery and writes only the results of its paths.
+ * 
+ * @author rgarcia
+ */
+class PathBatch extends RecursiveAction {
+	private static final long serialVersionUID = 1L;
+
+	/** Max. number of paths searched by a task without splitting it */
+	private static final int THRESHOLD = 2;
+
+	private final NavGraphSnapshot graph;
+
+	/** sx, sy, tx, ty of every path */
+	private final float[] points;
+	private final FloatArray[] results;
+	private final int start;
+	private final int end;
+
+	PathBatch(NavGraphSnapshot graph, float[] points, FloatArray[] results,
+			int start, int end) {
+		this.graph = graph;
+		this.points = points;
+		this.results = results;
+		this.start = start;
+		this.end = end;
+	}
+
+	@Override
+	protected void compute() {
+		if (end - start <= THRESHOLD) {
+			NavGraphQuery query = PathWorker.getQuery();
+
+			for (int i = start; i < end; i++) {
+				if (results[i] == null)
+					continue;
+
+				int p = i * 4;
+				query.findPath(graph, points[p], points[p + 1], points[p + 2],
+						points[p + 3], results[i]);
+			}
+
+			return;
+		}
+
+		int middle = (start + end) >>> 1;
+
+		invokeAll(new PathBatch(graph, points, results, start, middle),
+				new PathBatch(graph, points, results, middle, end));
+	}
+}
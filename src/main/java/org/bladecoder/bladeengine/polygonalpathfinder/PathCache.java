@@ -0,0 +1,209 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.bladecoder.bladeengine.polygonalpathfinder;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.math.Vector2;
+
+/**
+ * LRU cache of path search results. The key is the start and target points
+ * quantized to QUANTUM pixels.
+ * 
+ * The cache stores and returns copies of the paths, so callers can modify the
+ * returned paths.
+ * 
+ * @author rgarcia
+ */
+public class PathCache {
+	public static final int DEFAULT_CAPACITY = 32;
+
+	/** Points closer than this distance share the cached path */
+	private static final float QUANTUM = 2f;
+
+	private final LinkedHashMap<Long, CachedPath> entries;
+	private int capacity;
+
+	private int hits;
+	private int misses;
+
+	public PathCache() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	public PathCache(int capacity) {
+		this.capacity = capacity;
+
+		entries = new LinkedHashMap<Long, CachedPath>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Long, CachedPath> eldest) {
+				return size() > PathCache.this.capacity;
+			}
+		};
+	}
+
+	/**
+	 * Returns a copy of the cached path or null if it is not cached. The first
+	 * point of the path is the start point and the last point is the target
+	 * point unless the target was clamped to the walkzone.
+	 */
+	public ArrayList<Vector2> get(float sx, float sy, float tx, float ty) {
+		if (capacity <= 0)
+			return null;
+
+		CachedPath e = entries.get(key(sx, sy, tx, ty));
+
+		if (e == null) {
+			misses++;
+			return null;
+		}
+
+		hits++;
+
+		ArrayList<Vector2> path = copy(e.path);
+
+		if (path.size() > 0) {
+			path.get(0).set(sx, sy);
+
+			if (e.targetReached && path.size() > 1)
+				path.get(path.size() - 1).set(tx, ty);
+		}
+
+		return path;
+	}
+
+	/**
+	 * Stores a copy of the path.
+	 */
+	public void put(float sx, float sy, float tx, float ty,
+			ArrayList<Vector2> path) {
+		if (capacity <= 0)
+			return;
+
+		CachedPath e = new CachedPath();
+		e.path = copy(path);
+		e.targetReached = path.size() > 0
+				&& path.get(path.size() - 1).epsilonEquals(tx, ty, 0);
+
+		e.minX = e.minY = Float.MAX_VALUE;
+		e.maxX = e.maxY = -Float.MAX_VALUE;
+
+		for (Vector2 v : path) {
+			e.minX = Math.min(e.minX, v.x);
+			e.minY = Math.min(e.minY, v.y);
+			e.maxX = Math.max(e.maxX, v.x);
+			e.maxY = Math.max(e.maxY, v.y);
+		}
+
+		entries.put(key(sx, sy, tx, ty), e);
+	}
+
+	/**
+	 * Removes all the cached paths. Must be called when the walkzone or the
+	 * obstacles change.
+	 */
+	public void clear() {
+		entries.clear();
+	}
+
+	/**
+	 * Removes the cached paths whose bounds intersect the rectangle and the
+	 * paths not found. Must be called with the old and the new bounds when a
+	 * dinamic obstacle changes.
+	 * 
+	 * The paths far from the rectangle are kept. They are still valid, but a
+	 * shorter path can be opened when the obstacle moves away.
+	 */
+	public void invalidate(Rectangle r) {
+		Iterator<CachedPath> it = entries.values().iterator();
+
+		while (it.hasNext()) {
+			CachedPath e = it.next();
+
+			if (e.path.isEmpty() || e.intersects(r))
+				it.remove();
+		}
+	}
+
+	public int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * Sets the max. number of cached paths. 0 disables the cache.
+	 */
+	public void setCapacity(int capacity) {
+		this.capacity = capacity;
+
+		if (capacity <= 0)
+			entries.clear();
+	}
+
+	public int getHits() {
+		return hits;
+	}
+
+	public int getMisses() {
+		return misses;
+	}
+
+	public void resetStats() {
+		hits = 0;
+		misses = 0;
+	}
+
+	public static ArrayList<Vector2> copy(ArrayList<Vector2> path) {
+		ArrayList<Vector2> c = new ArrayList<Vector2>(path.size());
+
+		for (Vector2 v : path)
+			c.add(new Vector2(v));
+
+		return c;
+	}
+
+	private static Long key(float sx, float sy, float tx, float ty) {
+		return (quantize(sx) << 48) | (quantize(sy) << 32)
+				| (quantize(tx) << 16) | quantize(ty);
+	}
+
+	private static long quantize(float v) {
+		return Math.round(v / QUANTUM) & 0xffffL;
+	}
+
+	private static class CachedPath {
+		ArrayList<Vector2> path;
+		boolean targetReached;
+
+		/** Bounds of the path points */
+		float minX, minY, maxX, maxY;
+
+		/**
+		 * The bounds are expanded by QUANTUM because the start and target
+		 * points of the returned paths can move.
+		 */
+		boolean intersects(Rectangle r) {
+			return minX - QUANTUM <= r.x + r.width && maxX + QUANTUM >= r.x
+					&& minY - QUANTUM <= r.y + r.height
+					&& maxY + QUANTUM >= r.y;
+		}
+	}
+}
@@ -0,0 +1,35 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.bladecoder.bladeengine.polygonalpathfinder;
+
+import java.util.ArrayList;
+
+import com.badlogic.gdx.math.Vector2;
+
+/**
+ * Receives the result of an asynchronous path query.
+ * 
+ * @author rgarcia
+ */
+public interface PathListener {
+	/**
+	 * Called in the game thread.
+	 * 
+	 * @param path
+	 *            The path, owned by the listener. Empty if there is no path.
+	 */
+	public void onPathFound(ArrayList<Vector2> path);
+}
@@ -0,0 +1,99 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.bladecoder.bladeengine.polygonalpathfinder;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import com.badlogic.gdx.utils.FloatArray;
+
+/**
+ * Background thread for the asynchronous path queries and fork/join pool for
+ * the batch queries. Every thread that searches paths gets its own
+ * NavGraphQuery.
+ * 
+ * @author rgarcia
+ */
+class PathWorker {
+	private static ExecutorService executor;
+	private static ForkJoinPool pool;
+
+	private static final ThreadLocal<NavGraphQuery> queries = new ThreadLocal<NavGraphQuery>() {
+		@Override
+		protected NavGraphQuery initialValue() {
+			return new NavGraphQuery();
+		}
+	};
+
+	private static final ThreadLocal<FloatArray> buffers = new ThreadLocal<FloatArray>() {
+		@Override
+		protected FloatArray initialValue() {
+			return new FloatArray();
+		}
+	};
+
+	/**
+	 * Runs the task in the background thread.
+	 */
+	static synchronized <T> Future<T> submit(Callable<T> task) {
+		if (executor == null) {
+			executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+				@Override
+				public Thread newThread(Runnable r) {
+					Thread t = new Thread(r, "PathWorker");
+					t.setDaemon(true);
+					return t;
+				}
+			});
+		}
+
+		return executor.submit(task);
+	}
+
+	/**
+	 * Runs the batch in the fork/join pool and waits until it finishes.
+	 */
+	static void invoke(PathBatch batch) {
+		ForkJoinPool p;
+
+		synchronized (PathWorker.class) {
+			if (pool == null)
+				pool = new ForkJoinPool();
+
+			p = pool;
+		}
+
+		p.invoke(batch);
+	}
+
+	/**
+	 * The query of the current thread.
+	 */
+	static NavGraphQuery getQuery() {
+		return queries.get();
+	}
+
+	/**
+	 * Path buffer of the current thread.
+	 */
+	static FloatArray getBuffer() {
+		return buffers.get();
+	}
+}
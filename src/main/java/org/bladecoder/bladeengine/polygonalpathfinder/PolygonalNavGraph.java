@@ -15,18 +15,38 @@
  ******************************************************************************/
 package org.bladecoder.bladeengine.polygonalpathfinder;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 import org.bladecoder.bladeengine.assets.EngineAssetManager;
-import org.bladecoder.bladeengine.pathfinder.AStarPathFinder;
+import org.bladecoder.bladeengine.actions.ActionCallback;
+import org.bladecoder.bladeengine.actions.ActionCallbackQueue;
 import org.bladecoder.bladeengine.pathfinder.NavContext;
 import org.bladecoder.bladeengine.pathfinder.NavGraph;
-import org.bladecoder.bladeengine.pathfinder.PathFinder;
+import org.bladecoder.bladeengine.pathfinder.NavNode;
+import org.bladecoder.bladeengine.util.EdgeGrid;
 import org.bladecoder.bladeengine.util.EngineLogger;
+import org.bladecoder.bladeengine.util.PointLocator;
 import org.bladecoder.bladeengine.util.PolygonUtils;
 
+import com.badlogic.gdx.files.FileHandle;
 import com.badlogic.gdx.math.Polygon;
+import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.IntArray;
 import com.badlogic.gdx.utils.Json;
 import com.badlogic.gdx.utils.Json.Serializable;
 import com.badlogic.gdx.utils.JsonValue;
@@ -38,68 +58,474 @@ import com.badlogic.gdx.utils.JsonValue;
  * @author rgarcia
  */
 public class PolygonalNavGraph implements NavGraph<NavNodePolygonal>, Serializable{
-	private static final Vector2 tmp = new Vector2();
-	private static final Vector2 tmp2 = new Vector2();
+	/** Extension of the precalculated graph files */
+	public static final String GRAPH_EXT = ".navgraph";
+
+	private static final int GRAPH_MAGIC = 0x424E4752; // 'BNGR'
+	private static final int GRAPH_VERSION = 2;
+
+	/** Max. number of nodes expanded by a path search */
+	public static final int DEFAULT_SEARCH_BUDGET = 1000;
+
+	/** Max. memory used by the all pairs table */
+	public static final int DEFAULT_ALL_PAIRS_BUDGET = 1024 * 1024;
 
 	private Polygon walkZone;
 	private ArrayList<Polygon> obstacles = new ArrayList<Polygon>();
-	private ArrayList<Polygon> dinamicObstacles = new ArrayList<Polygon>();
+	private ArrayList<DinamicObstacle> dinamicObstacles = new ArrayList<DinamicObstacle>();
+	private HashMap<Polygon, DinamicObstacle> dinamicObstaclesByPolygon = new HashMap<Polygon, DinamicObstacle>();
 
-	final private PathFinder pathfinder = new AStarPathFinder(this, 100,
-			new ManhattanDistance());
-	final private NavPathPolygonal resultPath = new NavPathPolygonal();
-	final private NavNodePolygonal startNode = new NavNodePolygonal();
-	final private NavNodePolygonal targetNode = new NavNodePolygonal();
+	private DistanceHeuristic heuristic = DistanceHeuristic.EUCLIDEAN;
+	private int searchBudget = DEFAULT_SEARCH_BUDGET;
+
+	/** Paths between all the static nodes. Only calculated if enabled */
+	private AllPairsTable allPairs;
+	private boolean allPairsEnabled = false;
+	private int allPairsBudget = DEFAULT_ALL_PAIRS_BUDGET;
+
+	/** Query used by the searchs in the game thread */
+	final private NavGraphQuery query = new NavGraphQuery();
+	final private FloatArray pathBuffer = new FloatArray();
+	final private Vector2 clampedTarget = new Vector2();
 	final private ArrayList<NavNodePolygonal> graphNodes = new ArrayList<NavNodePolygonal>();
+	
+	/**
+	 * Source vertex of every static node: (polygon index << 16) | vertex
+	 * index. Polygon index 0 is the walkzone and i + 1 is obstacle i.
+	 */
+	final private IntArray staticNodeRefs = new IntArray();
+	
+	/** Spatial index for the walkzone and obstacles edges */
+	private EdgeGrid staticEdges = new EdgeGrid();
+	final private ArrayList<Rectangle> obstacleBounds = new ArrayList<Rectangle>();
+
+	/**
+	 * Point location indexes for the walkzone and the static obstacles. Null
+	 * until the edge index is created
+	 */
+	private PointLocator walkZoneLocator;
+	private PointLocator[] obstacleLocators;
+
+	/**
+	 * Static graph edges indexed by position, so a dinamic obstacle only
+	 * visits the edges near it. The edge i joins the nodes staticGraphEdgeNodes[i * 2] and
+	 * staticGraphEdgeNodes[i * 2 + 1].
+	 */
+	private EdgeGrid staticGraphEdges = new EdgeGrid();
+	final private IntArray staticGraphEdgeNodes = new IntArray();
+	final private IntArray nearBuffer = new IntArray();
+
+	/**
+	 * Last paths found. Cleared when the walkzone or the static obstacles
+	 * change. A dinamic obstacle only removes the paths near it.
+	 */
+	final private PathCache pathCache = new PathCache();
+
+	/** Searchs in the background thread, in the order they were started */
+	final private ArrayList<PendingSearch> pendingSearches = new ArrayList<PendingSearch>();
 
+	/** Indexed copy of the graph used by the search. Null if outdated */
+	private NavGraphSnapshot snapshot;
+
+	/**
+	 * The snapshot must be patched because a dinamic obstacle changed. The
+	 * static nodes whose neighbors changed are in touchedNodes.
+	 */
+	private boolean snapshotPatch;
+	final private IntArray touchedNodes = new IntArray();
+	final private BitSet touchedMarks = new BitSet();
+
+	/** The snapshot is in use by a background search */
+	private boolean snapshotShared;
+
+	/**
+	 * Returns the path between the points. The returned list is a new copy
+	 * and can be modified by the caller.
+	 */
 	public ArrayList<Vector2> findPath(float sx, float sy, float tx, float ty) {
-		resultPath.clear();
+		ArrayList<Vector2> path = pathCache.get(sx, sy, tx, ty);
 
-		Vector2 source = new Vector2(sx, sy);
-		Vector2 target = new Vector2(tx, ty);
+		if (path != null)
+			return path;
 
-		// 1. First verify if both the start and target points of the path are
-		// inside the polygon. If the end point is outside the polygon clamp it
-		// back inside.
-		if (!PolygonUtils.isPointInside(walkZone, sx, sy, true)) {
-			EngineLogger.debug("PolygonalPathFinder: Source not in polygon!");
-			return resultPath.getPath();
+		path = searchPath(sx, sy, tx, ty);
+		pathCache.put(sx, sy, tx, ty, path);
+
+		return PathCache.copy(path);
+	}
+
+	private ArrayList<Vector2> searchPath(float sx, float sy, float tx,
+			float ty) {
+		findPath(sx, sy, tx, ty, pathBuffer);
+
+		return toList(pathBuffer);
+	}
+
+	private static ArrayList<Vector2> toList(FloatArray points) {
+		ArrayList<Vector2> path = new ArrayList<Vector2>(points.size / 2);
+
+		for (int i = 0; i < points.size; i += 2)
+			path.add(new Vector2(points.get(i), points.get(i + 1)));
+
+		return path;
+	}
+
+	/**
+	 * Finds the path between the points without creating garbage. The path is
+	 * not cached.
+	 * 
+	 * @param out
+	 *            Filled with the x, y coordinates of the path points.
+	 * @return false if there is no path. In that case 'out' is empty.
+	 */
+	public boolean findPath(float sx, float sy, float tx, float ty,
+			FloatArray out) {
+		out.clear();
+
+		if (!checkEndPoints(sx, sy, tx, ty))
+			return false;
+
+		return query.findPath(getSnapshot(), sx, sy, clampedTarget.x,
+				clampedTarget.y, out);
+	}
+
+	/**
+	 * Finds the path in a background thread. The search uses a snapshot of the
+	 * graph, so the graph can change while searching.
+	 * 
+	 * @param listener
+	 *            Called in the game thread with a new copy of the path, in the
+	 *            next joinSearches() or through the ActionCallbackQueue if the
+	 *            path is cached.
+	 */
+	public void findPathAsync(final float sx, final float sy, final float tx,
+			final float ty, final PathListener listener) {
+		ArrayList<Vector2> path = pathCache.get(sx, sy, tx, ty);
+
+		if (path == null && !checkEndPoints(sx, sy, tx, ty))
+			path = new ArrayList<Vector2>();
+
+		if (path != null) {
+			deliverPath(listener, path);
+			return;
 		}
 
-		if (!PolygonUtils.isPointInside(walkZone, tx, ty, true)) {
-			PolygonUtils.getClampedPointInside(walkZone, tx, ty, target);
+		final NavGraphSnapshot graph = getSnapshot();
+		snapshotShared = true;
+
+		final float ctx = clampedTarget.x;
+		final float cty = clampedTarget.y;
+
+		Future<ArrayList<Vector2>> result = PathWorker
+				.submit(new Callable<ArrayList<Vector2>>() {
+					@Override
+					public ArrayList<Vector2> call() {
+						FloatArray points = PathWorker.getBuffer();
+
+						PathWorker.getQuery().findPath(graph, sx, sy, ctx, cty,
+								points);
+
+						return toList(points);
+					}
+				});
+
+		pendingSearches.add(new PendingSearch(graph, sx, sy, tx, ty, listener,
+				result));
+	}
+
+	/**
+	 * Waits for the searchs started by findPathAsync() and calls their
+	 * listeners in the order they were started. Called in every simulation
+	 * step, so a path is delivered in the step after the search started
+	 * whatever the time the background thread takes. Replays and headless runs
+	 * are deterministic.
+	 */
+	public void joinSearches() {
+		if (pendingSearches.isEmpty())
+			return;
+
+		// The listeners can start new searchs
+		PendingSearch[] searches = pendingSearches
+				.toArray(new PendingSearch[pendingSearches.size()]);
+		pendingSearches.clear();
 
-			// if(!PolygonUtils.isPointInside(walkZone, tx, ty, true)) {
-			// EngineLogger.debug("PolygonalPathFinder: CLAMPED FAILED!!");
-			// return resultPath;
-			// }
+		for (PendingSearch search : searches) {
+			ArrayList<Vector2> path;
+
+			try {
+				path = search.result.get();
+
+				if (search.graph == snapshot)
+					pathCache.put(search.sx, search.sy, search.tx, search.ty,
+							path);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				path = new ArrayList<Vector2>();
+			} catch (ExecutionException e) {
+				EngineLogger.error("ERROR SEARCHING PATH", e);
+				path = new ArrayList<Vector2>();
+			}
+
+			search.listener.onPathFound(path);
+		}
+	}
+
+	/**
+	 * Search started by findPathAsync() and not delivered yet.
+	 */
+	private static class PendingSearch {
+		final NavGraphSnapshot graph;
+		final float sx, sy, tx, ty;
+		final PathListener listener;
+		final Future<ArrayList<Vector2>> result;
+
+		PendingSearch(NavGraphSnapshot graph, float sx, float sy, float tx,
+				float ty, PathListener listener,
+				Future<ArrayList<Vector2>> result) {
+			this.graph = graph;
+			this.sx = sx;
+			this.sy = sy;
+			this.tx = tx;
+			this.ty = ty;
+			this.listener = listener;
+			this.result = result;
+		}
+	}
+
+	/**
+	 * Finds several paths in parallel, using all the cores. All the paths are
+	 * searched in the same snapshot of the graph, so the result doesn't depend
+	 * on the order of the searchs.
+	 * 
+	 * @param points
+	 *            sx, sy, tx, ty of every path
+	 * @return New copies of the paths in the same order as the points. Empty
+	 *         if there is no path.
+	 */
+	public ArrayList<ArrayList<Vector2>> findPaths(float[] points) {
+		int n = points.length / 4;
+		ArrayList<ArrayList<Vector2>> paths = new ArrayList<ArrayList<Vector2>>(
+				n);
+		float[] clamped = new float[n * 4];
+		FloatArray[] results = new FloatArray[n];
+		boolean search = false;
+
+		for (int i = 0; i < n; i++) {
+			int p = i * 4;
+			ArrayList<Vector2> path = pathCache.get(points[p], points[p + 1],
+					points[p + 2], points[p + 3]);
+
+			if (path == null
+					&& checkEndPoints(points[p], points[p + 1], points[p + 2],
+							points[p + 3])) {
+				clamped[p] = points[p];
+				clamped[p + 1] = points[p + 1];
+				clamped[p + 2] = clampedTarget.x;
+				clamped[p + 3] = clampedTarget.y;
+				results[i] = new FloatArray();
+				search = true;
+			} else if (path == null) {
+				path = new ArrayList<Vector2>();
+			}
+
+			paths.add(path);
+		}
+
+		if (search)
+			PathWorker.invoke(new PathBatch(getSnapshot(), clamped, results, 0,
+					n));
+
+		for (int i = 0; i < n; i++) {
+			if (results[i] != null) {
+				int p = i * 4;
+				ArrayList<Vector2> path = toList(results[i]);
+
+				pathCache.put(points[p], points[p + 1], points[p + 2],
+						points[p + 3], path);
+				paths.set(i, path);
+			}
 		}
 
-		// 2. Then start by checking if both points are in line-of-sight. If
-		// they are, there’s no need for pathfinding, just walk there!
-		if (inLineOfSight(source.x, source.y, target.x, target.y)) {
-			EngineLogger.debug("PolygonalPathFinder: Direct path found");
+		return paths;
+	}
+
+	/**
+	 * Calls the listener from the ActionCallbackQueue.
+	 */
+	protected static void deliverPath(final PathListener listener,
+			final ArrayList<Vector2> path) {
+		ActionCallbackQueue.add(new ActionCallback() {
+			@Override
+			public void onEvent() {
+				listener.onPathFound(path);
+			}
+		});
+	}
+
+	/**
+	 * Verifies if both the start and target points of the path are inside the
+	 * polygon. If the end point is outside the polygon clamp it back inside.
+	 * The target point is stored in 'clampedTarget'.
+	 * 
+	 * @return false if the start point is not inside the walkzone
+	 */
+	private boolean checkEndPoints(float sx, float sy, float tx, float ty) {
+		if (!isInsideWalkZone(sx, sy, true)) {
+			EngineLogger.debug("PolygonalPathFinder: Source not in polygon!");
+			return false;
+		}
+
+		if (isInsideWalkZone(tx, ty, true))
+			clampedTarget.set(tx, ty);
+		else if (walkZoneLocator != null)
+			walkZoneLocator.getClampedPointInside(tx, ty, clampedTarget);
+		else
+			PolygonUtils.getClampedPointInside(walkZone, tx, ty, clampedTarget);
+
+		return true;
+	}
+
+	private boolean isInsideWalkZone(float x, float y, boolean toleranceOnOutside) {
+		if (walkZoneLocator != null)
+			return walkZoneLocator.isPointInside(x, y, toleranceOnOutside);
+
+		return PolygonUtils.isPointInside(walkZone, x, y, toleranceOnOutside);
+	}
 
-			resultPath.getPath().add(source);
-			resultPath.getPath().add(target);
+	/**
+	 * Returns the indexed copy of the current graph. The copy is recreated
+	 * after any change in the graph and patched when only the dinamic
+	 * obstacles change.
+	 */
+	public NavGraphSnapshot getSnapshot() {
+		if (snapshot != null && snapshotPatch) {
+			// Background searchs can be using the current snapshot
+			if (snapshotShared) {
+				snapshot = new NavGraphSnapshot(snapshot);
+				snapshotShared = false;
+			}
+
+			if (!snapshot.patch(graphNodes, staticNodeRefs.size, touchedNodes,
+					getDinamicPolygons(), isStaticGraphBlocked() ? null
+							: allPairs))
+				snapshot = null;
+		}
 
-			return resultPath.getPath();
+		if (snapshot == null) {
+			snapshot = new NavGraphSnapshot(graphNodes, walkZone, obstacles,
+					getDinamicPolygons(), staticEdges, walkZoneLocator,
+					obstacleLocators, heuristic, searchBudget,
+					isStaticGraphBlocked() ? null : allPairs);
+			snapshotShared = false;
 		}
 
-		// 3. Otherwise, add the start and end points of your path as new
-		// temporary nodes to the graph.
-		// AND Connect them to every other node that they can see on the graph.
-		addStartEndNodes(source.x, source.y, target.x, target.y);
+		snapshotPatch = false;
+		clearTouchedNodes();
+
+		return snapshot;
+	}
+
+	private ArrayList<Polygon> getDinamicPolygons() {
+		ArrayList<Polygon> dinamicPolygons = new ArrayList<Polygon>(
+				dinamicObstacles.size());
+
+		for (DinamicObstacle o : dinamicObstacles)
+			dinamicPolygons.add(o.polygon);
+
+		return dinamicPolygons;
+	}
+
+	/**
+	 * Must be called after any change in the graph.
+	 */
+	private void graphChanged() {
+		pathCache.clear();
+		snapshot = null;
+		snapshotPatch = false;
+		clearTouchedNodes();
+	}
+
+	/**
+	 * Must be called when a dinamic obstacle is linked or unlinked.
+	 * 
+	 * @param bounds
+	 *            The bounds of the obstacle when linked
+	 */
+	private void obstacleChanged(Rectangle bounds) {
+		pathCache.invalidate(bounds);
+		snapshotPatch = snapshot != null;
+	}
+
+	/**
+	 * Records that the neighbors of the node changed, to patch the snapshot.
+	 * Dinamic nodes are always patched.
+	 */
+	private void touch(NavNodePolygonal n) {
+		if (!snapshotPatch || n.index >= staticNodeRefs.size
+				|| graphNodes.get(n.index) != n || touchedMarks.get(n.index))
+			return;
+
+		touchedMarks.set(n.index);
+		touchedNodes.add(n.index);
+	}
 
-		// 5. Run your A* implementation on the graph to get your path. This
-		// path is guaranteed to be as direct as possible!
-		pathfinder.findPath(null, startNode, targetNode, resultPath);
+	private void clearTouchedNodes() {
+		for (int i = 0; i < touchedNodes.size; i++)
+			touchedMarks.clear(touchedNodes.get(i));
 
-		return resultPath.getPath();
+		touchedNodes.clear();
 	}
 
 	public void createInitialGraph() {
+		graphChanged();
+		createEdgeIndex();
+		createStaticGraph();
+		createAllPairs();
+		
+		// 4.- ADD DINAMIC OBSTACLES
+		linkDinamicObstacles();
+	}
+
+	/**
+	 * Creates the initial graph using the precalculated graph if it exists and
+	 * matches the current walkzone and obstacles.
+	 * 
+	 * Search order: - The graph file in the model dir (precalculated at build
+	 * time) - The graph file in the user dir (calculated in the first visit).
+	 * If none is valid, the graph is calculated and stored in the user dir.
+	 * 
+	 * @param id
+	 *            The graph file name without extension, normally the scene id
+	 */
+	public void createInitialGraph(String id) {
+		graphChanged();
+		createEdgeIndex();
+
+		String filename = id + GRAPH_EXT;
+
+		FileHandle buildFile = EngineAssetManager.getInstance().getAsset(
+				EngineAssetManager.MODEL_DIR + filename);
+		FileHandle userFile = EngineAssetManager.getInstance().getUserFile(
+				filename);
+
+		if (!loadGraph(buildFile) && !loadGraph(userFile)) {
+			createStaticGraph();
+			createAllPairs();
+			saveGraph(userFile);
+		} else if (allPairs == null) {
+			createAllPairs();
+		}
+
+		linkDinamicObstacles();
+	}
+
+	/**
+	 * Calculates the graph for the walkzone and the static obstacles. Dinamic
+	 * obstacles are not considered.
+	 */
+	private void createStaticGraph() {
 		graphNodes.clear();
+		staticNodeRefs.clear();
 
 		// 1.- Add WalkZone convex nodes
 		float verts[] = walkZone.getTransformedVertices();
@@ -107,19 +533,21 @@ public class PolygonalNavGraph implements NavGraph<NavNodePolygonal>, Serializab
 		for (int i = 0; i < verts.length; i += 2) {
 			if (!PolygonUtils.isVertexConcave(walkZone, i)) {
 				graphNodes.add(new NavNodePolygonal(verts[i], verts[i + 1]));
+				staticNodeRefs.add(i / 2);
 			}
 		}
 
 		// 2.- Add obstacle concave nodes
-		for (Polygon o : obstacles) {
-			verts = o.getTransformedVertices();
+		for (int o = 0; o < obstacles.size(); o++) {
+			Polygon p = obstacles.get(o);
+			verts = p.getTransformedVertices();
 
 			for (int i = 0; i < verts.length; i += 2) {
-				if (PolygonUtils.isVertexConcave(o, i)
-						&& PolygonUtils.isPointInside(walkZone, verts[i],
-								verts[i + 1], false)) {
+				if (PolygonUtils.isVertexConcave(p, i)
+						&& isInsideWalkZone(verts[i], verts[i + 1], false)) {
 					graphNodes
 							.add(new NavNodePolygonal(verts[i], verts[i + 1]));
+					staticNodeRefs.add(((o + 1) << 16) | (i / 2));
 				}
 			}
 		}
@@ -131,63 +559,404 @@ public class PolygonalNavGraph implements NavGraph<NavNodePolygonal>, Serializab
 			for (int j = i + 1; j < graphNodes.size(); j++) {
 				NavNodePolygonal n2 = graphNodes.get(j);
 
-				if (inLineOfSight(n1.x, n1.y, n2.x, n2.y)) {
+				if (inStaticLineOfSight(n1.x, n1.y, n2.x, n2.y)) {
 					n1.neighbors.add(n2);
 					n2.neighbors.add(n1);
 				}
 			}
 		}
-		
-		// 4.- ADD DINAMIC OBSTACLES
-		for(Polygon p:dinamicObstacles)
-			addObstacleToGrapth(p);
+
+		createGraphIndex();
 	}
 
-	private boolean inLineOfSight(float p1X, float p1Y, float p2X, float p2Y) {
+	/**
+	 * Indexes the edges of the static graph. Must be called before linking
+	 * the dinamic obstacles.
+	 */
+	private void createGraphIndex() {
+		staticGraphEdges = new EdgeGrid();
+		staticGraphEdgeNodes.clear();
 
-		tmp.set(p1X, p1Y);
-		tmp2.set(p2X, p2Y);
+		int nStatic = staticNodeRefs.size;
 
-		if (!PolygonUtils.inLineOfSight(tmp, tmp2, walkZone, false)) {
-			return false;
+		for (int i = 0; i < nStatic; i++)
+			graphNodes.get(i).index = i;
+
+		for (int i = 0; i < nStatic; i++) {
+			NavNodePolygonal n1 = graphNodes.get(i);
+
+			for (NavNode n : n1.neighbors) {
+				NavNodePolygonal n2 = (NavNodePolygonal) n;
+
+				if (n2.index > i && n2.index < nStatic) {
+					staticGraphEdges.addEdge(n1.x, n1.y, n2.x, n2.y);
+					staticGraphEdgeNodes.add(i);
+					staticGraphEdgeNodes.add(n2.index);
+				}
+			}
 		}
 
-		for (Polygon o : obstacles) {
-			if (!PolygonUtils.inLineOfSight(tmp, tmp2, o, true)) {
-				return false;
+		staticGraphEdges.build();
+	}
+
+	/**
+	 * Calculates the all pairs table for the static graph if it is enabled and
+	 * fits in the memory budget.
+	 */
+	private void createAllPairs() {
+		allPairs = null;
+
+		if (!allPairsEnabled)
+			return;
+
+		if (AllPairsTable.getMemorySize(graphNodes.size()) > allPairsBudget) {
+			EngineLogger.debug("PolygonalNavGraph: Graph too big for all pairs table: "
+					+ graphNodes.size() + " nodes");
+			return;
+		}
+
+		allPairs = AllPairsTable.build(new NavGraphSnapshot(graphNodes,
+				walkZone, obstacles, new ArrayList<Polygon>(), staticEdges,
+				walkZoneLocator, obstacleLocators, heuristic, searchBudget,
+				null));
+	}
+
+	/**
+	 * Checks if a dinamic obstacle blocks an edge of the graph. In that case
+	 * the all pairs table is not valid.
+	 */
+	private boolean isStaticGraphBlocked() {
+		for (DinamicObstacle o : dinamicObstacles) {
+			if (o.blockedEdges.size > 0)
+				return true;
+		}
+
+		return false;
+	}
+
+	public boolean isAllPairsEnabled() {
+		return allPairsEnabled;
+	}
+
+	/**
+	 * Enables the precalculated table of paths between all the nodes of the
+	 * static graph. Path queries don't need to search while the dinamic
+	 * obstacles don't block the static graph. Only for small graphs, the table
+	 * is not created if it needs more than the all pairs budget. Takes effect
+	 * in the next createInitialGraph().
+	 */
+	public void setAllPairsEnabled(boolean enabled) {
+		this.allPairsEnabled = enabled;
+	}
+
+	public int getAllPairsBudget() {
+		return allPairsBudget;
+	}
+
+	/**
+	 * Sets the max. memory, in bytes, of the all pairs table.
+	 */
+	public void setAllPairsBudget(int bytes) {
+		this.allPairsBudget = bytes;
+	}
+
+	public AllPairsTable getAllPairs() {
+		return allPairs;
+	}
+
+	/**
+	 * Hash of the walkzone and obstacles geometry. It is independent of the
+	 * screen resolution, so a graph precalculated at build time is valid for
+	 * every resolution.
+	 */
+	public long getGeometryHash() {
+		long h = 0xcbf29ce484222325L;
+
+		h = hashPolygon(h, walkZone);
+		h = hash(h, obstacles.size());
+
+		for (Polygon o : obstacles)
+			h = hashPolygon(h, o);
+
+		return h;
+	}
+
+	private static long hashPolygon(long h, Polygon p) {
+		float verts[] = p.getVertices();
+
+		h = hash(h, verts.length);
+
+		for (float v : verts)
+			h = hash(h, Float.floatToIntBits(v));
+
+		h = hash(h, Float.floatToIntBits(p.getX() / p.getScaleX()));
+		h = hash(h, Float.floatToIntBits(p.getY() / p.getScaleY()));
+
+		return h;
+	}
+
+	/** FNV-1a step */
+	private static long hash(long h, int v) {
+		for (int i = 0; i < 4; i++) {
+			h ^= (v >>> (i * 8)) & 0xff;
+			h *= 0x100000001b3L;
+		}
+
+		return h;
+	}
+
+	/**
+	 * Writes the static part of the graph (walkzone and obstacles nodes) in
+	 * binary format. Nodes are stored as references to the polygon vertices.
+	 * The all pairs table is also written if it has been calculated.
+	 */
+	public void saveGraph(OutputStream os) throws IOException {
+		DataOutputStream out = new DataOutputStream(os);
+		int nNodes = staticNodeRefs.size;
+
+		out.writeInt(GRAPH_MAGIC);
+		out.writeByte(GRAPH_VERSION);
+		out.writeLong(getGeometryHash());
+		out.writeInt(nNodes);
+
+		for (int i = 0; i < nNodes; i++)
+			out.writeInt(staticNodeRefs.get(i));
+
+		// Only write the neighbors with greater index, the graph is not
+		// directed
+		for (int i = 0; i < nNodes; i++) {
+			NavNodePolygonal n = graphNodes.get(i);
+			int count = 0;
+
+			for (NavNode n2 : n.neighbors) {
+				int j = graphNodes.indexOf(n2);
+
+				if (j > i && j < nNodes)
+					count++;
+			}
+
+			out.writeInt(count);
+
+			for (NavNode n2 : n.neighbors) {
+				int j = graphNodes.indexOf(n2);
+
+				if (j > i && j < nNodes)
+					out.writeInt(j);
 			}
 		}
-		
-		for (Polygon o : dinamicObstacles) {
-			if (!PolygonUtils.inLineOfSight(tmp, tmp2, o, true)) {
+
+		boolean writeAllPairs = allPairs != null
+				&& allPairs.getNodeCount() == nNodes;
+
+		out.writeBoolean(writeAllPairs);
+
+		if (writeAllPairs)
+			allPairs.write(out);
+
+		out.flush();
+	}
+
+	/**
+	 * Reads the static graph written by saveGraph(). 
+	 * 
+	 * @return false if the graph doesn't match the current walkzone and
+	 *         obstacles. In that case, the graph is not modified.
+	 */
+	public boolean loadGraph(InputStream is) throws IOException {
+		DataInputStream in = new DataInputStream(is);
+
+		if (in.readInt() != GRAPH_MAGIC || in.readByte() != GRAPH_VERSION
+				|| in.readLong() != getGeometryHash())
+			return false;
+
+		int nNodes = in.readInt();
+		ArrayList<NavNodePolygonal> nodes = new ArrayList<NavNodePolygonal>(
+				nNodes);
+		IntArray refs = new IntArray(nNodes);
+
+		for (int i = 0; i < nNodes; i++) {
+			int ref = in.readInt();
+			int polyIndex = ref >>> 16;
+			int vertIndex = (ref & 0xffff) * 2;
+
+			if (polyIndex > obstacles.size())
 				return false;
+
+			float verts[] = polyIndex == 0 ? walkZone.getTransformedVertices()
+					: obstacles.get(polyIndex - 1).getTransformedVertices();
+
+			if (vertIndex >= verts.length)
+				return false;
+
+			nodes.add(new NavNodePolygonal(verts[vertIndex],
+					verts[vertIndex + 1]));
+			refs.add(ref);
+		}
+
+		for (int i = 0; i < nNodes; i++) {
+			NavNodePolygonal n1 = nodes.get(i);
+			int count = in.readInt();
+
+			for (int c = 0; c < count; c++) {
+				int j = in.readInt();
+
+				if (j <= i || j >= nNodes)
+					return false;
+
+				NavNodePolygonal n2 = nodes.get(j);
+				n1.neighbors.add(n2);
+				n2.neighbors.add(n1);
 			}
 		}
 
+		AllPairsTable table = null;
+
+		if (in.readBoolean() && allPairsEnabled)
+			table = AllPairsTable.read(in, nNodes);
+
+		allPairs = table;
+		graphNodes.clear();
+		graphNodes.addAll(nodes);
+		staticNodeRefs.clear();
+		staticNodeRefs.addAll(refs);
+		createGraphIndex();
+		graphChanged();
+
 		return true;
 	}
 
-	private void addStartEndNodes(float sx, float sy, float tx, float ty) {
-		startNode.x = sx;
-		startNode.y = sy;
-		targetNode.x = tx;
-		targetNode.y = ty;
+	private boolean loadGraph(FileHandle file) {
+		if (!file.exists())
+			return false;
+
+		InputStream is = new BufferedInputStream(file.read());
 
-		startNode.neighbors.clear();
+		try {
+			if (loadGraph(is)) {
+				EngineLogger.debug("PolygonalNavGraph: Graph loaded from "
+						+ file.path());
+				return true;
+			}
+		} catch (IOException e) {
+			EngineLogger.error("ERROR READING GRAPH FILE: " + file.path(), e);
+		} finally {
+			try {
+				is.close();
+			} catch (IOException e) {
+			}
+		}
 
-		for (NavNodePolygonal n : graphNodes) {
+		return false;
+	}
 
-			n.neighbors.removeValue(targetNode, true);
+	/**
+	 * Stores the static graph in the file. Used to precalculate graphs at
+	 * build time and to cache them in the first visit to a scene.
+	 */
+	public void saveGraph(FileHandle file) {
+		OutputStream os = new BufferedOutputStream(file.write(false));
 
-			if (inLineOfSight(startNode.x, startNode.y, n.x, n.y)) {
-				startNode.neighbors.add(n);
+		try {
+			saveGraph(os);
+		} catch (IOException e) {
+			EngineLogger.error("ERROR WRITING GRAPH FILE: " + file.path(), e);
+		} finally {
+			try {
+				os.close();
+			} catch (IOException e) {
 			}
+		}
+	}
+
+	/**
+	 * Creates the spatial index with the walkzone and static obstacles edges.
+	 */
+	private void createEdgeIndex() {
+		// The old grid can be in use by a snapshot
+		staticEdges = new EdgeGrid();
+		staticEdges.addPolygon(walkZone);
+
+		obstacleBounds.clear();
+		walkZoneLocator = new PointLocator(walkZone.getTransformedVertices());
+		obstacleLocators = new PointLocator[obstacles.size()];
 
-			if (inLineOfSight(targetNode.x, targetNode.y, n.x, n.y)) {
-				n.neighbors.add(targetNode);
+		for (int i = 0; i < obstacles.size(); i++) {
+			Polygon o = obstacles.get(i);
+			staticEdges.addPolygon(o);
+			obstacleBounds.add(new Rectangle(o.getBoundingRectangle()));
+			obstacleLocators[i] = new PointLocator(o.getTransformedVertices());
+		}
+
+		staticEdges.build();
+	}
+
+	/**
+	 * Removes the spatial index when the walkzone or the static obstacles
+	 * change. The unindexed line of sight is used until the graph is created
+	 * again.
+	 */
+	private void clearEdgeIndex() {
+		staticEdges = new EdgeGrid();
+		obstacleBounds.clear();
+		walkZoneLocator = null;
+		obstacleLocators = null;
+	}
+
+	/**
+	 * Line of sight against the walkzone and the static obstacles. Same
+	 * result as calling PolygonUtils.inLineOfSight() for every polygon but
+	 * only the edges near the segment are tested.
+	 */
+	private boolean inStaticLineOfSight(float p1X, float p1Y, float p2X,
+			float p2Y) {
+
+		if (!staticEdges.isBuilt()) {
+			if (!PolygonUtils.inLineOfSight(p1X, p1Y, p2X, p2Y,
+					walkZone.getTransformedVertices(), false)) {
+				return false;
+			}
+
+			for (Polygon o : obstacles) {
+				if (!PolygonUtils.inLineOfSight(p1X, p1Y, p2X, p2Y,
+						o.getTransformedVertices(), true)) {
+					return false;
+				}
+			}
+
+			return true;
+		}
+
+		if (staticEdges.crosses(p1X, p1Y, p2X, p2Y))
+			return false;
+
+		float midX = (p1X + p2X) / 2;
+		float midY = (p1Y + p2Y) / 2;
+
+		if (!walkZoneLocator.isPointInside(midX, midY, true))
+			return false;
+
+		for (int i = 0; i < obstacles.size(); i++) {
+			if (obstacleBounds.get(i).contains(midX, midY)
+					&& obstacleLocators[i].isPointInside(midX, midY, false))
+				return false;
+		}
+
+		return true;
+	}
+
+	private boolean inLineOfSight(float p1X, float p1Y, float p2X, float p2Y) {
+
+		if (!inStaticLineOfSight(p1X, p1Y, p2X, p2Y)) {
+			return false;
+		}
+
+		for (DinamicObstacle o : dinamicObstacles) {
+			if (o.blocks(p1X, p1Y, p2X, p2Y)) {
+				return false;
 			}
 		}
 
+		return true;
 	}
 
 	public Polygon getWalkZone() {
@@ -196,10 +965,14 @@ public class PolygonalNavGraph implements NavGraph<NavNodePolygonal>, Serializab
 
 	public void setWalkZone(Polygon walkZone) {
 		this.walkZone = walkZone;
+		clearEdgeIndex();
+		graphChanged();
 	}
 
 	public void addObstacle(Polygon obstacle) {
 		obstacles.add(obstacle);
+		clearEdgeIndex();
+		graphChanged();
 	}
 
 	public ArrayList<Polygon> getObstacles() {
@@ -210,6 +983,39 @@ public class PolygonalNavGraph implements NavGraph<NavNodePolygonal>, Serializab
 		return graphNodes;
 	}
 
+	public PathCache getPathCache() {
+		return pathCache;
+	}
+
+	public DistanceHeuristic getHeuristic() {
+		return heuristic;
+	}
+
+	public void setHeuristic(DistanceHeuristic heuristic) {
+		this.heuristic = heuristic;
+		graphChanged();
+	}
+
+	public int getSearchBudget() {
+		return searchBudget;
+	}
+
+	/**
+	 * Sets the max. number of nodes expanded by a path search. When the budget
+	 * is exhausted the best path found so far to the target, if any, is used.
+	 */
+	public void setSearchBudget(int searchBudget) {
+		this.searchBudget = searchBudget;
+		graphChanged();
+	}
+
+	/**
+	 * Number of nodes expanded by the last search in the game thread.
+	 */
+	public int getExpandedNodes() {
+		return query.getExpandedNodes();
+	}
+
 	@Override
 	public boolean blocked(NavContext<NavNodePolygonal> context,
 			NavNodePolygonal targetNode) {
@@ -219,57 +1025,260 @@ public class PolygonalNavGraph implements NavGraph<NavNodePolygonal>, Serializab
 	@Override
 	public float getCost(NavContext<NavNodePolygonal> context,
 			NavNodePolygonal targetNode) {
-		return 1;
+		NavNodePolygonal n = context.getSourceNode();
+
+		return NavGraphSnapshot.distance(n.x, n.y, targetNode.x, targetNode.y);
 	}
 	
-	private void addObstacleToGrapth(Polygon poly) {
-		float verts[] = poly.getTransformedVertices();
-		for (int i = 0; i < verts.length; i += 2) {
-			if (PolygonUtils.isVertexConcave(poly, i)
-					&& PolygonUtils.isPointInside(walkZone, verts[i],
-							verts[i + 1], false)) {
-				NavNodePolygonal n1 = new NavNodePolygonal(verts[i], verts[i + 1]);
-				
-				for (int j = 0; j < graphNodes.size(); j++) {
-					NavNodePolygonal n2 = graphNodes.get(j);
-
-					if (inLineOfSight(n1.x, n1.y, n2.x, n2.y)) {
-						n1.neighbors.add(n2);
-						n2.neighbors.add(n1);
+	/**
+	 * Adds a polygon that can move or change during the scene, normally the
+	 * bbox of an actor. If the polygon is already added, the obstacle is
+	 * updated.
+	 */
+	public void addDinamicObstacle(Polygon poly) {
+		DinamicObstacle o = dinamicObstaclesByPolygon.get(poly);
+
+		if (o != null) {
+			updateDinamicObstacle(poly);
+			return;
+		}
+
+		o = new DinamicObstacle(poly);
+		dinamicObstaclesByPolygon.put(poly, o);
+
+		linkObstacle(o);
+	}
+
+	public void removeDinamicObstacle(Polygon poly) {
+		DinamicObstacle o = dinamicObstaclesByPolygon.remove(poly);
+
+		if (o != null)
+			unlinkObstacle(o);
+	}
+
+	/**
+	 * Must be called after changing the position or the vertices of a dinamic
+	 * obstacle polygon. Only the nodes of the obstacle and the edges crossing
+	 * the obstacle, before or after the change, are recalculated.
+	 */
+	public void updateDinamicObstacle(Polygon poly) {
+		DinamicObstacle o = dinamicObstaclesByPolygon.get(poly);
+
+		if (o == null)
+			return;
+
+		unlinkObstacle(o);
+		linkObstacle(o);
+	}
+
+	/**
+	 * Moves a dinamic obstacle.
+	 */
+	public void moveDinamicObstacle(Polygon poly, float x, float y) {
+		poly.setPosition(x, y);
+		updateDinamicObstacle(poly);
+	}
+
+	/**
+	 * Links the dinamic obstacles to a new created static graph.
+	 */
+	private void linkDinamicObstacles() {
+		ArrayList<DinamicObstacle> l = new ArrayList<DinamicObstacle>(
+				dinamicObstacles);
+
+		dinamicObstacles.clear();
+
+		for (DinamicObstacle o : l) {
+			o.nodes.clear();
+			o.blockedEdges.clear();
+			linkObstacle(o);
+		}
+	}
+
+	/**
+	 * Adds the obstacle to the graph: 1. Removes the edges crossing the obstacle
+	 * 2. Adds the concave vertices of the obstacle as new nodes.
+	 * 
+	 * Only the static edges near the obstacle are checked for blocking. The
+	 * new nodes are linked to every static or dinamic node in line of sight,
+	 * as in a full rebuild, so the paths are the shortest. The edge index
+	 * bounds the cost of every line of sight test.
+	 */
+	private void linkObstacle(DinamicObstacle o) {
+		dinamicObstacles.add(o);
+
+		Rectangle b = o.bounds.set(o.polygon.getBoundingRectangle());
+		obstacleChanged(b);
+
+		// 1.- REMOVE EDGES BLOCKED BY THE OBSTACLE. Only the static edges near
+		// the obstacle and the edges of the dinamic nodes can cross it.
+		staticGraphEdges.getEdges(b.x, b.y, b.x + b.width, b.y + b.height,
+				nearBuffer);
+
+		for (int k = 0; k < nearBuffer.size; k++) {
+			int e = nearBuffer.get(k) * 2;
+			NavNodePolygonal n1 = graphNodes.get(staticGraphEdgeNodes.get(e));
+			NavNodePolygonal n2 = graphNodes.get(staticGraphEdgeNodes
+					.get(e + 1));
+
+			// The edge can be already blocked by other obstacle
+			if (o.blocks(n1.x, n1.y, n2.x, n2.y)
+					&& n1.neighbors.removeValue(n2, true)) {
+				n2.neighbors.removeValue(n1, true);
+				touch(n1);
+				touch(n2);
+
+				o.blockedEdges.add(n1);
+				o.blockedEdges.add(n2);
+			}
+		}
+
+		for (DinamicObstacle o2 : dinamicObstacles) {
+			for (NavNodePolygonal n1 : o2.nodes) {
+				for (int j = n1.neighbors.size - 1; j >= 0; j--) {
+					NavNodePolygonal n2 = (NavNodePolygonal) n1.neighbors
+							.get(j);
+
+					if (o.blocks(n1.x, n1.y, n2.x, n2.y)) {
+						n1.neighbors.removeIndex(j);
+						n2.neighbors.removeValue(n1, true);
+						touch(n2);
+
+						o.blockedEdges.add(n1);
+						o.blockedEdges.add(n2);
 					}
 				}
-				
+			}
+		}
+
+		// 2.- ADD OBSTACLE NODES
+		float verts[] = o.polygon.getTransformedVertices();
+
+		for (int i = 0; i < verts.length; i += 2) {
+			if (PolygonUtils.isVertexConcave(o.polygon, i)
+					&& isInsideWalkZone(verts[i], verts[i + 1], false)) {
+				NavNodePolygonal n1 = new NavNodePolygonal(verts[i],
+						verts[i + 1]);
+
+				for (int j = 0; j < staticNodeRefs.size; j++)
+					link(n1, graphNodes.get(j));
+
+				for (DinamicObstacle o2 : dinamicObstacles) {
+					for (NavNodePolygonal n2 : o2.nodes)
+						link(n1, n2);
+				}
+
 				graphNodes.add(n1);
+				o.nodes.add(n1);
 			}
-		}		
+		}
 	}
 
-	public void addDinamicObstacle(Polygon poly) {
-		dinamicObstacles.add(poly);
+	/**
+	 * Adds the edge between the nodes if they are in line of sight.
+	 */
+	private void link(NavNodePolygonal n1, NavNodePolygonal n2) {
+		if (!inLineOfSight(n1.x, n1.y, n2.x, n2.y))
+			return;
 
-		addObstacleToGrapth(poly);
+		n1.neighbors.add(n2);
+		n2.neighbors.add(n1);
+		touch(n2);
 	}
-	
-	public void removeDinamicObstacle(Polygon poly) {
-		float verts[] = poly.getTransformedVertices();
-		dinamicObstacles.remove(poly);
 
-		for (int i = 0; i < verts.length; i += 2) {
-			if (PolygonUtils.isVertexConcave(poly, i)
-					&& PolygonUtils.isPointInside(walkZone, verts[i],
-							verts[i + 1], false)) {
-				for (int j = 0; j < graphNodes.size(); j++) {
-					NavNodePolygonal n = graphNodes.get(j);
-
-					if (n.x == verts[i] && n.y == verts[i+1]) {
-						graphNodes.remove(n);
-						j--;
-						
-						for(NavNodePolygonal n2:graphNodes) {
-							n2.neighbors.removeValue(n, true);
-						}
-						
-					}
+	/**
+	 * Removes the obstacle nodes from the graph and restores the edges blocked
+	 * by the obstacle.
+	 */
+	private void unlinkObstacle(DinamicObstacle o) {
+		dinamicObstacles.remove(o);
+		obstacleChanged(o.bounds);
+
+		// 1.- REMOVE OBSTACLE NODES
+		for (NavNodePolygonal n : o.nodes) {
+			for (NavNode n2 : n.neighbors) {
+				n2.neighbors.removeValue(n, true);
+				touch((NavNodePolygonal) n2);
+			}
+
+			n.neighbors.clear();
+
+			// The dinamic nodes are at the end of the list
+			graphNodes.remove(graphNodes.lastIndexOf(n));
+
+			for (DinamicObstacle o2 : dinamicObstacles)
+				o2.removeBlockedEdges(n);
+		}
+
+		o.nodes.clear();
+
+		// 2.- RESTORE BLOCKED EDGES. The edges were in line of sight for the
+		// walkzone and static obstacles so only the rest of dinamic obstacles
+		// are checked.
+		Array<NavNodePolygonal> blocked = o.blockedEdges;
+
+		for (int i = 0; i < blocked.size; i += 2) {
+			NavNodePolygonal n1 = blocked.get(i);
+			NavNodePolygonal n2 = blocked.get(i + 1);
+			DinamicObstacle blocker = null;
+
+			for (DinamicObstacle o2 : dinamicObstacles) {
+				if (o2.blocks(n1.x, n1.y, n2.x, n2.y)) {
+					blocker = o2;
+					break;
+				}
+			}
+
+			if (blocker == null) {
+				n1.neighbors.add(n2);
+				n2.neighbors.add(n1);
+				touch(n1);
+				touch(n2);
+			} else {
+				blocker.blockedEdges.add(n1);
+				blocker.blockedEdges.add(n2);
+			}
+		}
+
+		blocked.clear();
+	}
+
+	/**
+	 * A dinamic obstacle with the graph nodes created for its vertices and
+	 * the edges of the graph that it blocks.
+	 */
+	private static class DinamicObstacle {
+		final Polygon polygon;
+		final Rectangle bounds = new Rectangle();
+		final ArrayList<NavNodePolygonal> nodes = new ArrayList<NavNodePolygonal>();
+
+		/** Pairs of nodes whose edge is blocked by the obstacle */
+		final Array<NavNodePolygonal> blockedEdges = new Array<NavNodePolygonal>();
+
+		DinamicObstacle(Polygon polygon) {
+			this.polygon = polygon;
+		}
+
+		/**
+		 * Checks if the edge crosses the obstacle. The bounding rectangle is
+		 * checked first to discard far edges.
+		 */
+		boolean blocks(float x1, float y1, float x2, float y2) {
+			Rectangle r = bounds;
+
+			if (Math.max(x1, x2) < r.x || Math.min(x1, x2) > r.x + r.width
+					|| Math.max(y1, y2) < r.y
+					|| Math.min(y1, y2) > r.y + r.height)
+				return false;
+
+			return !PolygonUtils.inLineOfSight(x1, y1, x2, y2,
+					polygon.getTransformedVertices(), true);
+		}
+
+		void removeBlockedEdges(NavNodePolygonal n) {
+			for (int i = blockedEdges.size - 2; i >= 0; i -= 2) {
+				if (blockedEdges.get(i) == n || blockedEdges.get(i + 1) == n) {
+					blockedEdges.removeRange(i, i + 1);
 				}
 			}
 		}
@@ -291,6 +1300,9 @@ public class PolygonalNavGraph implements NavGraph<NavNodePolygonal>, Serializab
 		}
 		
 		json.writeValue("obstacles", tmp, ArrayList.class, Polygon.class);
+		json.writeValue("heuristic", heuristic);
+		json.writeValue("allPairs", allPairsEnabled);
+		json.writeValue("allPairsBudget", allPairsBudget);
 	}
 
 	@SuppressWarnings("unchecked")
@@ -299,6 +1311,21 @@ public class PolygonalNavGraph implements NavGraph<NavNodePolygonal>, Serializab
 		walkZone = json.readValue("walkZone", Polygon.class, jsonData);
 		obstacles = json.readValue("obstacles", ArrayList.class, Polygon.class,
 				jsonData);
+		clearEdgeIndex();
+		graphChanged();
+
+		DistanceHeuristic h = json.readValue("heuristic",
+				DistanceHeuristic.class, jsonData);
+
+		if (h != null)
+			setHeuristic(h);
+
+		if (jsonData.has("allPairs")) {
+			allPairsEnabled = json.readValue("allPairs", Boolean.class,
+					jsonData);
+			allPairsBudget = json.readValue("allPairsBudget", Integer.class,
+					jsonData);
+		}
 		
 		for(Polygon poly:obstacles) {
 			poly.setScale(EngineAssetManager.getInstance().getScale(), EngineAssetManager.getInstance().getScale());
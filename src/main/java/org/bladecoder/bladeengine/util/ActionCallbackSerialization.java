@@ -15,155 +15,172 @@
  ******************************************************************************/
 package org.bladecoder.bladeengine.util;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
 import org.bladecoder.bladeengine.actions.Action;
 import org.bladecoder.bladeengine.actions.ActionCallback;
 import org.bladecoder.bladeengine.model.Actor;
+import org.bladecoder.bladeengine.model.Inventory;
 import org.bladecoder.bladeengine.model.Scene;
 import org.bladecoder.bladeengine.model.Verb;
+import org.bladecoder.bladeengine.model.VerbContext;
 import org.bladecoder.bladeengine.model.VerbManager;
 import org.bladecoder.bladeengine.model.World;
 
+/**
+ * Converts the callbacks and verbs to ids to save them and back.
+ * 
+ * The ids are assigned when the chapter is loaded: 'ownerId#verbKey' for the
+ * verbs and 'ownerId#verbKey#actionPos' for the callback actions. The owner is
+ * the actor, the scene or DEFAULT_VERB. The ids don't depend on where the
+ * actor is, so an actor keeps its ids when it goes to the inventory.
+ * 
+ * @author rgarcia
+ */
 public class ActionCallbackSerialization {
 	public static final String SEPARATION_SYMBOL = "#";
+	public static final String DEFAULT_VERB = "DEFAULT_VERB";
+	public static final String VERB_CONTEXT = "VERB_CONTEXT";
+
+	private static final IdentityHashMap<ActionCallback, String> callbackIds = new IdentityHashMap<ActionCallback, String>();
+	private static final HashMap<String, ActionCallback> callbacks = new HashMap<String, ActionCallback>();
+	private static final IdentityHashMap<Verb, String> verbIds = new IdentityHashMap<Verb, String>();
+	private static final HashMap<String, Verb> verbs = new HashMap<String, Verb>();
+
+	/**
+	 * The current scene when the index was built. The same id can be in
+	 * several scenes, the current scene ids take precedence.
+	 */
+	private static Scene indexedScene;
+
+	/**
+	 * Assigns the ids of the verbs and callback actions of the scenes, the
+	 * inventory and the default verbs. Must be called when the chapter is
+	 * loaded and when a saved game is read.
+	 */
+	public static void index() {
+		World w = World.getInstance();
+		Scene current = w.getCurrentScene();
+
+		clearIndex();
+
+		for (Scene s : w.getScenes().values()) {
+			if (s != current)
+				index(s);
+		}
 
-	private static String find(ActionCallback cb, Verb v) {
-		String id = v.getId();
+		Inventory inventory = w.getInventory();
 
-		int pos = 0;
+		for (int i = 0; i < inventory.getNumItems(); i++)
+			index(inventory.getItem(i));
 
-		for (Action a : v.getActions()) {
-			if (cb == a) {
-				StringBuilder stringBuilder = new StringBuilder(id);
-				stringBuilder.append(SEPARATION_SYMBOL).append(pos);
+		if (current != null)
+			index(current);
 
-				return stringBuilder.toString();
-			}
+		index(DEFAULT_VERB, VerbManager.getDefaultVerbs());
 
-			pos++;
-		}
+		indexedScene = current;
+	}
 
-		return null;
+	public static void clearIndex() {
+		callbackIds.clear();
+		callbacks.clear();
+		verbIds.clear();
+		verbs.clear();
+		indexedScene = null;
 	}
 
-	private static String find(ActionCallback cb, Actor a) {
-		if(a == null) return null;
-		
-		String id = a.getId();
+	private static void index(Scene s) {
+		for (Actor a : s.getActors().values())
+			index(a);
 
-		for (Verb v : a.getVerbManager().getVerbs().values()) {
-			String result = find(cb, v);
+		index(s.getId(), s.getVerbManager().getVerbs());
+	}
 
-			if (result != null) {
-				StringBuilder stringBuilder = new StringBuilder(id);
-				stringBuilder.append(SEPARATION_SYMBOL).append(result);
+	private static void index(Actor a) {
+		index(a.getId(), a.getVerbManager().getVerbs());
+	}
 
-				return stringBuilder.toString();
-			}
-		}
+	private static void index(String ownerId, HashMap<String, Verb> vm) {
+		for (Map.Entry<String, Verb> e : vm.entrySet()) {
+			String verbId = ownerId + SEPARATION_SYMBOL + e.getKey();
+			Verb v = e.getValue();
 
-		return null;
-	}
-	
-	private static String find(ActionCallback cb, Scene s) {
-		if(s == null) return null;
-		
-		String id = s.getId();
+			verbIds.put(v, verbId);
+			verbs.put(verbId, v);
+
+			ArrayList<Action> actions = v.getActions();
 
-		for (Verb v : s.getVerbManager().getVerbs().values()) {
-			String result = find(cb, v);
+			for (int pos = 0; pos < actions.size(); pos++) {
+				Action a = actions.get(pos);
 
-			if (result != null) {
-				StringBuilder stringBuilder = new StringBuilder(id);
-				stringBuilder.append(SEPARATION_SYMBOL).append(result);
+				if (a instanceof ActionCallback) {
+					String id = verbId + SEPARATION_SYMBOL + pos;
 
-				return stringBuilder.toString();
+					callbackIds.put((ActionCallback) a, id);
+					callbacks.put(id, (ActionCallback) a);
+				}
 			}
 		}
+	}
 
-		return null;
+	/**
+	 * Reindexes when the current scene changes, so its ids take precedence.
+	 */
+	private static void checkScene() {
+		if (indexedScene != World.getInstance().getCurrentScene())
+			index();
 	}
 
 	public static String find(ActionCallback cb) {
-		String id = null;
-
 		if (cb == null)
 			return null;
 
-		// search in scene verbs
-		Scene s = World.getInstance().getCurrentScene();
+		if (cb instanceof VerbContext)
+			return VERB_CONTEXT + SEPARATION_SYMBOL
+					+ ((VerbContext) cb).getId();
 
-		id = find(cb, s);
+		String id = callbackIds.get(cb);
 
-		if (id != null)
-			return id;
+		if (id == null)
+			EngineLogger.error("ActionCallbackSerialization: callback not found "
+					+ cb.getClass().getSimpleName());
 
-		id = find(cb, s.getPlayer());
-		if (id != null)
-			return id;
-
-		// search in actors
-		for (Actor a : s.getActors().values()) {
-			id = find(cb, a);
-			if (id != null)
-				return id;
-		}
-
-		// search in defaultVerbs
-		for (Verb v : VerbManager.getDefaultVerbs().values()) {
-			id = find(cb, v);
-			if (id != null) {
-				StringBuilder stringBuilder = new StringBuilder("DEFAULT_VERB");
-				stringBuilder.append(SEPARATION_SYMBOL).append(id);
-
-				return stringBuilder.toString();
-			}
-		}
-
-		return null;
+		return id;
 	}
 
 	public static ActionCallback find(String id) {
-		Scene s = World.getInstance().getCurrentScene();
-
-		String[] split = id.split(SEPARATION_SYMBOL);
-
-		if (split.length < 3)
+		if (id == null)
 			return null;
 
-		String actorId = split[0];
-		String verbId = split[1];
-		int actionPos = Integer.parseInt(split[2]);
-
-		
-		Verb v = null;
-		
-		if (actorId.equals("DEFAULT_VERB")) {
+		if (id.startsWith(VERB_CONTEXT + SEPARATION_SYMBOL))
+			return VerbContext.find(Integer.parseInt(id
+					.substring(VERB_CONTEXT.length() + 1)));
 
-			v = VerbManager.getDefaultVerbs().get(verbId);
-		} else {
+		checkScene();
 
-			Actor a;
-
-			if (actorId.equals(s.getId())) {
-				v = s.getVerbManager().getVerbs().get(verbId);
-			} else {
-				a = s.getActor(actorId);
-
-				if (a == null)
-					return null;
-				
-				v = a.getVerbManager().getVerbs().get(verbId);
-			}
-		}
+		return callbacks.get(id);
+	}
 
+	/**
+	 * Returns the id of a verb of the chapter: 'ownerId#verbKey'.
+	 */
+	public static String findVerb(Verb v) {
 		if (v == null)
 			return null;
 
-		Action action = v.getActions().get(actionPos);
+		return verbIds.get(v);
+	}
+
+	public static Verb findVerb(String id) {
+		if (id == null)
+			return null;
 
-		if (action instanceof ActionCallback)
-			return (ActionCallback) action;
+		checkScene();
 
-		return null;
+		return verbs.get(id);
 	}
 }
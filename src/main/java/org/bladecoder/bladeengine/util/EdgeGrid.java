@@ -0,0 +1,318 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.bladecoder.bladeengine.util;
+
+import java.util.Arrays;
+
+import com.badlogic.gdx.math.Polygon;
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.IntArray;
+
+/**
+ * Uniform grid with the edges of a set of polygons. Used to check if a
+ * segment crosses any edge testing only the edges near the segment and to
+ * find the edges near an area.
+ *
+ * Usage: add the polygons or edges with addPolygon() and addEdge() and then
+ * call build(). Every edge is added to the cells that it crosses. Once
+ * built, the grid can be queried from several threads if every thread uses
+ * its own Marks.
+ *
+ * @author rgarcia
+ */
+public class EdgeGrid {
+	private static final int MAX_CELLS_PER_SIDE = 64;
+	private static final float EPSILON = 0.001f;
+
+	/** x1, y1, x2, y2 for every edge */
+	private final FloatArray edges = new FloatArray();
+
+	private IntArray[] cells;
+	private int cols;
+	private int rows;
+
+	private float minX, minY, maxX, maxY;
+	private float cellWidth, cellHeight;
+
+	/** Marks used by getEdges() and crosses() without marks */
+	private final Marks marks = new Marks();
+
+	public void clear() {
+		edges.clear();
+		cells = null;
+	}
+
+	/**
+	 * Adds the edges of the polygon in world coordinates.
+	 */
+	public void addPolygon(Polygon p) {
+		float verts[] = p.getTransformedVertices();
+
+		for (int i = 0; i < verts.length; i += 2) {
+			edges.add(verts[i]);
+			edges.add(verts[i + 1]);
+			edges.add(verts[(i + 2) % verts.length]);
+			edges.add(verts[(i + 3) % verts.length]);
+		}
+	}
+
+	/**
+	 * Adds an edge. Edges are numbered in the order they are added.
+	 */
+	public void addEdge(float x1, float y1, float x2, float y2) {
+		edges.add(x1);
+		edges.add(y1);
+		edges.add(x2);
+		edges.add(y2);
+	}
+
+	public int getNumEdges() {
+		return edges.size / 4;
+	}
+
+	/**
+	 * Distributes the added edges in the grid cells.
+	 */
+	public void build() {
+		int nEdges = getNumEdges();
+
+		if (nEdges == 0) {
+			cells = null;
+			return;
+		}
+
+		minX = minY = Float.MAX_VALUE;
+		maxX = maxY = -Float.MAX_VALUE;
+
+		for (int i = 0; i < edges.size; i += 2) {
+			minX = Math.min(minX, edges.get(i));
+			maxX = Math.max(maxX, edges.get(i));
+			minY = Math.min(minY, edges.get(i + 1));
+			maxY = Math.max(maxY, edges.get(i + 1));
+		}
+
+		int side = Math.min(MAX_CELLS_PER_SIDE,
+				Math.max(1, (int) Math.sqrt(nEdges)));
+
+		cols = side;
+		rows = side;
+		cellWidth = Math.max(EPSILON, (maxX - minX) / cols);
+		cellHeight = Math.max(EPSILON, (maxY - minY) / rows);
+
+		cells = new IntArray[cols * rows];
+
+		for (int e = 0; e < nEdges; e++) {
+			int i = e * 4;
+			float x1 = edges.get(i);
+			float y1 = edges.get(i + 1);
+			float x2 = edges.get(i + 2);
+			float y2 = edges.get(i + 3);
+
+			float segMinY = Math.min(y1, y2);
+			float segMaxY = Math.max(y1, y2);
+
+			// The same cells that crosses() visits for the edge
+			for (int r = row(segMinY); r <= row(segMaxY); r++) {
+				int c0 = col(rowMinX(r, x1, y1, x2, y2, segMinY, segMaxY));
+				int c1 = col(rowMaxX(r, x1, y1, x2, y2, segMinY, segMaxY));
+
+				for (int c = c0; c <= c1; c++) {
+					IntArray cell = cells[r * cols + c];
+
+					if (cell == null) {
+						cell = new IntArray(4);
+						cells[r * cols + c] = cell;
+					}
+
+					cell.add(e);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Min. x of the segment inside the row, minus EPSILON.
+	 */
+	private float rowMinX(int r, float x1, float y1, float x2, float y2,
+			float segMinY, float segMaxY) {
+		if (y1 == y2)
+			return Math.min(x1, x2) - EPSILON;
+
+		float xa = rowX(r, x1, y1, x2, y2, segMinY, segMaxY, true);
+		float xb = rowX(r, x1, y1, x2, y2, segMinY, segMaxY, false);
+
+		return Math.min(xa, xb) - EPSILON;
+	}
+
+	/**
+	 * Max. x of the segment inside the row, plus EPSILON.
+	 */
+	private float rowMaxX(int r, float x1, float y1, float x2, float y2,
+			float segMinY, float segMaxY) {
+		if (y1 == y2)
+			return Math.max(x1, x2) + EPSILON;
+
+		float xa = rowX(r, x1, y1, x2, y2, segMinY, segMaxY, true);
+		float xb = rowX(r, x1, y1, x2, y2, segMinY, segMaxY, false);
+
+		return Math.max(xa, xb) + EPSILON;
+	}
+
+	/**
+	 * x of the segment at the bottom or top of the row, extended by EPSILON.
+	 */
+	private float rowX(int r, float x1, float y1, float x2, float y2,
+			float segMinY, float segMaxY, boolean bottom) {
+		float y = bottom ? Math.max(segMinY, minY + r * cellHeight - EPSILON)
+				: Math.min(segMaxY, minY + (r + 1) * cellHeight + EPSILON);
+
+		return x1 + (y - y1) * (x2 - x1) / (y2 - y1);
+	}
+
+	public boolean isBuilt() {
+		return cells != null;
+	}
+
+	/**
+	 * Checks if the segment crosses any edge of the grid. Uses the same
+	 * criteria that PolygonUtils.lineSegmentsCross().
+	 */
+	public boolean crosses(float x1, float y1, float x2, float y2) {
+		return crosses(x1, y1, x2, y2, marks);
+	}
+
+	/**
+	 * Same as crosses(x1, y1, x2, y2) using the given marks.
+	 */
+	public boolean crosses(float x1, float y1, float x2, float y2, Marks marks) {
+		if (cells == null)
+			return false;
+
+		if (Math.max(x1, x2) < minX || Math.min(x1, x2) > maxX
+				|| Math.max(y1, y2) < minY || Math.min(y1, y2) > maxY)
+			return false;
+
+		int[] edgeQuery = marks.begin(getNumEdges());
+		int query = marks.query;
+
+		float segMinY = Math.min(y1, y2);
+		float segMaxY = Math.max(y1, y2);
+
+		int r0 = row(segMinY);
+		int r1 = row(segMaxY);
+
+		// For every row, only the cells between the x coordinates of the
+		// segment in the row are tested
+		for (int r = r0; r <= r1; r++) {
+			int c0 = col(rowMinX(r, x1, y1, x2, y2, segMinY, segMaxY));
+			int c1 = col(rowMaxX(r, x1, y1, x2, y2, segMinY, segMaxY));
+
+			for (int c = c0; c <= c1; c++) {
+				IntArray cell = cells[r * cols + c];
+
+				if (cell == null)
+					continue;
+
+				for (int k = 0; k < cell.size; k++) {
+					int e = cell.get(k);
+
+					if (edgeQuery[e] == query)
+						continue;
+
+					edgeQuery[e] = query;
+
+					int i = e * 4;
+
+					if (PolygonUtils.lineSegmentsCross(x1, y1, x2, y2,
+							edges.get(i), edges.get(i + 1), edges.get(i + 2),
+							edges.get(i + 3)))
+						return true;
+				}
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Adds to 'out' the edges in the cells that overlap the rectangle. Some
+	 * of them can be outside the rectangle. 'out' is cleared first.
+	 */
+	public void getEdges(float x1, float y1, float x2, float y2, IntArray out) {
+		out.clear();
+
+		if (cells == null || x2 < minX || x1 > maxX || y2 < minY || y1 > maxY)
+			return;
+
+		int[] edgeQuery = marks.begin(getNumEdges());
+		int query = marks.query;
+
+		for (int r = row(y1); r <= row(y2); r++) {
+			for (int c = col(x1); c <= col(x2); c++) {
+				IntArray cell = cells[r * cols + c];
+
+				if (cell == null)
+					continue;
+
+				for (int k = 0; k < cell.size; k++) {
+					int e = cell.get(k);
+
+					if (edgeQuery[e] != query) {
+						edgeQuery[e] = query;
+						out.add(e);
+					}
+				}
+			}
+		}
+	}
+
+	private int col(float x) {
+		int c = (int) ((x - minX) / cellWidth);
+
+		return c < 0 ? 0 : (c >= cols ? cols - 1 : c);
+	}
+
+	private int row(float y) {
+		int r = (int) ((y - minY) / cellHeight);
+
+		return r < 0 ? 0 : (r >= rows ? rows - 1 : r);
+	}
+
+	/**
+	 * Last query that tested each edge. Avoids testing an edge twice in the
+	 * same query.
+	 */
+	public static class Marks {
+		private int[] edgeQuery = new int[0];
+		private int query;
+
+		int[] begin(int nEdges) {
+			if (edgeQuery.length < nEdges) {
+				edgeQuery = new int[nEdges];
+				query = 0;
+			}
+
+			query++;
+
+			if (query == 0) {
+				Arrays.fill(edgeQuery, 0);
+				query = 1;
+			}
+
+			return edgeQuery;
+		}
+	}
+}
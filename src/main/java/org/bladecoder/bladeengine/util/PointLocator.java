@@ -0,0 +1,235 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.bladecoder.bladeengine.util;
+
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.IntArray;
+
+/**
+ * Index of the edges of a polygon in vertical slabs. Answers the same queries
+ * as PolygonUtils.isPointInside() and PolygonUtils.getClampedPoint(), with the
+ * same results, testing only the edges of the slabs near the point.
+ * 
+ * The polygon vertices are copied, so the locator is not modified after
+ * creation and can be used from any thread.
+ * 
+ * @author rgarcia
+ */
+public class PointLocator {
+	private static final int MAX_SLABS = 256;
+
+	/**
+	 * Edges are added to the slabs in this distance too. Must be greater than
+	 * the tolerance of isPointInside()
+	 */
+	private static final float MARGIN = 1f;
+
+	private static final float EPSILON = 0.5f;
+
+	private final float[] verts;
+
+	/** Start vertex index of the edges of every slab */
+	private final IntArray[] slabs;
+	private final float minX;
+	private final float slabWidth;
+
+	public PointLocator(float[] polygonVerts) {
+		verts = polygonVerts.clone();
+
+		float max = -Float.MAX_VALUE;
+		float min = Float.MAX_VALUE;
+
+		for (int i = 0; i < verts.length; i += 2) {
+			min = Math.min(min, verts[i]);
+			max = Math.max(max, verts[i]);
+		}
+
+		int nEdges = verts.length / 2;
+		int nSlabs = Math.min(MAX_SLABS,
+				Math.max(1, (int) (Math.sqrt(nEdges) * 2)));
+
+		minX = min;
+		slabWidth = Math.max(MARGIN, (max - min) / nSlabs);
+		slabs = new IntArray[nSlabs];
+
+		for (int s = 0; s < nSlabs; s++)
+			slabs[s] = new IntArray(false, 4);
+
+		for (int i = 0; i < verts.length; i += 2) {
+			float x1 = verts[i];
+			float x2 = verts[(i + 2) % verts.length];
+
+			int s0 = slab(Math.min(x1, x2) - MARGIN);
+			int s1 = slab(Math.max(x1, x2) + MARGIN);
+
+			for (int s = s0; s <= s1; s++)
+				slabs[s].add(i);
+		}
+	}
+
+	private int slab(float x) {
+		int s = (int) ((x - minX) / slabWidth);
+
+		return s < 0 ? 0 : (s >= slabs.length ? slabs.length - 1 : s);
+	}
+
+	/**
+	 * Same as PolygonUtils.isPointInside().
+	 */
+	public boolean isPointInside(float x, float y, boolean toleranceOnOutside) {
+		IntArray edges = slabs[slab(x)];
+		boolean inside = false;
+
+		for (int k = 0; k < edges.size; k++) {
+			int i = edges.get(k);
+
+			float oldX = verts[i];
+			float oldY = verts[i + 1];
+			float newX = verts[(i + 2) % verts.length];
+			float newY = verts[(i + 3) % verts.length];
+
+			float oldSqDist = Vector2.dst2(oldX, oldY, x, y);
+			float newSqDist = Vector2.dst2(newX, newY, x, y);
+
+			if (oldSqDist + newSqDist + 2.0f
+					* Math.sqrt(oldSqDist * newSqDist)
+					- Vector2.dst2(newX, newY, oldX, oldY) < EPSILON)
+				return toleranceOnOutside;
+
+			float leftX = newX;
+			float leftY = newY;
+			float rightX = oldX;
+			float rightY = oldY;
+
+			if (newX > oldX) {
+				leftX = oldX;
+				leftY = oldY;
+				rightX = newX;
+				rightY = newY;
+			}
+
+			if (leftX < x
+					&& x <= rightX
+					&& (y - leftY) * (rightX - leftX) < (rightY - leftY)
+							* (x - leftX))
+				inside = !inside;
+		}
+
+		return inside;
+	}
+
+	/**
+	 * Same as PolygonUtils.getClampedPoint(). The slabs are visited from the
+	 * point outwards until the remaining slabs are farther than the nearest
+	 * point found.
+	 * 
+	 * @return The index of the first vertex of the segment where the clamped
+	 *         point belongs
+	 */
+	public int getClampedPoint(float x, float y, Vector2 dest) {
+		int center = slab(x);
+		float bestDist = Float.MAX_VALUE;
+		int best = -1;
+
+		for (int d = 0; d < slabs.length; d++) {
+			int left = center - d;
+			int right = center + d;
+
+			// horizontal distance to the nearest slab not visited yet
+			float leftDist = left < 0 ? Float.MAX_VALUE : x
+					- (minX + (left + 1) * slabWidth);
+			float rightDist = right >= slabs.length ? Float.MAX_VALUE
+					: (minX + right * slabWidth) - x;
+
+			if (d > 0 && leftDist >= bestDist && rightDist >= bestDist)
+				break;
+
+			for (int side = 0; side < 2; side++) {
+				int s = side == 0 ? left : right;
+
+				if (s < 0 || s >= slabs.length || (side == 1 && d == 0))
+					continue;
+
+				IntArray edges = slabs[s];
+
+				for (int k = 0; k < edges.size; k++) {
+					int i = edges.get(k);
+					float startX = verts[i];
+					float startY = verts[i + 1];
+					float endX = verts[(i + 2) % verts.length];
+					float endY = verts[(i + 3) % verts.length];
+
+					// Same as Intersector.nearestSegmentPoint()
+					float nx, ny;
+					float xDiff = endX - startX;
+					float yDiff = endY - startY;
+					float length2 = xDiff * xDiff + yDiff * yDiff;
+
+					if (length2 == 0) {
+						nx = startX;
+						ny = startY;
+					} else {
+						float t = ((x - startX) * (endX - startX) + (y - startY)
+								* (endY - startY))
+								/ length2;
+
+						if (t < 0) {
+							nx = startX;
+							ny = startY;
+						} else if (t > 1) {
+							nx = endX;
+							ny = endY;
+						} else {
+							nx = startX + t * (endX - startX);
+							ny = startY + t * (endY - startY);
+						}
+					}
+
+					float dist = Vector2.dst(x, y, nx, ny);
+
+					if (dist < bestDist || (dist == bestDist && i < best)) {
+						bestDist = dist;
+						best = i;
+						dest.set(nx, ny);
+					}
+				}
+			}
+		}
+
+		return best;
+	}
+
+	/**
+	 * Same as PolygonUtils.getClampedPointInside().
+	 */
+	public int getClampedPointInside(float x, float y, Vector2 dest) {
+		int index = getClampedPoint(x, y, dest);
+
+		if (dest.x > x) {
+			dest.x += 0.1;
+		} else {
+			dest.x -= 0.1;
+		}
+
+		if (dest.y > y) {
+			dest.y += 0.1;
+		} else {
+			dest.y -= 0.1;
+		}
+
+		return index;
+	}
+}
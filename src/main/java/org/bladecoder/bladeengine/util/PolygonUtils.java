@@ -165,8 +165,16 @@ public class PolygonUtils {
 
 	public static boolean isPointInside(Polygon polygon, float x, float y,
 			boolean toleranceOnOutside) {
-		float verts[] = polygon.getTransformedVertices();
+		return isPointInside(polygon.getTransformedVertices(), x, y,
+				toleranceOnOutside);
+	}
 
+	/**
+	 * Same as isPointInside(Polygon...) for the polygon vertices in world
+	 * coordinates.
+	 */
+	public static boolean isPointInside(float verts[], float x, float y,
+			boolean toleranceOnOutside) {
 		boolean inside = false;
 
 		float oldX = verts[verts.length - 2];
@@ -210,34 +218,27 @@ public class PolygonUtils {
 	}
 
 	public static boolean inLineOfSight(Vector2 p1, Vector2 p2, Polygon polygon, boolean obstacle) {
-		tmp.set(p1);
-		tmp2.set(p2);
-
-//		if ((tmp2.x > tmp.x && !obstacle) || (tmp2.x < tmp.x && obstacle)) {
-//			tmp2.x -= 0.1;
-//			tmp.x += 0.1;
-//		} else {
-//			tmp2.x += 0.1;
-//			tmp.x -= 0.1;
-//		}
-//
-//		tmp.y = lineEquation(p1.x, p1.y, p2.x, p2.y, tmp.x);
-//		tmp2.y = lineEquation(p1.x, p1.y, p2.x, p2.y, tmp2.x);
-
-		float verts[] = polygon.getTransformedVertices();
+		return inLineOfSight(p1.x, p1.y, p2.x, p2.y,
+				polygon.getTransformedVertices(), obstacle);
+	}
+
+	/**
+	 * Same as inLineOfSight(Vector2, Vector2, Polygon...) for the polygon
+	 * vertices in world coordinates. Doesn't use static temporal vars, so it
+	 * can be called from any thread.
+	 */
+	public static boolean inLineOfSight(float p1X, float p1Y, float p2X,
+			float p2Y, float verts[], boolean obstacle) {
 
 		for (int i = 0; i < verts.length; i += 2) {
-			if (lineSegmentsCross(tmp.x, tmp.y, tmp2.x, tmp2.y, verts[i],
+			if (lineSegmentsCross(p1X, p1Y, p2X, p2Y, verts[i],
 					verts[i + 1], verts[(i + 2) % verts.length], verts[(i + 3)
 							% verts.length]))
 				return false;
 		}
 
-		tmp.add(tmp2);
-		tmp.x /= 2;
-		tmp.y /= 2;
-		
-		boolean result = PolygonUtils.isPointInside(polygon, tmp.x, tmp.y, !obstacle);
+		boolean result = PolygonUtils.isPointInside(verts, (p1X + p2X) / 2,
+				(p1Y + p2Y) / 2, !obstacle);
 		
 		return obstacle?!result:result;
 	}
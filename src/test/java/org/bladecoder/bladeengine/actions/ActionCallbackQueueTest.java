@@ -0,0 +1,78 @@
+package org.bladecoder.bladeengine.actions;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class ActionCallbackQueueTest {
+  private final ArrayList<String> called = new ArrayList<String>();
+
+  private ActionCallback createCallback(final String id, final ActionCallback next) {
+    return new ActionCallback() {
+      @Override
+      public void onEvent() {
+        called.add(id);
+
+        if (next != null)
+          ActionCallbackQueue.add(next);
+      }
+    };
+  }
+
+  @After
+  public void tearDown() {
+    ActionCallbackQueue.setTimeBudget(0);
+
+    while (ActionCallbackQueue.getPending() > 0)
+      ActionCallbackQueue.run();
+  }
+
+  @Test
+  public void callbacksAddedWhileRunningWaitWithoutBudget() {
+    ActionCallbackQueue.add(createCallback("a", createCallback("b", null)));
+    ActionCallbackQueue.add(createCallback("c", null));
+
+    ActionCallbackQueue.run();
+    assertEquals("[a, c]", called.toString());
+    assertEquals(2, ActionCallbackQueue.getLastCount());
+    assertEquals(1, ActionCallbackQueue.getPending());
+
+    ActionCallbackQueue.run();
+    assertEquals("[a, c, b]", called.toString());
+    assertEquals(1, ActionCallbackQueue.getLastCount());
+  }
+
+  @Test
+  public void callbacksAddedWhileRunningAreCalledWithinTheBudget() {
+    ActionCallbackQueue.setTimeBudget(10);
+    ActionCallbackQueue.add(createCallback("a", createCallback("b", createCallback("c", null))));
+    ActionCallbackQueue.add(createCallback("d", null));
+
+    ActionCallbackQueue.run();
+    assertEquals("[a, d, b, c]", called.toString());
+    assertEquals(4, ActionCallbackQueue.getLastCount());
+    assertEquals(0, ActionCallbackQueue.getPending());
+  }
+
+  @Test
+  public void callbacksOverTheBudgetAreCalledFirstInTheNextRun() {
+    // Every callback exceeds the budget
+    ActionCallbackQueue.setTimeBudget(0.000000001f);
+    ActionCallbackQueue.add(createCallback("a", createCallback("c", null)));
+    ActionCallbackQueue.add(createCallback("b", null));
+
+    ActionCallbackQueue.run();
+    assertEquals("[a]", called.toString());
+    assertEquals(1, ActionCallbackQueue.getLastCount());
+    assertTrue(ActionCallbackQueue.getLastTime() > 0);
+    assertEquals(2, ActionCallbackQueue.getPending());
+
+    ActionCallbackQueue.run();
+    ActionCallbackQueue.run();
+    assertEquals("[a, b, c]", called.toString());
+    assertEquals(0, ActionCallbackQueue.getPending());
+  }
+}
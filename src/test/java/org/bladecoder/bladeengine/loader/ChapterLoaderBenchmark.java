@@ -0,0 +1,188 @@
+package org.bladecoder.bladeengine.loader;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import javax.xml.parsers.SAXParser;
+import javax.xml.parsers.SAXParserFactory;
+
+import org.bladecoder.bladeengine.actions.Action;
+import org.bladecoder.bladeengine.actions.ActionFactory;
+import org.bladecoder.bladeengine.actions.ActionFactory.ActionCreator;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
+
+import com.badlogic.gdx.utils.reflect.ClassReflection;
+import com.badlogic.gdx.utils.reflect.ReflectionException;
+
+/**
+ * Loads a generated chapter with thousands of actions with ActionFactory
+ * configured as before, resolving the class by reflection for every action,
+ * and with the cached creators. The time to only create the actions is also
+ * compared.
+ *
+ * Not a unit test, run the main method.
+ */
+public class ChapterLoaderBenchmark {
+  private static final int SCENES = 20;
+  private static final int ACTORS = 25;
+  private static final int VERBS = 4;
+  private static final int ACTIONS = 6;
+  private static final int RUNS = 10;
+
+  private static final String[][] ACTION_TYPES = {
+      { "wait", "org.bladecoder.bladeengine.actions.WaitAction", "time", "1" },
+      { "say", "org.bladecoder.bladeengine.actions.SayAction", "text", "Hello" },
+      { "set_state", "org.bladecoder.bladeengine.actions.SetStateAction", "state", "open" },
+      { "lookat", "org.bladecoder.bladeengine.actions.LookAtAction", "text", "Nice" },
+      { "set_active", "org.bladecoder.bladeengine.actions.SetActiveAction", "visible", "false" },
+      { "run_verb", "org.bladecoder.bladeengine.actions.RunVerbAction", "verb", "lookat" } };
+
+  public static void main(String[] args) throws Exception {
+    String chapter = createChapter();
+    ArrayList<String[]> actions = listActions();
+
+    HashMap<String, ActionCreator> creators = new HashMap<String, ActionCreator>();
+    HashMap<String, ActionCreator> reflectionCreators = new HashMap<String, ActionCreator>();
+
+    for (String[] t : ACTION_TYPES) {
+      creators.put(t[0], ActionFactory.getCreator(t[0]));
+      reflectionCreators.put(t[0], createReflectionCreator(t[1]));
+    }
+
+    System.out.println("Chapter with " + actions.size() + " actions");
+
+    for (int i = 0; i < RUNS; i++) {
+      register(reflectionCreators);
+      long t0 = System.nanoTime();
+      loadChapter(chapter);
+      long t1 = System.nanoTime();
+
+      register(creators);
+      loadChapter(chapter);
+      long t2 = System.nanoTime();
+
+      createWithReflection(actions);
+      long t3 = System.nanoTime();
+      createWithFactory(actions);
+      long t4 = System.nanoTime();
+
+      System.out.println("Run " + i + " - chapter load by reflection: " + ms(t1 - t0)
+          + " ms, chapter load by factory: " + ms(t2 - t1)
+          + " ms, actions by reflection: " + ms(t3 - t2)
+          + " ms, actions by factory: " + ms(t4 - t3) + " ms");
+    }
+  }
+
+  /**
+   * What the factory did before: search the class for every action.
+   */
+  private static ActionCreator createReflectionCreator(final String className) {
+    return new ActionCreator() {
+      @Override
+      public Action create() {
+        try {
+          Class<?> c = ClassReflection.forName(className);
+          return (Action) ClassReflection.newInstance(c);
+        } catch (ReflectionException e) {
+          throw new RuntimeException(e);
+        }
+      }
+    };
+  }
+
+  private static void register(HashMap<String, ActionCreator> creators) throws Exception {
+    for (String[] t : ACTION_TYPES) {
+      @SuppressWarnings("unchecked")
+      Class<? extends Action> c = ClassReflection.forName(t[1]);
+      ActionFactory.register(t[0], c, creators.get(t[0]));
+    }
+  }
+
+  private static String ms(long nanos) {
+    return String.format("%.2f", nanos / 1000000.0);
+  }
+
+  private static void loadChapter(String chapter) throws Exception {
+    SAXParserFactory spf = SAXParserFactory.newInstance();
+    spf.setNamespaceAware(true);
+    SAXParser saxParser = spf.newSAXParser();
+
+    ChapterXMLLoader parser = new ChapterXMLLoader(1f);
+    XMLReader xmlReader = saxParser.getXMLReader();
+    xmlReader.setContentHandler(parser);
+    xmlReader.parse(new InputSource(new StringReader(chapter)));
+  }
+
+  /**
+   * What the loader did before: search the class for every action.
+   */
+  private static void createWithReflection(ArrayList<String[]> actions) throws Exception {
+    for (String[] a : actions) {
+      Class<?> c = ClassReflection.forName(a[1]);
+      Action action = (Action) ClassReflection.newInstance(c);
+      action.setParams(getParams(a));
+    }
+  }
+
+  private static void createWithFactory(ArrayList<String[]> actions) {
+    for (String[] a : actions) {
+      ActionFactory.create(a[0], getParams(a));
+    }
+  }
+
+  private static HashMap<String, String> getParams(String[] a) {
+    HashMap<String, String> params = new HashMap<String, String>();
+    params.put(a[2], a[3]);
+    params.put("actor", "actor");
+    return params;
+  }
+
+  private static ArrayList<String[]> listActions() {
+    ArrayList<String[]> actions = new ArrayList<String[]>();
+
+    for (int i = 0; i < SCENES * ACTORS * VERBS * ACTIONS; i++)
+      actions.add(ACTION_TYPES[i % ACTION_TYPES.length]);
+
+    return actions;
+  }
+
+  private static String createChapter() {
+    StringBuilder sb = new StringBuilder();
+    int n = 0;
+
+    sb.append("<chapter>\n");
+
+    for (int s = 0; s < SCENES; s++) {
+      sb.append("<scene id=\"scene").append(s).append("\" player=\"player").append(s)
+          .append("\">\n");
+      sb.append("<actor type=\"atlas\" id=\"player").append(s).append("\" pos=\"0,0\"/>\n");
+
+      for (int a = 0; a < ACTORS; a++) {
+        sb.append("<actor type=\"background\" id=\"actor").append(s).append('_').append(a)
+            .append("\" bbox=\"0,0,10,0,10,10,0,10\" pos=\"0,0\">\n");
+
+        for (int v = 0; v < VERBS; v++) {
+          sb.append("<verb id=\"verb").append(v).append("\">\n");
+
+          for (int i = 0; i < ACTIONS; i++) {
+            String[] t = ACTION_TYPES[n++ % ACTION_TYPES.length];
+            sb.append("<action action_name=\"").append(t[0]).append("\" ").append(t[2])
+                .append("=\"").append(t[3]).append("\"/>\n");
+          }
+
+          sb.append("</verb>\n");
+        }
+
+        sb.append("</actor>\n");
+      }
+
+      sb.append("</scene>\n");
+    }
+
+    sb.append("</chapter>\n");
+
+    return sb.toString();
+  }
+}
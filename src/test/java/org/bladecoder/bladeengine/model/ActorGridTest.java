@@ -0,0 +1,91 @@
+package org.bladecoder.bladeengine.model;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import com.badlogic.gdx.math.Polygon;
+import com.badlogic.gdx.utils.Array;
+
+public class ActorGridTest {
+  private static Actor createActor(String id, float x, float y, float width, float height) {
+    Actor a = new Actor();
+    a.setId(id);
+    a.setBbox(new Polygon(new float[] { 0, 0, 0, height, width, height, width, 0 }));
+    a.setPosition(x, y);
+    return a;
+  }
+
+  private static boolean isCandidate(ActorGrid grid, Actor a, float x, float y) {
+    Array<Actor> candidates = grid.getCandidates(x, y);
+
+    return candidates != null && candidates.contains(a, true);
+  }
+
+  @Test
+  public void actorIsInAllTheCellsOfItsBounds() {
+    ActorGrid grid = new ActorGrid();
+    Actor a = createActor("a", 200, -100, 400, 300);
+    grid.add(a);
+
+    assertTrue(isCandidate(grid, a, 210, -90));
+    assertTrue(isCandidate(grid, a, 590, 190));
+    assertTrue(isCandidate(grid, a, 400, 50));
+    assertFalse(isCandidate(grid, a, 900, 50));
+    assertFalse(isCandidate(grid, a, 400, -600));
+    assertEquals(200, grid.getBounds(a).x, 0);
+    assertEquals(300, grid.getBounds(a).height, 0);
+  }
+
+  @Test
+  public void updatedActorChangesCells() {
+    ActorGrid grid = new ActorGrid();
+    Actor a = createActor("a", 10, 10, 50, 50);
+    Actor b = createActor("b", 20, 20, 50, 50);
+    grid.add(a);
+    grid.add(b);
+
+    a.setPosition(1000, 1000);
+
+    // The grid is not updated automatically
+    assertTrue(isCandidate(grid, a, 30, 30));
+
+    grid.update(a);
+
+    assertFalse(isCandidate(grid, a, 30, 30));
+    assertTrue(isCandidate(grid, b, 30, 30));
+    assertTrue(isCandidate(grid, a, 1030, 1030));
+    assertEquals(1000, grid.getBounds(a).x, 0);
+
+    // Adding it again only updates it
+    grid.add(a);
+    assertEquals(1, grid.getCandidates(1030, 1030).size);
+  }
+
+  @Test
+  public void removedActorIsNotCandidate() {
+    ActorGrid grid = new ActorGrid();
+    Actor a = createActor("a", 10, 10, 600, 50);
+    grid.add(a);
+    grid.remove(a);
+
+    assertFalse(isCandidate(grid, a, 30, 30));
+    assertFalse(isCandidate(grid, a, 590, 30));
+    assertNull(grid.getBounds(a));
+
+    // Actors not in the grid are ignored
+    grid.update(a);
+    assertFalse(isCandidate(grid, a, 30, 30));
+  }
+
+  @Test
+  public void actorWithEmptyBBoxIsNotCandidate() {
+    ActorGrid grid = new ActorGrid();
+    Actor a = new Actor();
+    a.setId("a");
+    a.setBbox(new Polygon());
+    grid.add(a);
+
+    assertFalse(isCandidate(grid, a, 0, 0));
+  }
+}
@@ -0,0 +1,201 @@
+package org.bladecoder.bladeengine.model;
+
+import static org.junit.Assert.*;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+
+import org.bladecoder.bladeengine.actions.LeaveAction;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.badlogic.gdx.Application;
+import com.badlogic.gdx.Gdx;
+
+public class ScenePrefetcherTest {
+  private static final int SCENE_SIZE = 400;
+
+  private Application app;
+
+  private final HashMap<String, TestScene> scenes = new HashMap<String, TestScene>();
+  private Scene current;
+
+  /** The asset manager of the prefetcher is loading */
+  private boolean loading;
+
+  private final World world = new World() {
+    @Override
+    public Scene getCurrentScene() {
+      return current;
+    }
+
+    @Override
+    public Scene getScene(String id) {
+      return scenes.get(id);
+    }
+  };
+
+  private final ScenePrefetcher prefetcher = new ScenePrefetcher() {
+    @Override
+    boolean isLoading() {
+      return loading;
+    }
+
+    @Override
+    boolean hasQueuedAssets() {
+      return false;
+    }
+
+    @Override
+    void recordLoadedAssets() {
+    }
+
+    @Override
+    int getNewTexturesSize(Scene current) {
+      return SCENE_SIZE;
+    }
+  };
+
+  private static class TestScene extends Scene {
+    int queued;
+    int disposed;
+
+    @Override
+    public void loadAssets() {
+      queued++;
+    }
+
+    @Override
+    public void retrieveAssets() {
+      fail("Prefetched scenes are retrieved when entered");
+    }
+
+    @Override
+    public void dispose() {
+      disposed++;
+    }
+  }
+
+  private TestScene createScene(String id, String... targets) {
+    TestScene s = new TestScene();
+    s.setId(id);
+
+    Verb v = new Verb("leave");
+
+    for (String target : targets) {
+      HashMap<String, String> params = new HashMap<String, String>();
+      params.put("target", target);
+
+      LeaveAction a = new LeaveAction();
+      a.setParams(params);
+      v.add(a);
+    }
+
+    s.getVerbManager().addVerb("leave", v);
+    scenes.put(id, s);
+
+    return s;
+  }
+
+  @Before
+  public void setUp() {
+    // EngineLogger writes to Gdx.app
+    app = Gdx.app;
+    Gdx.app = (Application) Proxy.newProxyInstance(getClass().getClassLoader(),
+        new Class<?>[] { Application.class }, new InvocationHandler() {
+          @Override
+          public Object invoke(Object proxy, Method method, Object[] args) {
+            return null;
+          }
+        });
+  }
+
+  @After
+  public void tearDown() {
+    Gdx.app = app;
+  }
+
+  @Test
+  public void scenesArePrefetchedUntilTheBudgetIsExceeded() {
+    current = createScene("a", "b", "c", "d");
+    TestScene b = createScene("b");
+    TestScene c = createScene("c");
+    TestScene d = createScene("d");
+
+    prefetcher.setBudget(SCENE_SIZE * 2 + SCENE_SIZE / 2);
+
+    // One scene at a time
+    prefetcher.update(world);
+    assertEquals(1, b.queued);
+    assertEquals(0, c.queued);
+
+    for (int i = 0; i < 4; i++)
+      prefetcher.update(world);
+
+    assertTrue(prefetcher.isPrefetched(b));
+    assertTrue(prefetcher.isPrefetched(c));
+    assertFalse(prefetcher.isPrefetched(d));
+    assertEquals(1, d.queued);
+    assertEquals(1, d.disposed);
+    assertEquals(SCENE_SIZE * 2, prefetcher.getUsedBytes());
+
+    // Entering a prefetched scene is a hit
+    prefetcher.enter(b);
+    current = b;
+    assertEquals(1, prefetcher.getHits());
+    assertEquals(0, prefetcher.getMisses());
+    assertFalse(prefetcher.isPrefetched(b));
+    assertEquals(0, b.disposed);
+    assertEquals(SCENE_SIZE, prefetcher.getUsedBytes());
+
+    // The scenes not reachable from the new scene are released
+    prefetcher.update(world);
+    assertFalse(prefetcher.isPrefetched(c));
+    assertEquals(1, c.disposed);
+    assertEquals(0, prefetcher.getUsedBytes());
+  }
+
+  @Test
+  public void enteringAnotherSceneCancelsTheLoadingScene() {
+    current = createScene("a", "b", "c");
+    TestScene b = createScene("b");
+    TestScene c = createScene("c");
+
+    loading = true;
+    prefetcher.update(world);
+    assertEquals(1, b.queued);
+
+    prefetcher.enter(c);
+    current = c;
+    assertEquals(1, b.disposed);
+    assertEquals(0, prefetcher.getHits());
+    assertEquals(1, prefetcher.getMisses());
+
+    // Nothing is prefetched from 'c'
+    loading = false;
+    prefetcher.update(world);
+    assertFalse(prefetcher.isPrefetched(b));
+    assertEquals(0, prefetcher.getUsedBytes());
+  }
+
+  @Test
+  public void enteringTheLoadingSceneLetsTheWorldFinishIt() {
+    current = createScene("a", "b");
+    TestScene b = createScene("b");
+
+    loading = true;
+    prefetcher.update(world);
+    prefetcher.enter(b);
+    current = b;
+
+    assertEquals(0, b.disposed);
+    assertEquals(1, prefetcher.getMisses());
+
+    loading = false;
+    prefetcher.update(world);
+    assertFalse(prefetcher.isPrefetched(b));
+  }
+}
@@ -0,0 +1,264 @@
+package org.bladecoder.bladeengine.model;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Random;
+
+import org.bladecoder.bladeengine.actions.ActionCallback;
+import org.bladecoder.bladeengine.anim.FrameAnimation;
+import org.junit.Test;
+
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.math.Polygon;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.Json;
+import com.badlogic.gdx.utils.JsonValue;
+
+public class SceneTest {
+  /**
+   * The getActorAt() implementation before the actor grid: the last hit actor
+   * in the scene order.
+   */
+  private static Actor scanActorAt(ArrayList<Actor> ordered, float x, float y) {
+    for (int i = ordered.size() - 1; i >= 0; i--) {
+      Actor a = ordered.get(i);
+
+      if (a.hit(x, y) && a.hasInteraction())
+        return a;
+    }
+
+    return null;
+  }
+
+  private static Actor createActor(String id, Random random) {
+    Actor a = new Actor();
+    float w = 20 + random.nextFloat() * 400;
+    float h = 20 + random.nextFloat() * 400;
+    a.setId(id);
+    a.setBbox(new Polygon(new float[] { 0, 0, 0, h, w, h, w, 0 }));
+    a.setPosition(random.nextFloat() * 1000, random.nextFloat() * 1000);
+    a.setInteraction(random.nextBoolean());
+    return a;
+  }
+
+  @Test
+  public void actorAtIsEqualToFullScan() {
+    Random random = new Random(1);
+    Scene scene = new Scene();
+    ArrayList<Actor> ordered = new ArrayList<Actor>();
+
+    for (int i = 0; i < 40; i++) {
+      Actor a = createActor("actor" + i, random);
+      scene.addActor(a);
+      ordered.add(a);
+    }
+
+    float x = 0, y = 0;
+
+    for (int i = 0; i < 5000; i++) {
+      Actor a = ordered.get(random.nextInt(ordered.size()));
+
+      switch (random.nextInt(5)) {
+      case 0:
+        x = random.nextFloat() * 1400 - 200;
+        y = random.nextFloat() * 1400 - 200;
+        break;
+      case 1:
+        a.setPosition(random.nextFloat() * 1000, random.nextFloat() * 1000);
+        break;
+      case 2:
+        // Small moves near the last point
+        a.setPosition(x - random.nextFloat() * 50, y - random.nextFloat() * 50);
+        break;
+      case 3:
+        a.setInteraction(!a.hasInteraction());
+        break;
+      case 4:
+        scene.removeActor(a);
+        ordered.remove(a);
+
+        a = createActor("actor" + (100 + i), random);
+        scene.addActor(a);
+        ordered.add(a);
+        break;
+      }
+
+      assertSame(scanActorAt(ordered, x, y), scene.getActorAt(x, y));
+    }
+  }
+
+  /**
+   * Renderer that counts the draw() calls. The drawn area is not centered in
+   * the position, like the Spine skeletons.
+   */
+  private static class CountingRenderer implements SpriteRenderer {
+    final Rectangle bounds;
+    int draws;
+
+    CountingRenderer(float offsetX, float offsetY, float width, float height) {
+      bounds = new Rectangle(offsetX, offsetY, width, height);
+    }
+
+    @Override
+    public void draw(SpriteBatch batch, float x, float y, float scale) {
+      draws++;
+    }
+
+    @Override
+    public Rectangle getBounds(float x, float y, float scale, Rectangle out) {
+      return out.set(x + bounds.x * scale, y + bounds.y * scale, bounds.width * scale,
+          bounds.height * scale);
+    }
+
+    @Override
+    public float getWidth() {
+      return bounds.width;
+    }
+
+    @Override
+    public float getHeight() {
+      return bounds.height;
+    }
+
+    @Override
+    public void update(float delta) {
+    }
+
+    @Override
+    public boolean isAnimating() {
+      return false;
+    }
+
+    @Override
+    public FrameAnimation getCurrentFrameAnimation() {
+      return null;
+    }
+
+    @Override
+    public String getCurrentFrameAnimationId() {
+      return null;
+    }
+
+    @Override
+    public void lookat(float x, float y, Vector2 pf) {
+    }
+
+    @Override
+    public void lookat(String direction) {
+    }
+
+    @Override
+    public void stand() {
+    }
+
+    @Override
+    public void startWalkFA(Vector2 p0, Vector2 pf) {
+    }
+
+    @Override
+    public void startFrameAnimation(String id, int repeatType, int count, ActionCallback cb) {
+    }
+
+    @Override
+    public void addFrameAnimation(FrameAnimation fa) {
+    }
+
+    @Override
+    public void setInitFrameAnimation(String fa) {
+    }
+
+    @Override
+    public String getInitFrameAnimation() {
+      return null;
+    }
+
+    @Override
+    public String[] getInternalAnimations(String source) {
+      return null;
+    }
+
+    @Override
+    public HashMap<String, FrameAnimation> getFrameAnimations() {
+      return null;
+    }
+
+    @Override
+    public void loadAssets() {
+    }
+
+    @Override
+    public void retrieveAssets() {
+    }
+
+    @Override
+    public void dispose() {
+    }
+
+    @Override
+    public void write(Json json) {
+    }
+
+    @Override
+    public void read(Json json, JsonValue jsonData) {
+    }
+  }
+
+  private static SpriteActor createSpriteActor(String id, float x, float y,
+      CountingRenderer renderer) {
+    SpriteActor a = new SpriteActor();
+    a.setId(id);
+    a.setRenderer(renderer);
+    a.setBbox(new Polygon(new float[] { -10, 0, -10, 20, 10, 20, 10, 0 }));
+    a.setPosition(x, y);
+    return a;
+  }
+
+  @Test
+  public void actorsOutOfViewAreCulled() {
+    Scene scene = new Scene();
+    scene.getCamera().viewportWidth = 800;
+    scene.getCamera().viewportHeight = 600;
+    scene.getCamera().position.set(400, 300, 0);
+
+    CountingRenderer inside = new CountingRenderer(-50, 0, 100, 200);
+    CountingRenderer outside = new CountingRenderer(-50, 0, 100, 200);
+    CountingRenderer offset = new CountingRenderer(-300, 0, 250, 100);
+    CountingRenderer hidden = new CountingRenderer(-50, 0, 100, 200);
+    CountingRenderer fg = new CountingRenderer(-50, 0, 100, 200);
+
+    scene.addActor(createSpriteActor("inside", 400, 300, inside));
+    scene.addActor(createSpriteActor("outside", 1200, 300, outside));
+
+    // Only the bounds to the left of the position are in the view
+    scene.addActor(createSpriteActor("offset", 1000, 100, offset));
+
+    SpriteActor a = createSpriteActor("hidden", 400, 300, hidden);
+    a.setVisible(false);
+    scene.addActor(a);
+
+    scene.addFgActor(createSpriteActor("fg", -200, 300, fg));
+
+    scene.draw(null);
+
+    assertEquals(1, inside.draws);
+    assertEquals(0, outside.draws);
+    assertEquals(1, offset.draws);
+    assertEquals(0, hidden.draws);
+    assertEquals(0, fg.draws);
+    assertEquals(2, scene.getDrawnItems());
+    assertEquals(2, scene.getCulledItems());
+
+    // The counters are reset on every draw
+    scene.getCamera().position.set(1100, 300, 0);
+    scene.draw(null);
+
+    assertEquals(1, inside.draws);
+    assertEquals(1, outside.draws);
+    assertEquals(2, offset.draws);
+    assertEquals(2, scene.getDrawnItems());
+    assertEquals(2, scene.getCulledItems());
+  }
+}
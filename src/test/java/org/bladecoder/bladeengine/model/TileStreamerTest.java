@@ -0,0 +1,107 @@
+package org.bladecoder.bladeengine.model;
+
+import static org.junit.Assert.*;
+
+import java.util.HashSet;
+
+import org.junit.Test;
+
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.Texture.TextureFilter;
+import com.badlogic.gdx.math.Rectangle;
+
+public class TileStreamerTest {
+  private static final int TILES = 10;
+  private static final int TILE_WIDTH = 400;
+  private static final int MAX_LOADED_TILES = 6;
+
+  /** Files queued in the fake asset manager */
+  private final HashSet<String> queued = new HashSet<String>();
+
+  private TileStreamer createStreamer() {
+    String[] filenames = new String[TILES];
+    int[] widths = new int[TILES];
+    int[] heights = new int[TILES];
+
+    for (int i = 0; i < TILES; i++) {
+      filenames[i] = "tile" + i + ".png";
+      widths[i] = TILE_WIDTH;
+      heights[i] = 600;
+    }
+
+    // Textures need GL, the tiles stay pending
+    return new TileStreamer(filenames, widths, heights, new Texture[TILES], MAX_LOADED_TILES,
+        TextureFilter.Linear, TextureFilter.Linear) {
+      @Override
+      void loadTexture(String filename) {
+        assertTrue(queued.add(filename));
+      }
+
+      @Override
+      void unloadTexture(String filename) {
+        assertTrue(queued.remove(filename));
+      }
+
+      @Override
+      Texture getLoadedTexture(String filename) {
+        return null;
+      }
+
+      @Override
+      void updateLoading() {
+      }
+    };
+  }
+
+  private void assertQueued(int... tiles) {
+    HashSet<String> expected = new HashSet<String>();
+
+    for (int i : tiles)
+      expected.add("tile" + i + ".png");
+
+    assertEquals(expected, queued);
+  }
+
+  @Test
+  public void viewTilesAndOneViewAheadAreLoaded() {
+    TileStreamer s = createStreamer();
+
+    s.loadAssets(new Rectangle(0, 0, 800, 600));
+    assertQueued(0, 1, 2, 3);
+
+    // Slow scroll, one view width ahead
+    s.update(new Rectangle(1, 0, 800, 600));
+    assertQueued(0, 1, 2, 3, 4);
+    assertEquals(5, s.getNumLoadedTiles());
+    assertTrue(s.isTile("tile4.png"));
+    assertFalse(s.isTile("background.png"));
+  }
+
+  @Test
+  public void fastScrollPrefetchesFurtherAhead() {
+    TileStreamer s = createStreamer();
+
+    s.loadAssets(new Rectangle(0, 0, 800, 600));
+    s.update(new Rectangle(200, 0, 800, 600));
+    assertQueued(0, 1, 2, 3, 4, 5);
+
+    // The tiles behind are unloaded to prefetch the tiles ahead
+    s.update(new Rectangle(2400, 0, 800, 600));
+    assertQueued(4, 5, 6, 7, 8, 9);
+
+    // Scrolling back, the farthest tiles ahead are unloaded first
+    s.update(new Rectangle(1600, 0, 800, 600));
+    assertQueued(0, 1, 2, 3, 4, 5);
+  }
+
+  @Test
+  public void viewTilesAreLoadedOverTheBudget() {
+    TileStreamer s = createStreamer();
+
+    s.loadAssets(new Rectangle(0, 0, 800, 600));
+    s.update(new Rectangle(100, 0, 3000, 600));
+
+    assertQueued(0, 1, 2, 3, 4, 5, 6, 7);
+    assertEquals(8, s.getNumLoadedTiles());
+  }
+}
@@ -0,0 +1,123 @@
+package org.bladecoder.bladeengine.model;
+
+import static org.junit.Assert.*;
+
+import java.util.HashMap;
+
+import org.bladecoder.bladeengine.actions.Action;
+import org.bladecoder.bladeengine.actions.BaseCallbackAction;
+import org.bladecoder.bladeengine.actions.Param;
+import org.junit.After;
+import org.junit.Test;
+
+public class VerbContextTest {
+  /** Ends when onEvent() is called, like a walk that is replaced by the next walk */
+  private static class WaitAction extends BaseCallbackAction implements Action {
+    int runs;
+
+    @Override
+    public void run() {
+      runs++;
+    }
+
+    @Override
+    public void setParams(HashMap<String, String> params) {
+    }
+
+    @Override
+    public String getInfo() {
+      return null;
+    }
+
+    @Override
+    public Param[] getParams() {
+      return null;
+    }
+  }
+
+  private static class CountAction implements Action {
+    int runs;
+
+    @Override
+    public void run() {
+      runs++;
+    }
+
+    @Override
+    public void setParams(HashMap<String, String> params) {
+    }
+
+    @Override
+    public String getInfo() {
+      return null;
+    }
+
+    @Override
+    public Param[] getParams() {
+      return null;
+    }
+  }
+
+  @After
+  public void tearDown() {
+    VerbContext.clear();
+  }
+
+  @Test
+  public void verbRunTwiceWhileWaitingFinishesBothRuns() {
+    WaitAction wait = new WaitAction();
+    CountAction count = new CountAction();
+    Verb verb = new Verb("walk");
+    verb.add(wait);
+    verb.add(count);
+
+    VerbContext first = VerbContext.run(verb);
+    int firstId = first.getId();
+    VerbContext second = VerbContext.run(verb);
+    int secondId = second.getId();
+
+    assertEquals(2, wait.runs);
+    assertEquals(2, VerbContext.getRunning().size());
+    assertSame(first, VerbContext.find(firstId));
+    assertSame(second, VerbContext.find(secondId));
+
+    // The action ends once, like a walk replaced by the second walk
+    wait.onEvent();
+    assertEquals(2, count.runs);
+    assertTrue(VerbContext.getRunning().isEmpty());
+
+    wait.onEvent();
+    assertEquals(2, count.runs);
+  }
+
+  @Test
+  public void actionStartedAgainWhileEndingWaitsForTheNextEnd() {
+    WaitAction wait = new WaitAction();
+    CountAction count = new CountAction();
+
+    final Verb second = new Verb("second");
+    second.add(wait);
+    second.add(count);
+
+    Verb first = new Verb("first");
+    first.add(wait);
+    first.add(new CountAction() {
+      @Override
+      public void run() {
+        VerbContext.run(second);
+      }
+    });
+
+    VerbContext.run(first);
+
+    wait.onEvent();
+    assertEquals(2, wait.runs);
+    assertEquals(0, count.runs);
+    assertEquals(1, VerbContext.getRunning().size());
+    assertSame(second, VerbContext.getRunning().get(0).getVerb());
+
+    wait.onEvent();
+    assertEquals(1, count.runs);
+    assertTrue(VerbContext.getRunning().isEmpty());
+  }
+}
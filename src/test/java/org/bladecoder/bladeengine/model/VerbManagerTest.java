@@ -0,0 +1,123 @@
+package org.bladecoder.bladeengine.model;
+
+import static org.junit.Assert.*;
+
+import java.util.HashMap;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class VerbManagerTest {
+  /** Ids, targets and states, some of them with dots */
+  private static final String[] NAMES = { "lookat", "pickup", "use", "door", "key", "open",
+      "closed", "use.door", "door.open", "key.closed", "a", "a.b", "b", "b.c", "c", "" };
+
+  private static final String[] KEYS = { "lookat", "lookat.open", "lookat.door",
+      "lookat.door.open", "pickup.key", "pickup.key.closed", "use", "use.door", "use.door.open",
+      "use.door.open.closed", "use.key.closed", "door.open", "a", "a.b", "a.b.c", "a.b.c.b.c",
+      "b.c", "c.", "use." };
+
+  private final HashMap<String, Verb> defaultVerbs = new HashMap<String, Verb>(
+      VerbManager.getDefaultVerbs());
+
+  @After
+  public void tearDown() {
+    VerbManager.getDefaultVerbs().clear();
+    VerbManager.getDefaultVerbs().putAll(defaultVerbs);
+  }
+
+  /** The lookup with concatenated keys */
+  private static Verb getVerbByKey(HashMap<String, Verb> verbs, String id, String state,
+      String target) {
+    Verb v = null;
+
+    if (target != null) {
+      if (state != null)
+        v = verbs.get(id + "." + target + "." + state);
+
+      if (v == null)
+        v = verbs.get(id + "." + target);
+    }
+
+    if (v == null && state != null)
+      v = verbs.get(id + "." + state);
+
+    if (v == null)
+      v = verbs.get(id);
+
+    return v;
+  }
+
+  private static void assertSameLookups(VerbManager vm) {
+    for (String id : NAMES) {
+      for (int i = -1; i < NAMES.length; i++) {
+        String state = i == -1 ? null : NAMES[i];
+
+        for (int j = -1; j < NAMES.length; j++) {
+          String target = j == -1 ? null : NAMES[j];
+
+          assertSame(id + " " + state + " " + target,
+              getVerbByKey(vm.getVerbs(), id, state, target), vm.getVerb(id, state, target));
+        }
+      }
+    }
+  }
+
+  @Test
+  public void lookupIsEqualToConcatenatedKeys() {
+    VerbManager vm = new VerbManager();
+
+    for (String key : KEYS)
+      vm.addVerb(key, new Verb(key));
+
+    assertSameLookups(vm);
+
+    // Search order
+    assertEquals("lookat.door.open", vm.getVerb("lookat", "open", "door").getId());
+    assertEquals("lookat.door", vm.getVerb("lookat", "closed", "door").getId());
+    assertEquals("lookat.open", vm.getVerb("lookat", "open", "key").getId());
+    assertEquals("lookat", vm.getVerb("lookat", "closed", "key").getId());
+    assertNull(vm.getVerb("pickup", null, null));
+
+    // Ids, targets and states with dots
+    assertEquals("use.door.open.closed", vm.getVerb("use.door", "closed", "open").getId());
+    assertEquals("a.b.c.b.c", vm.getVerb("a", "b.c", "b.c").getId());
+    assertEquals("a.b.c", vm.getVerb("a.b", "c", null).getId());
+    assertEquals("c.", vm.getVerb("c", "", null).getId());
+  }
+
+  @Test
+  public void verbsAddedAfterALookupAreFound() {
+    VerbManager vm = new VerbManager();
+    vm.addVerb("use", new Verb("use"));
+    assertEquals("use", vm.getVerb("use", "open", "door").getId());
+
+    vm.addVerb("use.door", new Verb("use.door"));
+    assertEquals("use.door", vm.getVerb("use", "open", "door").getId());
+
+    vm.getVerbs().clear();
+
+    for (String key : KEYS)
+      vm.addVerb(key, new Verb(key));
+
+    assertSameLookups(vm);
+  }
+
+  @Test
+  public void defaultVerbIsTheLastFallback() {
+    VerbManager vm = new VerbManager();
+    vm.addVerb("use.door", new Verb("use.door"));
+
+    Verb lookat = new Verb("lookat");
+    Verb use = new Verb("use");
+    VerbManager.addDefaultVerb("lookat", lookat);
+    VerbManager.addDefaultVerb("use", use);
+
+    assertSame(lookat, vm.getVerbOrDefault("lookat", "open", "door"));
+    assertNull(vm.getVerb("lookat", "open", "door"));
+    assertEquals("use.door", vm.getVerbOrDefault("use", "open", "door").getId());
+    assertSame(use, vm.getVerbOrDefault("use", "open", "key"));
+    assertSame(use, vm.getVerbOrDefault("use", null, null));
+    assertNull(vm.getVerbOrDefault("pickup", null, "door"));
+  }
+}
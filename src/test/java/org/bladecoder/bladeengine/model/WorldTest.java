@@ -0,0 +1,206 @@
+package org.bladecoder.bladeengine.model;
+
+import static org.junit.Assert.*;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+import org.bladecoder.bladeengine.actions.ActionCallback;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.badlogic.gdx.Application;
+import com.badlogic.gdx.Gdx;
+
+public class WorldTest {
+  /** Exact in binary, so the frame times add up without rounding */
+  private static final float STEP = 1 / 64f;
+
+  private Application app;
+
+  /** Moves at constant speed, like an actor walking */
+  private static class TestScene extends Scene {
+    int steps;
+    float x;
+
+    @Override
+    public void loadAssets() {
+    }
+
+    @Override
+    public void retrieveAssets() {
+    }
+
+    @Override
+    public void update(float delta) {
+      steps++;
+      x += 100 * delta;
+    }
+
+    @Override
+    public void dispose() {
+    }
+  }
+
+  private static class TestWorld extends World {
+    final TestScene scene = new TestScene();
+    float timerTime = -1;
+
+    TestWorld() {
+      setHeadless(true);
+      init();
+      setTimeStep(STEP);
+
+      // Prefetching needs the asset manager
+      getScenePrefetcher().setBudget(0);
+
+      scene.setId("test");
+      addScene(scene);
+      setCurrentScene(scene);
+
+      // Queues and retrieves the scene assets
+      update(0);
+      update(0);
+      assertEquals(AssetState.LOADED, getAssetState());
+
+      addTimer(1.5f, new ActionCallback() {
+        @Override
+        public void onEvent() {
+          timerTime = getTimeOfGame();
+        }
+      });
+    }
+
+    @Override
+    boolean isLoadingAssets() {
+      return false;
+    }
+  }
+
+  @Before
+  public void setUp() {
+    // EngineLogger writes to Gdx.app
+    app = Gdx.app;
+    Gdx.app = (Application) Proxy.newProxyInstance(getClass().getClassLoader(),
+        new Class<?>[] { Application.class }, new InvocationHandler() {
+          @Override
+          public Object invoke(Object proxy, Method method, Object[] args) {
+            return null;
+          }
+        });
+  }
+
+  @After
+  public void tearDown() {
+    Gdx.app = app;
+  }
+
+  @Test
+  public void frameTimeNotSteppedIsCarriedToTheNextFrame() {
+    TestWorld world = new TestWorld();
+
+    world.update(STEP / 2);
+    assertEquals(0, world.scene.steps);
+    assertEquals(0.5f, world.getInterpolationAlpha(), 0);
+
+    world.update(STEP / 2);
+    assertEquals(1, world.scene.steps);
+    assertEquals(0, world.getInterpolationAlpha(), 0);
+
+    world.update(STEP * 2.25f);
+    assertEquals(3, world.scene.steps);
+    assertEquals(0.25f, world.getInterpolationAlpha(), 0);
+    assertEquals(STEP * 3, world.getTimeOfGame(), 0);
+  }
+
+  @Test
+  public void longFrameIsCappedAndTheRemainderDropped() {
+    TestWorld world = new TestWorld();
+
+    world.update(STEP * (World.MAX_STEPS_PER_FRAME + 3.5f));
+    assertEquals(World.MAX_STEPS_PER_FRAME, world.scene.steps);
+    assertEquals(STEP * World.MAX_STEPS_PER_FRAME, world.getTimeOfGame(), 0);
+    assertEquals(0, world.getInterpolationAlpha(), 0);
+
+    // The game doesn't try to catch up
+    world.update(STEP / 2);
+    assertEquals(World.MAX_STEPS_PER_FRAME, world.scene.steps);
+    assertEquals(0.5f, world.getInterpolationAlpha(), 0);
+  }
+
+  @Test
+  public void sceneChangeStopsTheSteps() {
+    final TestWorld world = new TestWorld();
+    final TestScene next = new TestScene();
+    next.setId("next");
+    world.addScene(next);
+
+    world.setCurrentScene(new TestScene() {
+      @Override
+      public void update(float delta) {
+        super.update(delta);
+
+        if (steps == 2)
+          world.setCurrentScene(next);
+      }
+    });
+
+    world.update(0);
+    world.update(0);
+    world.update(STEP * 4);
+    assertEquals(World.AssetState.LOAD_ASSETS_AND_INIT_SCENE, world.getAssetState());
+    assertEquals(STEP * 2, world.getTimeOfGame(), 0);
+
+    // The new scene starts when its assets are loaded, without the time
+    // left of the frame
+    world.update(0);
+    world.update(0);
+    assertEquals(World.AssetState.LOADED, world.getAssetState());
+    assertEquals(0, next.steps);
+
+    world.update(STEP);
+    assertEquals(1, next.steps);
+  }
+
+  @Test
+  public void variableStepUsesTheFrameTime() {
+    TestWorld world = new TestWorld();
+    world.setTimeStep(0);
+
+    world.update(STEP * 8.5f);
+    assertEquals(1, world.scene.steps);
+    assertEquals(STEP * 8.5f, world.getTimeOfGame(), 0);
+    assertEquals(1, world.getInterpolationAlpha(), 0);
+  }
+
+  @Test
+  public void headlessRunsReachTheSameStateAtAnyFrameRate() {
+    TestWorld fixed = new TestWorld();
+
+    // 10 seconds, one step per frame
+    for (int i = 0; i < 640; i++)
+      fixed.update(STEP);
+
+    // 10 seconds, frames of 1/128 to 5/128 seconds
+    TestWorld variable = new TestWorld();
+    int frame = 0;
+
+    for (float time = 0; time < 10; frame++) {
+      float delta = Math.min((frame % 5 + 1) / 128f, 10 - time);
+      variable.update(delta);
+      time += delta;
+    }
+
+    assertEquals(640, fixed.scene.steps);
+    assertEquals(fixed.scene.steps, variable.scene.steps);
+    assertEquals(fixed.scene.x, variable.scene.x, 0);
+    assertEquals(fixed.getTimeOfGame(), variable.getTimeOfGame(), 0);
+    assertEquals(1.5f, fixed.timerTime, 0);
+
+    // The callbacks run once per frame, after the steps of the frame
+    assertTrue(variable.timerTime >= 1.5f);
+    assertTrue(variable.timerTime < 1.5f + World.MAX_STEPS_PER_FRAME * STEP);
+  }
+}
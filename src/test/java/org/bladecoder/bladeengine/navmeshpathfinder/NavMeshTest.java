@@ -0,0 +1,171 @@
+package org.bladecoder.bladeengine.navmeshpathfinder;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import org.bladecoder.bladeengine.util.PolygonUtils;
+import org.junit.Test;
+
+import com.badlogic.gdx.math.Intersector;
+import com.badlogic.gdx.math.Polygon;
+import com.badlogic.gdx.math.Vector2;
+
+public class NavMeshTest {
+  private static final float[] ROOM = { 0, 0, 400, 0, 400, 200, 0, 200 };
+
+  private static NavMesh createMesh(float[]... obstacles) {
+    ArrayList<Polygon> list = new ArrayList<Polygon>();
+
+    for (float[] o : obstacles)
+      list.add(new Polygon(o));
+
+    NavMesh mesh = new NavMesh();
+    mesh.build(new Polygon(ROOM), list);
+    return mesh;
+  }
+
+  private static float[] rect(float x1, float y1, float x2, float y2) {
+    return new float[] { x1, y1, x1, y2, x2, y2, x2, y1 };
+  }
+
+  @Test
+  public void pathInConvexRoomIsStraight() {
+    NavMesh mesh = createMesh();
+    ArrayList<Vector2> path = new ArrayList<Vector2>();
+
+    assertTrue(mesh.findPath(10, 10, 390, 190, path));
+    assertEquals(2, path.size());
+    assertEquals(new Vector2(10, 10), path.get(0));
+    assertEquals(new Vector2(390, 190), path.get(1));
+  }
+
+  @Test
+  public void pathGoesAroundHoleCorners() {
+    float[] hole = rect(150, 50, 250, 150);
+
+    // The result must not depend on the obstacle winding
+    float[] reversed = new float[] { 150, 50, 250, 50, 250, 150, 150, 150 };
+
+    for (float[] o : new float[][] { hole, reversed }) {
+      ArrayList<Vector2> path = new ArrayList<Vector2>();
+
+      assertTrue(createMesh(o).findPath(100, 100, 300, 100, path));
+      assertAvoids(path, hole);
+
+      // Tight around 2 corners of the hole: 2 diagonals and the side
+      assertEquals(4, path.size());
+      assertEquals(2 * Math.sqrt(50 * 50 * 2) + 100, length(path), 0.1f);
+    }
+  }
+
+  @Test
+  public void obstacleTouchingTheBorderIsCut() {
+    float[][] obstacles = { rect(150, 0, 250, 120), rect(150, -50, 250, 120) };
+
+    for (float[] o : obstacles) {
+      ArrayList<Vector2> path = new ArrayList<Vector2>();
+
+      assertTrue(createMesh(o).findPath(100, 20, 300, 20, path));
+      assertAvoids(path, o);
+      assertEquals(2 * Math.sqrt(50 * 50 + 100 * 100) + 100, length(path), 0.1f);
+    }
+  }
+
+  @Test
+  public void overlappingObstaclesAreMerged() {
+    float[] o1 = rect(150, 0, 200, 150);
+    float[] o2 = rect(180, 100, 300, 150);
+    ArrayList<Vector2> path = new ArrayList<Vector2>();
+
+    assertTrue(createMesh(o1, o2).findPath(100, 20, 250, 20, path));
+    assertAvoids(path, o1);
+    assertAvoids(path, o2);
+  }
+
+  @Test
+  public void offMeshTargetIsClamped() {
+    NavMesh mesh = createMesh(rect(150, 50, 250, 150));
+    ArrayList<Vector2> path = new ArrayList<Vector2>();
+
+    assertTrue(mesh.findPath(100, 100, 500, 100, path));
+
+    Vector2 last = path.get(path.size() - 1);
+    assertEquals(400, last.x, 1);
+    assertEquals(100, last.y, 1);
+    assertTrue(PolygonUtils.isPointInside(ROOM, last.x, last.y, false));
+    assertAvoids(path, rect(150, 50, 250, 150));
+  }
+
+  @Test
+  public void locateGivesTheSameTriangleAsTestingAll() {
+    NavMesh mesh = createMesh(rect(150, 50, 250, 150), rect(20, 20, 60, 60),
+        rect(300, 0, 320, 80));
+    Random random = new Random(1);
+    Vector2 dest = new Vector2();
+    Vector2 expectedDest = new Vector2();
+
+    for (int i = 0; i < 2000; i++) {
+      float x = random.nextFloat() * 600 - 100;
+      float y = random.nextFloat() * 400 - 100;
+
+      NavNodeTriangle t = mesh.locate(x, y, dest);
+
+      assertSame(locateAll(mesh, x, y, expectedDest), t);
+      assertEquals(expectedDest, dest);
+    }
+  }
+
+  /**
+   * The first triangle containing the point or the nearest one.
+   */
+  private static NavNodeTriangle locateAll(NavMesh mesh, float x, float y, Vector2 dest) {
+    dest.set(x, y);
+
+    for (NavNodeTriangle t : mesh.getTriangles()) {
+      if (t.contains(x, y))
+        return t;
+    }
+
+    NavNodeTriangle nearest = null;
+    float minDist = Float.MAX_VALUE;
+    Vector2 tmp = new Vector2();
+
+    for (NavNodeTriangle t : mesh.getTriangles()) {
+      for (int k = 0; k < 3; k++) {
+        Intersector.nearestSegmentPoint(t.verts[k * 2], t.verts[k * 2 + 1],
+            t.verts[(k * 2 + 2) % 6], t.verts[(k * 2 + 3) % 6], x, y, tmp);
+
+        if (tmp.dst2(x, y) < minDist) {
+          minDist = tmp.dst2(x, y);
+          nearest = t;
+          dest.set(tmp);
+        }
+      }
+    }
+
+    dest.lerp(tmp.set(nearest.centerX, nearest.centerY), 0.01f);
+
+    return nearest;
+  }
+
+  private static void assertAvoids(ArrayList<Vector2> path, float[] obstacle) {
+    for (int i = 0; i < path.size() - 1; i++) {
+      Vector2 p1 = path.get(i);
+      Vector2 p2 = path.get(i + 1);
+
+      assertTrue(p1 + " " + p2,
+          PolygonUtils.inLineOfSight(p1.x, p1.y, p2.x, p2.y, obstacle, true));
+    }
+  }
+
+  private static float length(ArrayList<Vector2> path) {
+    float length = 0;
+
+    for (int i = 0; i < path.size() - 1; i++)
+      length += path.get(i).dst(path.get(i + 1));
+
+    return length;
+  }
+}
@@ -0,0 +1,401 @@
+package org.bladecoder.bladeengine.polygonalpathfinder;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+
+import org.bladecoder.bladeengine.actions.ActionCallbackQueue;
+import org.bladecoder.bladeengine.pathfinder.NavNode;
+import org.bladecoder.bladeengine.util.PolygonUtils;
+import org.junit.Test;
+
+import com.badlogic.gdx.math.Polygon;
+import com.badlogic.gdx.math.Vector2;
+
+public class PolygonalNavGraphTest {
+  private static PolygonalNavGraph createGraph(float obstacleX) {
+    PolygonalNavGraph graph = new PolygonalNavGraph();
+    graph.setWalkZone(new Polygon(new float[] { 0, 0, 200, 0, 200, 100, 0, 100 }));
+    graph.addObstacle(new Polygon(new float[] { obstacleX, 20, obstacleX, 80,
+        obstacleX + 20, 80, obstacleX + 20, 20 }));
+    graph.createInitialGraph();
+    return graph;
+  }
+
+  @Test
+  public void savedGraphIsRestored() throws IOException {
+    PolygonalNavGraph graph = createGraph(90);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    graph.saveGraph(out);
+
+    PolygonalNavGraph loaded = new PolygonalNavGraph();
+    loaded.setWalkZone(graph.getWalkZone());
+    loaded.addObstacle(graph.getObstacles().get(0));
+
+    assertTrue(loaded.loadGraph(new ByteArrayInputStream(out.toByteArray())));
+    assertEquals(graph.getGraphNodes().size(), loaded.getGraphNodes().size());
+    assertTrue(loaded.getGraphNodes().size() > 0);
+
+    for (int i = 0; i < graph.getGraphNodes().size(); i++) {
+      NavNodePolygonal n1 = graph.getGraphNodes().get(i);
+      NavNodePolygonal n2 = loaded.getGraphNodes().get(i);
+      assertEquals(n1.x, n2.x, 0);
+      assertEquals(n1.y, n2.y, 0);
+      assertEquals(n1.neighbors.size, n2.neighbors.size);
+    }
+  }
+
+  @Test
+  public void savedGraphIsRejectedWhenGeometryChanges() throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    createGraph(90).saveGraph(out);
+
+    PolygonalNavGraph other = createGraph(50);
+    int nodes = other.getGraphNodes().size();
+
+    assertFalse(other.loadGraph(new ByteArrayInputStream(out.toByteArray())));
+    assertEquals(nodes, other.getGraphNodes().size());
+  }
+
+  @Test
+  public void geometryChangedAfterCreatingTheGraph() {
+    PolygonalNavGraph graph = createGraph(90);
+    assertEquals(2, graph.findPath(10, 90, 190, 90).size());
+
+    // The edge index is removed and the new geometry is used until the graph
+    // is created again
+    graph.addObstacle(new Polygon(new float[] { 150, 0, 150, 100, 160, 100, 160, 0 }));
+    assertTrue(graph.findPath(10, 90, 190, 90).size() != 2);
+
+    graph.setWalkZone(new Polygon(new float[] { 0, 0, 300, 0, 300, 200, 0, 200 }));
+    ArrayList<Vector2> path = graph.findPath(10, 90, 290, 150);
+    assertEquals(new Vector2(290, 150), path.get(path.size() - 1));
+
+    graph.createInitialGraph();
+    path = graph.findPath(10, 90, 190, 90);
+    assertTrue(path.size() > 2);
+    assertTrue(path.get(1).y >= 100);
+  }
+
+  @Test
+  public void movedDinamicObstacleRestoresBlockedEdges() {
+    PolygonalNavGraph graph = createGraph(90);
+    int nodes = graph.getGraphNodes().size();
+    int edges = countEdges(graph);
+
+    Polygon bbox = new Polygon(new float[] { 0, 0, 0, 10, 10, 10, 10, 0 });
+    bbox.setPosition(40, 45);
+    graph.addDinamicObstacle(bbox);
+
+    assertTrue(countEdges(graph) - edgesOfObstacleNodes(graph, nodes) < edges);
+
+    graph.moveDinamicObstacle(bbox, 150, 45);
+    graph.moveDinamicObstacle(bbox, 40, 45);
+    graph.removeDinamicObstacle(bbox);
+
+    assertEquals(nodes, graph.getGraphNodes().size());
+    assertEquals(edges, countEdges(graph));
+  }
+
+  /**
+   * 1000x400 walkzone with two walls crossing the bottom edge and a small box
+   * between them.
+   */
+  private static PolygonalNavGraph createWallsGraph() {
+    PolygonalNavGraph graph = new PolygonalNavGraph();
+    graph.setWalkZone(new Polygon(new float[] { 0, 0, 1000, 0, 1000, 400, 0, 400 }));
+    graph.addObstacle(new Polygon(new float[] { 100, -10, 100, 300, 120, 300, 120, -10 }));
+    graph.addObstacle(new Polygon(new float[] { 880, -10, 880, 300, 900, 300, 900, -10 }));
+    graph.addObstacle(new Polygon(new float[] { 520, 240, 520, 250, 530, 250, 530, 240 }));
+    return graph;
+  }
+
+  @Test
+  public void dinamicObstacleGivesSamePathAsRebuild() {
+    PolygonalNavGraph graph = createWallsGraph();
+    graph.createInitialGraph();
+
+    // The shortest path goes over the walls and touches the obstacle corners,
+    // which are far from the static nodes used by the path
+    Polygon bbox = new Polygon(new float[] { 0, 0, 0, 30, 20, 30, 20, 0 });
+    bbox.setPosition(490, 290);
+    graph.addDinamicObstacle(bbox);
+
+    PolygonalNavGraph rebuilt = createWallsGraph();
+    rebuilt.addObstacle(new Polygon(new float[] { 490, 290, 490, 320, 510, 320, 510, 290 }));
+    rebuilt.createInitialGraph();
+
+    assertEquals(length(rebuilt.findPath(50, 50, 950, 50)), length(graph.findPath(50, 50, 950,
+        50)), 0.01f);
+  }
+
+  /**
+   * 1000x600 walkzone with a 4x3 grid of obstacles.
+   */
+  private static PolygonalNavGraph createGridGraph() {
+    PolygonalNavGraph graph = new PolygonalNavGraph();
+    graph.setWalkZone(new Polygon(new float[] { 0, 0, 1000, 0, 1000, 600, 0, 600 }));
+
+    for (int i = 0; i < 4; i++) {
+      for (int j = 0; j < 3; j++) {
+        float x = 80 + i * 240;
+        float y = 60 + j * 190;
+        graph.addObstacle(new Polygon(new float[] { x, y, x, y + 60, x + 60, y + 60,
+            x + 60, y }));
+      }
+    }
+
+    graph.createInitialGraph();
+    return graph;
+  }
+
+  @Test
+  public void dinamicObstacleBlocksAllCrossingEdges() {
+    PolygonalNavGraph graph = createGridGraph();
+
+    Polygon bbox = new Polygon(new float[] { 0, 0, 0, 40, 20, 40, 20, 0 });
+    graph.addDinamicObstacle(bbox);
+
+    for (float x = 10; x < 1000; x += 97) {
+      graph.moveDinamicObstacle(bbox, x, (x * 7) % 500);
+
+      for (NavNodePolygonal n1 : graph.getGraphNodes()) {
+        for (NavNode n : n1.neighbors) {
+          NavNodePolygonal n2 = (NavNodePolygonal) n;
+
+          assertTrue(PolygonUtils.inLineOfSight(n1.x, n1.y, n2.x, n2.y,
+              bbox.getTransformedVertices(), true));
+        }
+      }
+
+      ArrayList<Vector2> path = graph.findPath(5, 5, 995, 595);
+      assertTrue(path.size() >= 2);
+    }
+  }
+
+  @Test
+  public void snapshotIsPatchedWhenDinamicObstaclesChange() throws InterruptedException {
+    PolygonalNavGraph graph = createGridGraph();
+    Polygon bbox1 = new Polygon(new float[] { 0, 0, 0, 20, 20, 20, 20, 0 });
+    Polygon bbox2 = new Polygon(new float[] { 0, 0, 0, 20, 20, 20, 20, 0 });
+    bbox1.setPosition(20, 20);
+    bbox2.setPosition(900, 500);
+    graph.addDinamicObstacle(bbox1);
+    graph.addDinamicObstacle(bbox2);
+
+    NavGraphSnapshot snapshot = graph.getSnapshot();
+
+    for (int i = 0; i < 10; i++) {
+      // The nodes of the other obstacle are renumbered
+      if (i % 2 == 0)
+        graph.moveDinamicObstacle(bbox1, 20 + i * 15, 20 + i * 3);
+      else
+        graph.moveDinamicObstacle(bbox2, 900 - i * 10, 500);
+
+      assertSnapshot(graph, graph.getSnapshot());
+    }
+
+    assertSame(snapshot, graph.getSnapshot());
+
+    // A snapshot in use by a background search is copied
+    final ArrayList<ArrayList<Vector2>> result = new ArrayList<ArrayList<Vector2>>();
+
+    graph.findPathAsync(5, 5, 995, 595, new PathListener() {
+      @Override
+      public void onPathFound(ArrayList<Vector2> path) {
+        result.add(path);
+      }
+    });
+
+    int nodes = snapshot.getNodeCount();
+    graph.removeDinamicObstacle(bbox2);
+
+    assertNotSame(snapshot, graph.getSnapshot());
+    assertSnapshot(graph, graph.getSnapshot());
+    assertEquals(nodes, snapshot.getNodeCount());
+
+    graph.joinSearches();
+    assertEquals(1, result.size());
+  }
+
+  @Test
+  public void batchPathsAreEqualToSequentialPaths() {
+    PolygonalNavGraph batch = createGridGraph();
+    PolygonalNavGraph sequential = createGridGraph();
+    Polygon bbox = new Polygon(new float[] { 0, 0, 0, 40, 20, 40, 20, 0 });
+    bbox.setPosition(500, 300);
+    batch.addDinamicObstacle(bbox);
+    sequential.addDinamicObstacle(bbox);
+
+    // The target of the last path is clamped to the walkzone
+    float[] points = new float[] { 5, 5, 995, 595, 995, 5, 5, 595, 400, 300, 600, 310,
+        110, 90, 900, 420, 5, 300, 995, 300, 20, 20, 1200, 700 };
+
+    // A repeated path is taken from the cache
+    batch.findPath(400, 300, 600, 310);
+
+    ArrayList<ArrayList<Vector2>> paths = batch.findPaths(points);
+
+    assertEquals(points.length / 4, paths.size());
+    assertEquals(1, batch.getPathCache().getHits());
+
+    for (int i = 0; i < points.length; i += 4) {
+      assertEquals(sequential.findPath(points[i], points[i + 1], points[i + 2], points[i + 3]),
+          paths.get(i / 4));
+    }
+
+    assertTrue(paths.get(0).size() > 2);
+    assertTrue(paths.get(5).get(paths.get(5).size() - 1).epsilonEquals(1000, 600, 1));
+  }
+
+  @Test
+  public void cachedPathIsCopiedAndInvalidated() {
+    PolygonalNavGraph graph = createGraph(90);
+
+    ArrayList<Vector2> path = graph.findPath(10, 50, 190, 50);
+    assertTrue(path.size() > 2);
+    path.clear();
+
+    ArrayList<Vector2> cached = graph.findPath(10, 50, 190, 50);
+    assertEquals(1, graph.getPathCache().getHits());
+    assertTrue(cached.size() > 2);
+
+    Polygon bbox = new Polygon(new float[] { 0, 0, 0, 100, 10, 100, 10, 0 });
+    bbox.setPosition(150, 0);
+    graph.addDinamicObstacle(bbox);
+
+    graph.findPath(10, 50, 190, 50);
+    assertEquals(1, graph.getPathCache().getHits());
+  }
+
+  @Test
+  public void dinamicObstacleOnlyInvalidatesNearPaths() {
+    PolygonalNavGraph graph = createGraph(90);
+
+    graph.findPath(10, 10, 60, 10);
+    graph.findPath(10, 50, 190, 50);
+
+    Polygon bbox = new Polygon(new float[] { 0, 0, 0, 10, 10, 10, 10, 0 });
+    bbox.setPosition(150, 45);
+    graph.addDinamicObstacle(bbox);
+
+    graph.findPath(10, 10, 60, 10);
+    assertEquals(1, graph.getPathCache().getHits());
+
+    // Paths near the old bounds are also invalidated
+    graph.findPath(155, 56, 155, 90);
+    graph.moveDinamicObstacle(bbox, 20, 45);
+
+    graph.findPath(155, 56, 155, 90);
+    graph.findPath(10, 10, 60, 10);
+    assertEquals(2, graph.getPathCache().getHits());
+  }
+
+  @Test
+  public void pathIsShortestByDistance() {
+    // The path under the obstacle has less nodes but it is much longer
+    PolygonalNavGraph graph = new PolygonalNavGraph();
+    graph.setWalkZone(new Polygon(new float[] { 0, 0, 400, 0, 400, 200, 0, 200 }));
+    graph.addObstacle(new Polygon(new float[] { 200, 10, 150, 180, 200, 190, 250, 180 }));
+    graph.createInitialGraph();
+
+    ArrayList<Vector2> path = graph.findPath(100, 170, 300, 170);
+
+    assertTrue(path.size() > 2);
+    assertTrue(length(path) < 250);
+  }
+
+  @Test
+  public void allPairsTableGivesSamePath() {
+    PolygonalNavGraph graph = new PolygonalNavGraph();
+    graph.setWalkZone(new Polygon(new float[] { 0, 0, 400, 0, 400, 200, 0, 200 }));
+    graph.addObstacle(new Polygon(new float[] { 200, 10, 150, 180, 200, 190, 250, 180 }));
+    graph.setAllPairsEnabled(true);
+    graph.createInitialGraph();
+
+    assertNotNull(graph.getAllPairs());
+
+    ArrayList<Vector2> path = graph.findPath(100, 170, 300, 170);
+
+    graph.setAllPairsEnabled(false);
+    graph.createInitialGraph();
+
+    assertNull(graph.getAllPairs());
+    assertEquals(length(graph.findPath(100, 170, 300, 170)), length(path), 0.01f);
+  }
+
+  @Test
+  public void asyncPathIsDeliveredWhenJoined() throws InterruptedException {
+    PolygonalNavGraph graph = createGraph(90);
+    final ArrayList<ArrayList<Vector2>> result = new ArrayList<ArrayList<Vector2>>();
+
+    graph.findPathAsync(10, 50, 190, 50, new PathListener() {
+      @Override
+      public void onPathFound(ArrayList<Vector2> path) {
+        result.add(path);
+      }
+    });
+
+    // The graph can change while the search is in progress
+    Polygon bbox = new Polygon(new float[] { 0, 0, 0, 10, 10, 10, 10, 0 });
+    bbox.setPosition(40, 45);
+    graph.addDinamicObstacle(bbox);
+
+    // The path is only delivered when the search is joined, whatever the
+    // time the background thread takes
+    Thread.sleep(50);
+    ActionCallbackQueue.run();
+    assertTrue(result.isEmpty());
+
+    graph.joinSearches();
+    assertEquals(1, result.size());
+    assertEquals(createGraph(90).findPath(10, 50, 190, 50), result.get(0));
+  }
+
+  private static float length(ArrayList<Vector2> path) {
+    float length = 0;
+
+    for (int i = 0; i < path.size() - 1; i++)
+      length += path.get(i).dst(path.get(i + 1));
+
+    return length;
+  }
+
+  private static void assertSnapshot(PolygonalNavGraph graph, NavGraphSnapshot snapshot) {
+    ArrayList<NavNodePolygonal> nodes = graph.getGraphNodes();
+
+    assertEquals(nodes.size(), snapshot.getNodeCount());
+
+    for (int i = 0; i < nodes.size(); i++) {
+      NavNodePolygonal n = nodes.get(i);
+
+      assertEquals(n.x, snapshot.getX(i), 0);
+      assertEquals(n.y, snapshot.getY(i), 0);
+      assertEquals(n.neighbors.size, snapshot.getNeighborCount(i));
+
+      for (int j = 0; j < n.neighbors.size; j++)
+        assertSame(n.neighbors.get(j), nodes.get(snapshot.getNeighbor(i, j)));
+    }
+  }
+
+  private static int countEdges(PolygonalNavGraph graph) {
+    int edges = 0;
+
+    for (NavNodePolygonal n : graph.getGraphNodes())
+      edges += n.neighbors.size;
+
+    return edges;
+  }
+
+  private static int edgesOfObstacleNodes(PolygonalNavGraph graph, int staticNodes) {
+    int edges = 0;
+
+    for (int i = staticNodes; i < graph.getGraphNodes().size(); i++)
+      edges += graph.getGraphNodes().get(i).neighbors.size * 2;
+
+    return edges;
+  }
+}
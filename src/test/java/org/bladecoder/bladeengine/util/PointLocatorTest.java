@@ -0,0 +1,104 @@
+package org.bladecoder.bladeengine.util;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.badlogic.gdx.math.Polygon;
+import com.badlogic.gdx.math.Vector2;
+
+public class PointLocatorTest {
+  /**
+   * Star shaped polygon with many concave vertices.
+   */
+  private static float[] createStar(int points) {
+    float[] verts = new float[points * 4];
+
+    for (int i = 0; i < points * 2; i++) {
+      double a = Math.PI * i / points;
+      float r = i % 2 == 0 ? 400 : 150;
+
+      verts[i * 2] = 500 + (float) (Math.cos(a) * r);
+      verts[i * 2 + 1] = 500 + (float) (Math.sin(a) * r);
+    }
+
+    return verts;
+  }
+
+  @Test
+  public void pointInsideIsEqualToPolygonUtils() {
+    float[] verts = createStar(40);
+    PointLocator locator = new PointLocator(verts);
+    Random random = new Random(1);
+
+    for (int i = 0; i < 5000; i++) {
+      float x = random.nextFloat() * 1200 - 100;
+      float y = random.nextFloat() * 1200 - 100;
+
+      assertEquals(PolygonUtils.isPointInside(verts, x, y, true),
+          locator.isPointInside(x, y, true));
+      assertEquals(PolygonUtils.isPointInside(verts, x, y, false),
+          locator.isPointInside(x, y, false));
+    }
+
+    // Points on the vertices and the edges use the tolerance
+    for (int i = 0; i < verts.length; i += 2) {
+      float x = (verts[i] + verts[(i + 2) % verts.length]) / 2;
+      float y = (verts[i + 1] + verts[(i + 3) % verts.length]) / 2;
+
+      assertTrue(locator.isPointInside(verts[i], verts[i + 1], true));
+      assertFalse(locator.isPointInside(verts[i], verts[i + 1], false));
+      assertEquals(PolygonUtils.isPointInside(verts, x, y, true), locator.isPointInside(x, y, true));
+      assertEquals(PolygonUtils.isPointInside(verts, x, y, false),
+          locator.isPointInside(x, y, false));
+    }
+  }
+
+  @Test
+  public void clampedPointIsEqualToPolygonUtils() {
+    float[] verts = createStar(40);
+    Polygon polygon = new Polygon(verts);
+    PointLocator locator = new PointLocator(verts);
+    Random random = new Random(2);
+    Vector2 expected = new Vector2();
+    Vector2 dest = new Vector2();
+
+    for (int i = 0; i < 5000; i++) {
+      float x = random.nextFloat() * 2000 - 500;
+      float y = random.nextFloat() * 2000 - 500;
+
+      assertEquals(PolygonUtils.getClampedPoint(polygon, x, y, expected),
+          locator.getClampedPoint(x, y, dest));
+      assertEquals(expected, dest);
+
+      assertEquals(PolygonUtils.getClampedPointInside(polygon, x, y, expected),
+          locator.getClampedPointInside(x, y, dest));
+      assertEquals(expected, dest);
+    }
+  }
+
+  @Test
+  public void clampedPointTiesGiveTheFirstEdge() {
+    float[] square = new float[] { 0, 0, 0, 100, 100, 100, 100, 0 };
+    Polygon polygon = new Polygon(square);
+    PointLocator locator = new PointLocator(square);
+    Vector2 expected = new Vector2();
+    Vector2 dest = new Vector2();
+
+    // The center, the diagonals and points outside the corners are at the
+    // same distance of several edges
+    float[] points = new float[] { 50, 50, 25, 25, 75, 25, 25, 75, 75, 75, -10, -10, 110, -10,
+        110, 110, -10, 110, 50, -10, 50, 110 };
+
+    for (int i = 0; i < points.length; i += 2) {
+      int index = PolygonUtils.getClampedPoint(polygon, points[i], points[i + 1], expected);
+
+      assertEquals(index, locator.getClampedPoint(points[i], points[i + 1], dest));
+      assertEquals(expected, dest);
+    }
+
+    assertEquals(0, locator.getClampedPoint(50, 50, dest));
+  }
+}